@@ -25,10 +25,13 @@ package team.unnamed.creative;
 
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import net.kyori.examination.Examinable;
 import team.unnamed.creative.base.Writable;
 
+import java.nio.file.Path;
+
 /**
  * Represents a built server-side resource-pack ready
  * to be downloaded by a player via HTTP.
@@ -50,7 +53,24 @@ public interface BuiltResourcePack extends Examinable {
      * @since 1.1.0
      */
     static @NotNull BuiltResourcePack of(final @NotNull Writable data, final @NotNull String hash) {
-        return new BuiltResourcePackImpl(data, hash);
+        return new BuiltResourcePackImpl(data, hash, null);
+    }
+
+    /**
+     * Creates a new {@link BuiltResourcePack} instance
+     * backed by the given resource-pack zip file.
+     *
+     * <p>The file is not loaded into memory, it is read
+     * every time the data is requested, so it must not be
+     * modified or deleted while the pack is in use.</p>
+     *
+     * @param file The resource-pack zip archive file
+     * @param hash The SHA-1 hash of the resource-pack
+     * @return The built resource-pack instance
+     * @since 1.8.0
+     */
+    static @NotNull BuiltResourcePack of(final @NotNull Path file, final @NotNull String hash) {
+        return new BuiltResourcePackImpl(Writable.path(file), hash, file);
     }
 
     /**
@@ -71,4 +91,20 @@ public interface BuiltResourcePack extends Examinable {
      */
     @NotNull
     String hash();
+
+    /**
+     * Returns the file backing the resource-pack data, if
+     * this pack was created from a file.
+     *
+     * <p>Consumers such as resource-pack servers can use this
+     * to transfer the data directly from the file instead of
+     * loading it through {@link #data()}.</p>
+     *
+     * @return The resource-pack zip archive file, or null if
+     * the pack is not backed by a file
+     * @since 1.8.0
+     */
+    default @Nullable Path file() {
+        return null;
+    }
 }
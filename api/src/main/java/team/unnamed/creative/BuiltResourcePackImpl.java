@@ -23,22 +23,31 @@
  */
 package team.unnamed.creative;
 
+import net.kyori.examination.ExaminableProperty;
+import net.kyori.examination.string.StringExaminer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.base.Writable;
 
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
 import static java.util.Objects.requireNonNull;
 
 final class BuiltResourcePackImpl implements BuiltResourcePack {
 
     private final Writable data;
     private final String hash;
+    private final Path file;
 
     BuiltResourcePackImpl(
             final @NotNull Writable data,
-            final @NotNull String hash
+            final @NotNull String hash,
+            final @Nullable Path file
     ) {
         this.data = requireNonNull(data, "data");
         this.hash = requireNonNull(hash, "hash");
+        this.file = file;
     }
 
     @Override
@@ -51,5 +60,22 @@ final class BuiltResourcePackImpl implements BuiltResourcePack {
         return hash;
     }
 
+    @Override
+    public @Nullable Path file() {
+        return file;
+    }
+
+    @Override
+    public @NotNull Stream<? extends ExaminableProperty> examinableProperties() {
+        return Stream.of(
+                ExaminableProperty.of("hash", hash),
+                ExaminableProperty.of("file", file)
+        );
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return examine(StringExaminer.simpleEscaping());
+    }
 
 }
@@ -25,6 +25,7 @@ package team.unnamed.creative.serialize.minecraft;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.ResourcePack;
 import team.unnamed.creative.serialize.ResourcePackReader;
 import team.unnamed.creative.serialize.minecraft.fs.FileTreeReader;
@@ -35,6 +36,7 @@ import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
@@ -135,6 +137,34 @@ public interface MinecraftResourcePackReader extends ResourcePackReader<FileTree
         @Contract("_ -> this")
         @NotNull Builder lenient(final boolean lenient);
 
+        /**
+         * Sets the pool used to parse and deserialize the files of the
+         * resource-packs in parallel, when they are read from ZIP files
+         * or directories, null to read them sequentially (the default).
+         *
+         * <p>Files are still added in the order they are listed, so the
+         * read resource-packs are the same as the sequentially read ones.</p>
+         *
+         * @param pool The pool, null to read sequentially
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder parallel(final @Nullable ForkJoinPool pool);
+
+        /**
+         * Makes the reader parse and deserialize the files of the
+         * resource-packs in parallel, using the common pool.
+         *
+         * @return This builder
+         * @see #parallel(ForkJoinPool)
+         * @since 1.8.0
+         */
+        @Contract("-> this")
+        default @NotNull Builder parallel() {
+            return parallel(ForkJoinPool.commonPool());
+        }
+
         /**
          * Builds a new {@link MinecraftResourcePackReader} instance.
          *
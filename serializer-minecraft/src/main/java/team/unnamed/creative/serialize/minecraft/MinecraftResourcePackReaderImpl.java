@@ -30,6 +30,7 @@ import org.intellij.lang.annotations.Subst;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Readable;
 import team.unnamed.creative.base.Writable;
 import team.unnamed.creative.metadata.Metadata;
 import team.unnamed.creative.overlay.Overlay;
@@ -40,6 +41,7 @@ import team.unnamed.creative.serialize.minecraft.io.JsonResourceDeserializer;
 import team.unnamed.creative.serialize.minecraft.io.ResourceDeserializer;
 import team.unnamed.creative.serialize.minecraft.metadata.MetadataSerializer;
 import team.unnamed.creative.serialize.minecraft.sound.SoundRegistrySerializer;
+import team.unnamed.creative.sound.SoundRegistry;
 import team.unnamed.creative.texture.Texture;
 import team.unnamed.creative.util.Keys;
 
@@ -48,11 +50,15 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import static java.util.Objects.requireNonNull;
 import static team.unnamed.creative.serialize.minecraft.MinecraftResourcePackStructure.*;
@@ -63,11 +69,14 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
             .build();
 
     private final boolean lenient;
+    private final @Nullable ForkJoinPool pool;
 
     private MinecraftResourcePackReaderImpl(
-            final boolean lenient
+            final boolean lenient,
+            final @Nullable ForkJoinPool pool
     ) {
         this.lenient = lenient;
+        this.pool = pool;
     }
 
     @Override
@@ -81,140 +90,241 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
         // (null key means it is root resource pack)
         Map<@Nullable String, Map<Key, Texture>> incompleteTextures = new LinkedHashMap<>();
 
-        while (reader.hasNext()) {
-            String path = reader.next();
-
-            // tokenize path in sections, e.g.: [ assets, minecraft, textures, ... ]
-            Queue<String> tokens = tokenize(path);
+        if (pool != null && reader.randomAccess()) {
+            readInParallel(reader, pool, resourcePack, incompleteTextures);
+        } else {
+            final FileSource source = new FileSource() {
+                @Override
+                public @NotNull InputStream stream() {
+                    return reader.stream();
+                }
 
-            if (tokens.isEmpty()) {
-                // this should never happen
-                throw new IllegalStateException("Token collection is empty!");
-            }
+                @Override
+                public boolean empty() throws IOException {
+                    return reader.stream().available() == 0;
+                }
 
-            // single token means the file is on the
-            // root level (top level files) so it may be:
-            // - pack.mcmeta
-            // - pack.png
-            if (tokens.size() == 1) {
-                switch (tokens.poll()) {
-                    case PACK_METADATA_FILE: {
-                        // found pack.mcmeta file, deserialize and add
-                        Metadata metadata = MetadataSerializer.INSTANCE.readFromTree(parseJson(reader.stream()));
-                        resourcePack.metadata(metadata);
-                        continue;
-                    }
-                    case PACK_ICON_FILE: {
-                        // found pack.png file, add
-                        resourcePack.icon(reader.content().asWritable());
-                        continue;
-                    }
-                    default: {
-                        // unknown top level file
-                        resourcePack.unknownFile(path, reader.content().asWritable());
-                        continue;
-                    }
+                @Override
+                public @NotNull Writable writable() {
+                    return reader.content().asWritable();
                 }
+            };
+            while (reader.hasNext()) {
+                String path = reader.next();
+                read(path, source).addTo(resourcePack, incompleteTextures);
             }
+        }
 
-            // the container to use, it is initially the default resource-pack,
-            // but it may change if the file is inside an overlay folder
+        for (Map.Entry<String, Map<Key, Texture>> entry : incompleteTextures.entrySet()) {
             @Subst("dir")
-            @Nullable String overlayDir = null;
-
-            // the file path, relative to the container
-            String containerPath = path;
-            ResourceContainer container = resourcePack;
-
-            // if there are two or more tokens, it means the
-            // file is inside a folder, in a Minecraft resource
-            // pack, the first folder is always "assets"
-            String folder = tokens.poll();
-
-            if (folder.equals(OVERLAYS_FOLDER)) {
-                // gets the overlay name, set after the
-                // "overlays" folder, e.g. "overlays/foo",
-                // or "overlays/bar"
-                overlayDir = tokens.poll();
-                if (tokens.isEmpty()) {
-                    // this means that there is a file directly
-                    // inside the "overlays" folder, this is illegal
-                    resourcePack.unknownFile(containerPath, reader.content().asWritable());
-                    continue;
-                }
+            @Nullable String overlayDir = entry.getKey();
+            Map<Key, Texture> incompleteTexturesThisContainer = entry.getValue();
+            ResourceContainer container;
 
-                Overlay overlay = resourcePack.overlay(overlayDir);
-                if (overlay == null) {
-                    // first occurrence, register overlay
-                    overlay = Overlay.overlay(overlayDir);
-                    resourcePack.overlay(overlay);
-                }
+            if (overlayDir == null) {
+                // root
+                container = resourcePack;
+            } else {
+                // from an overlay
+                container = resourcePack.overlay(overlayDir);
+                requireNonNull(container, "container"); // should never happen, but make ide happy
+            }
 
-                container = overlay;
-                folder = tokens.poll();
-                containerPath = path.substring((OVERLAYS_FOLDER + '/' + overlayDir + '/').length());
+            for (Texture texture : incompleteTexturesThisContainer.values()) {
+                if (texture.data() != Writable.EMPTY) {
+                    container.texture(texture);
+                }
             }
+        }
+        return resourcePack;
+    }
 
-            // null check to make ide happy
-            if (folder == null || !folder.equals(ASSETS_FOLDER) || tokens.isEmpty()) {
-                // not assets! this is an unknown file
-                container.unknownFile(containerPath, reader.content().asWritable());
-                continue;
+    /**
+     * Lists the files of the given (random access) reader, reads
+     * them in parallel, and adds them to the resource-pack in the
+     * order they were listed, so the result is the same as reading
+     * them sequentially
+     */
+    private void readInParallel(
+            final @NotNull FileTreeReader reader,
+            final @NotNull ForkJoinPool pool,
+            final @NotNull ResourcePack resourcePack,
+            final @NotNull Map<@Nullable String, Map<Key, Texture>> incompleteTextures
+    ) {
+        // bounded, so that only a few read files wait in memory
+        final int window = pool.getParallelism() * 4;
+        final Deque<ForkJoinTask<ReadFile>> pending = new ArrayDeque<>(window);
+        try {
+            while (true) {
+                while (pending.size() < window && reader.hasNext()) {
+                    final String path = reader.next();
+                    final Readable content = reader.content();
+                    pending.add(pool.submit(() -> read(path, new FileSource() {
+                        @Override
+                        public @NotNull InputStream stream() throws IOException {
+                            return content.open();
+                        }
+
+                        @Override
+                        public boolean empty() throws IOException {
+                            try (InputStream input = content.open()) {
+                                return input.available() == 0;
+                            }
+                        }
+
+                        @Override
+                        public @NotNull Writable writable() {
+                            return content.asWritable();
+                        }
+                    })));
+                }
+                final ForkJoinTask<ReadFile> task = pending.poll();
+                if (task == null) {
+                    break;
+                }
+                task.join().addTo(resourcePack, incompleteTextures);
+            }
+        } finally {
+            for (final ForkJoinTask<ReadFile> task : pending) {
+                task.cancel(false);
             }
+        }
+    }
 
-            // inside "assets", we should always have a folder
-            // with any name, which is a namespace, e.g. "minecraft"
-            String namespace = tokens.poll();
+    /**
+     * Reads (parses and deserializes) the file at the given path,
+     * which only depends on its path and contents, so it can be
+     * done in any thread, the returned file is then added to the
+     * resource-pack in the reading thread
+     *
+     * @param path   The file path
+     * @param source The file contents
+     * @return The read file
+     */
+    @SuppressWarnings("PatternValidation")
+    private @NotNull ReadFile read(final @NotNull String path, final @NotNull FileSource source) {
+        // tokenize path in sections, e.g.: [ assets, minecraft, textures, ... ]
+        Queue<String> tokens = tokenize(path);
 
-            if (!Keys.isValidNamespace(namespace)) {
-                // invalid namespace found
-                container.unknownFile(containerPath, reader.content().asWritable());
-                continue;
-            }
+        if (tokens.isEmpty()) {
+            // this should never happen
+            throw new IllegalStateException("Token collection is empty!");
+        }
 
-            if (tokens.isEmpty()) {
-                // found a file directly inside "assets", like
-                // assets/<file>, it is not allowed
-                container.unknownFile(containerPath, reader.content().asWritable());
-                continue;
+        // single token means the file is on the
+        // root level (top level files) so it may be:
+        // - pack.mcmeta
+        // - pack.png
+        if (tokens.size() == 1) {
+            switch (tokens.poll()) {
+                case PACK_METADATA_FILE: {
+                    // found pack.mcmeta file, deserialize and add
+                    Metadata metadata = MetadataSerializer.INSTANCE.readFromTree(parseJson(stream(source)));
+                    return (resourcePack, incompleteTextures) -> resourcePack.metadata(metadata);
+                }
+                case PACK_ICON_FILE: {
+                    // found pack.png file, add
+                    Writable icon = source.writable();
+                    return (resourcePack, incompleteTextures) -> resourcePack.icon(icon);
+                }
+                default: {
+                    // unknown top level file
+                    Writable data = source.writable();
+                    return (resourcePack, incompleteTextures) -> resourcePack.unknownFile(path, data);
+                }
             }
+        }
+
+        // the overlay containing the file, if it is inside an overlay folder,
+        // otherwise the file is in the default resource-pack
+        @Subst("dir")
+        @Nullable String overlayDir = null;
 
-            // so we already have "assets/<namespace>/", most files inside
-            // the namespace folder always have a "category", e.g. textures,
-            // lang, font, etc. But not always! There is sounds.json file and
-            // gpu_warnlist.json file
-            String categoryName = tokens.poll();
+        // the file path, relative to the container
+        String containerPath = path;
 
+        // if there are two or more tokens, it means the
+        // file is inside a folder, in a Minecraft resource
+        // pack, the first folder is always "assets"
+        String folder = tokens.poll();
+
+        if (folder.equals(OVERLAYS_FOLDER)) {
+            // gets the overlay name, set after the
+            // "overlays" folder, e.g. "overlays/foo",
+            // or "overlays/bar"
+            overlayDir = tokens.poll();
             if (tokens.isEmpty()) {
-                // this means "category" is a file
-                // (remember: last tokens are always files)
-                if (categoryName.equals(SOUNDS_FILE)) {
-                    // found a sound registry!
-                    container.soundRegistry(SoundRegistrySerializer.INSTANCE.readFromTree(
-                            parseJson(reader.stream()),
-                            namespace
-                    ));
-                    continue;
-                } else {
-                    // TODO: gpu_warnlist.json?
-                    container.unknownFile(containerPath, reader.content().asWritable());
-                    continue;
-                }
+                // this means that there is a file directly
+                // inside the "overlays" folder, this is illegal
+                Writable data = source.writable();
+                return (resourcePack, incompleteTextures) -> resourcePack.unknownFile(path, data);
             }
 
-            // so "category" is actually a category like "textures",
-            // "lang", "font", etc. next we can compute the relative
-            // path inside the category
-            String categoryPath = path(tokens);
+            folder = tokens.poll();
+            containerPath = path.substring((OVERLAYS_FOLDER + '/' + overlayDir + '/').length());
+        }
+
+        final String overlay = overlayDir;
+        final String relativePath = containerPath;
+
+        // null check to make ide happy
+        if (folder == null || !folder.equals(ASSETS_FOLDER) || tokens.isEmpty()) {
+            // not assets! this is an unknown file
+            return unknownFile(overlay, relativePath, source);
+        }
+
+        // inside "assets", we should always have a folder
+        // with any name, which is a namespace, e.g. "minecraft"
+        String namespace = tokens.poll();
+
+        if (!Keys.isValidNamespace(namespace)) {
+            // invalid namespace found
+            return unknownFile(overlay, relativePath, source);
+        }
+
+        if (tokens.isEmpty()) {
+            // found a file directly inside "assets", like
+            // assets/<file>, it is not allowed
+            return unknownFile(overlay, relativePath, source);
+        }
 
-            if (categoryName.equals(TEXTURES_FOLDER)) {
-                String keyOfMetadata = withoutExtension(categoryPath, METADATA_EXTENSION);
-                if (keyOfMetadata != null) {
-                    // found metadata for texture
-                    Key key = Key.key(namespace, keyOfMetadata);
-                    Metadata metadata = MetadataSerializer.INSTANCE.readFromTree(parseJson(reader.stream()));
+        // so we already have "assets/<namespace>/", most files inside
+        // the namespace folder always have a "category", e.g. textures,
+        // lang, font, etc. But not always! There is sounds.json file and
+        // gpu_warnlist.json file
+        String categoryName = tokens.poll();
+
+        if (tokens.isEmpty()) {
+            // this means "category" is a file
+            // (remember: last tokens are always files)
+            if (categoryName.equals(SOUNDS_FILE)) {
+                // found a sound registry!
+                SoundRegistry soundRegistry = SoundRegistrySerializer.INSTANCE.readFromTree(
+                        parseJson(stream(source)),
+                        namespace
+                );
+                return (resourcePack, incompleteTextures) -> container(resourcePack, overlay).soundRegistry(soundRegistry);
+            } else {
+                // TODO: gpu_warnlist.json?
+                return unknownFile(overlay, relativePath, source);
+            }
+        }
 
-                    Map<Key, Texture> incompleteTexturesThisContainer = incompleteTextures.computeIfAbsent(overlayDir, k -> new LinkedHashMap<>());
+        // so "category" is actually a category like "textures",
+        // "lang", "font", etc. next we can compute the relative
+        // path inside the category
+        String categoryPath = path(tokens);
+
+        if (categoryName.equals(TEXTURES_FOLDER)) {
+            String keyOfMetadata = withoutExtension(categoryPath, METADATA_EXTENSION);
+            if (keyOfMetadata != null) {
+                // found metadata for texture
+                Key key = Key.key(namespace, keyOfMetadata);
+                Metadata metadata = MetadataSerializer.INSTANCE.readFromTree(parseJson(stream(source)));
+
+                return (resourcePack, incompleteTextures) -> {
+                    ResourceContainer container = container(resourcePack, overlay);
+                    Map<Key, Texture> incompleteTexturesThisContainer = incompleteTextures.computeIfAbsent(overlay, k -> new LinkedHashMap<>());
                     Texture texture = incompleteTexturesThisContainer.remove(key);
                     if (texture == null) {
                         // metadata was found first, put
@@ -223,10 +333,14 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
                         // texture was found before the metadata, nice!
                         container.texture(texture.meta(metadata));
                     }
-                } else {
-                    Key key = Key.key(namespace, categoryPath);
-                    Writable data = reader.content().asWritable();
-                    Map<Key, Texture> incompleteTexturesThisContainer = incompleteTextures.computeIfAbsent(overlayDir, k -> new LinkedHashMap<>());
+                };
+            } else {
+                Key key = Key.key(namespace, categoryPath);
+                Writable data = source.writable();
+
+                return (resourcePack, incompleteTextures) -> {
+                    ResourceContainer container = container(resourcePack, overlay);
+                    Map<Key, Texture> incompleteTexturesThisContainer = incompleteTextures.computeIfAbsent(overlay, k -> new LinkedHashMap<>());
                     Texture waiting = incompleteTexturesThisContainer.remove(key);
 
                     if (waiting == null) {
@@ -240,73 +354,82 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
                                 waiting.meta()
                         ));
                     }
-                }
-            } else {
-                @SuppressWarnings("rawtypes")
-                ResourceCategory category = ResourceCategories.getByFolder(categoryName);
-                if (category == null) {
-                    // unknown category
-                    container.unknownFile(containerPath, reader.content().asWritable());
-                    continue;
-                }
-                String keyValue = withoutExtension(categoryPath, category.extension());
-                if (keyValue == null) {
-                    // wrong extension
-                    container.unknownFile(containerPath, reader.content().asWritable());
-                    continue;
-                }
-                Key key = Key.key(namespace, keyValue);
+                };
+            }
+        } else {
+            @SuppressWarnings("rawtypes")
+            ResourceCategory category = ResourceCategories.getByFolder(categoryName);
+            if (category == null) {
+                // unknown category
+                return unknownFile(overlay, relativePath, source);
+            }
+            String keyValue = withoutExtension(categoryPath, category.extension());
+            if (keyValue == null) {
+                // wrong extension
+                return unknownFile(overlay, relativePath, source);
+            }
+            Key key = Key.key(namespace, keyValue);
 
-                try {
-                    if (reader.stream().available() == 0) {
-                        continue;
-                    }
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+            try {
+                if (source.empty()) {
+                    return (resourcePack, incompleteTextures) -> container(resourcePack, overlay);
                 }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
 
-                try {
-                    ResourceDeserializer<?> deserializer = category.deserializer();
-                    Object resource;
-                    if (deserializer instanceof BinaryResourceDeserializer) {
-                        resource = ((BinaryResourceDeserializer<?>) deserializer)
-                                .deserializeBinary(reader.content().asWritable(), key);
-                    } else if (deserializer instanceof JsonResourceDeserializer) {
-                        resource = ((JsonResourceDeserializer<?>) deserializer)
-                                .deserializeFromJson(parseJson(reader.stream()), key);
-                    } else {
-                        resource = deserializer.deserialize(reader.stream(), key);
+            try {
+                ResourceDeserializer<?> deserializer = category.deserializer();
+                Object resource;
+                if (deserializer instanceof BinaryResourceDeserializer) {
+                    resource = ((BinaryResourceDeserializer<?>) deserializer)
+                            .deserializeBinary(source.writable(), key);
+                } else if (deserializer instanceof JsonResourceDeserializer) {
+                    resource = ((JsonResourceDeserializer<?>) deserializer)
+                            .deserializeFromJson(parseJson(source.stream()), key);
+                } else {
+                    // opened for this file when read in parallel, so it must be closed
+                    try (InputStream input = source.stream()) {
+                        resource = deserializer.deserialize(input, key);
                     }
-                    //noinspection unchecked
-                    category.setter().accept(container, resource);
-                } catch (IOException e) {
-                    throw new UncheckedIOException("Failed to deserialize resource at: '" + path + "'", e);
                 }
+                //noinspection unchecked
+                return (resourcePack, incompleteTextures) -> category.setter().accept(container(resourcePack, overlay), resource);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to deserialize resource at: '" + path + "'", e);
             }
         }
+    }
 
-        for (Map.Entry<String, Map<Key, Texture>> entry : incompleteTextures.entrySet()) {
-            @Subst("dir")
-            @Nullable String overlayDir = entry.getKey();
-            Map<Key, Texture> incompleteTexturesThisContainer = entry.getValue();
-            ResourceContainer container;
+    private static @NotNull ReadFile unknownFile(final @Nullable String overlayDir, final @NotNull String containerPath, final @NotNull FileSource source) {
+        final Writable data = source.writable();
+        return (resourcePack, incompleteTextures) -> container(resourcePack, overlayDir).unknownFile(containerPath, data);
+    }
 
-            if (overlayDir == null) {
-                // root
-                container = resourcePack;
-            } else {
-                // from an overlay
-                container = resourcePack.overlay(overlayDir);
-                requireNonNull(container, "container"); // should never happen, but make ide happy
-            }
+    /**
+     * Returns the container for the given overlay, registering
+     * it on its first occurrence, or the resource-pack itself
+     */
+    @SuppressWarnings("PatternValidation")
+    private static @NotNull ResourceContainer container(final @NotNull ResourcePack resourcePack, final @Nullable String overlayDir) {
+        if (overlayDir == null) {
+            return resourcePack;
+        }
+        Overlay overlay = resourcePack.overlay(overlayDir);
+        if (overlay == null) {
+            // first occurrence, register overlay
+            overlay = Overlay.overlay(overlayDir);
+            resourcePack.overlay(overlay);
+        }
+        return overlay;
+    }
 
-            for (Texture texture : incompleteTexturesThisContainer.values()) {
-                if (texture.data() != Writable.EMPTY) {
-                    container.texture(texture);
-                }
-            }
+    private static @NotNull InputStream stream(final @NotNull FileSource source) {
+        try {
+            return source.stream();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return resourcePack;
     }
 
     private static @Nullable String withoutExtension(String string, String extension) {
@@ -327,8 +450,28 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
         }
     }
 
+    /**
+     * The contents of the file being read
+     */
+    private interface FileSource {
+        @NotNull InputStream stream() throws IOException;
+
+        boolean empty() throws IOException;
+
+        @NotNull Writable writable();
+    }
+
+    /**
+     * A read file, waiting to be added to the resource-pack
+     */
+    @FunctionalInterface
+    private interface ReadFile {
+        void addTo(final @NotNull ResourcePack resourcePack, final @NotNull Map<@Nullable String, Map<Key, Texture>> incompleteTextures);
+    }
+
     static final class BuilderImpl implements Builder {
         private boolean lenient = false;
+        private @Nullable ForkJoinPool pool;
 
         @Override
         public @NotNull Builder lenient(final boolean lenient) {
@@ -336,9 +479,15 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
             return this;
         }
 
+        @Override
+        public @NotNull Builder parallel(final @Nullable ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
         @Override
         public @NotNull MinecraftResourcePackReader build() {
-            return new MinecraftResourcePackReaderImpl(lenient);
+            return new MinecraftResourcePackReaderImpl(lenient, pool);
         }
     }
 }
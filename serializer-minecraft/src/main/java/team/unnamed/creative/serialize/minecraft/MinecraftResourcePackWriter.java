@@ -25,26 +25,31 @@ package team.unnamed.creative.serialize.minecraft;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.BuiltResourcePack;
 import team.unnamed.creative.ResourcePack;
 import team.unnamed.creative.base.Writable;
 import team.unnamed.creative.serialize.ResourcePackWriter;
 import team.unnamed.creative.serialize.minecraft.fs.FileTreeWriter;
+import team.unnamed.creative.serialize.minecraft.fs.ZipCompressionPolicy;
 
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.zip.ZipOutputStream;
 
+import static java.util.Objects.requireNonNull;
+
 public interface MinecraftResourcePackWriter extends ResourcePackWriter<FileTreeWriter> {
     /**
      * Returns the standard {@link MinecraftResourcePackWriter} instance.
@@ -92,12 +97,7 @@ public interface MinecraftResourcePackWriter extends ResourcePackWriter<FileTree
     }
 
     default BuiltResourcePack build(ResourcePack resourcePack) {
-        MessageDigest digest;
-        try {
-            digest = MessageDigest.getInstance("SHA-1");
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("Cannot find SHA-1 algorithm");
-        }
+        MessageDigest digest = MinecraftResourcePackWriterImpl.sha1();
         ByteArrayOutputStream output = new ByteArrayOutputStream();
 
         // write resource to zip
@@ -105,24 +105,100 @@ public interface MinecraftResourcePackWriter extends ResourcePackWriter<FileTree
             write(writer, resourcePack);
         }
 
-        byte[] bytes = output.toByteArray();
-        String hash;
-
-        // stringify SHA-1 hash
-        {
-            byte[] hashBytes = digest.digest();
-            StringBuilder builder = new StringBuilder(hashBytes.length * 2);
-            for (byte b : hashBytes) {
-                int part1 = (b >> 4) & 0xF;
-                int part2 = b & 0xF;
-                builder
-                        .append(Character.forDigit(part1, 16))
-                        .append(Character.forDigit(part2, 16));
+        // backed by the buffer, instead of two more copies of it
+        return BuiltResourcePack.of(output::writeTo, MinecraftResourcePackWriterImpl.toHex(digest.digest()));
+    }
+
+    /**
+     * Builds the given resource-pack straight into a ZIP file in the
+     * given directory, computing its hash while it is written, so that
+     * the resource-pack is never fully in memory.
+     *
+     * <p>The ZIP file is named by its hash ({@code <hash>.zip}), so every
+     * different build gets its own file, and previously built packs keep
+     * serving their own data. The ZIP file is first written to a temporary
+     * file, which is then moved into place, and files of packs that are
+     * not used anymore must be deleted by the caller.</p>
+     *
+     * @param resourcePack The resource-pack
+     * @param directory    The target directory
+     * @return The built resource-pack, backed by the file
+     * @since 1.8.0
+     */
+    default @NotNull BuiltResourcePack build(final @NotNull ResourcePack resourcePack, final @NotNull Path directory) {
+        requireNonNull(resourcePack, "resourcePack");
+        requireNonNull(directory, "directory");
+        MessageDigest digest = MinecraftResourcePackWriterImpl.sha1();
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(directory, "resource-pack", ".tmp");
+            try (OutputStream output = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)), digest)) {
+                writable(resourcePack).write(output);
+            }
+            String hash = MinecraftResourcePackWriterImpl.toHex(digest.digest());
+            // an existing file with the same name has the exact same data
+            Path file = directory.resolve(hash + ".zip");
+            MinecraftResourcePackWriterImpl.replace(temporary, file);
+            temporary = null;
+            return BuiltResourcePack.of(file, hash);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write resource pack to " + directory, e);
+        } finally {
+            if (temporary != null) {
+                MinecraftResourcePackWriterImpl.deleteQuietly(temporary);
             }
-            hash = builder.toString();
         }
+    }
 
-        return BuiltResourcePack.of(Writable.bytes(bytes), hash);
+    /**
+     * Returns a {@link Writable} that writes the given resource-pack as
+     * a ZIP file, serializing it while it is written, so that it can be
+     * streamed (e.g. to an HTTP response) without ever being fully in
+     * memory.
+     *
+     * <p>The output is deterministic, every write produces the exact
+     * same bytes as {@link #build(ResourcePack)} as long as the resource
+     * pack is not modified, so its {@link #hash(ResourcePack) hash} can
+     * be computed in advance, or kept from a previous write.</p>
+     *
+     * <p>The given output stream is not closed.</p>
+     *
+     * @param resourcePack The resource-pack
+     * @return The resource-pack ZIP file writable
+     * @since 1.8.0
+     */
+    default @NotNull Writable writable(final @NotNull ResourcePack resourcePack) {
+        requireNonNull(resourcePack, "resourcePack");
+        return output -> {
+            // closing the zip stream releases its deflater, but the
+            // caller owns the output, so only flush it
+            try (FileTreeWriter writer = FileTreeWriter.zip(new ZipOutputStream(new NonClosingOutputStream(output)))) {
+                write(writer, resourcePack);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    /**
+     * Computes the SHA-1 hash of the ZIP file of the given resource-pack,
+     * without keeping it in memory.
+     *
+     * <p>The hash matches the one of {@link #build(ResourcePack)} and
+     * the data written by {@link #writable(ResourcePack)}, as long as
+     * the resource-pack is not modified.</p>
+     *
+     * @param resourcePack The resource-pack
+     * @return The SHA-1 hash, as a hexadecimal string
+     * @since 1.8.0
+     */
+    default @NotNull String hash(final @NotNull ResourcePack resourcePack) {
+        requireNonNull(resourcePack, "resourcePack");
+        MessageDigest digest = MinecraftResourcePackWriterImpl.sha1();
+        try (FileTreeWriter writer = FileTreeWriter.zip(new ZipOutputStream(new DigestOutputStream(MinecraftResourcePackWriterImpl.DISCARDING, digest)))) {
+            write(writer, resourcePack);
+        }
+        return MinecraftResourcePackWriterImpl.toHex(digest.digest());
     }
 
     default BuiltResourcePack build(Consumer<ResourcePack> consumer) {
@@ -148,6 +224,93 @@ public interface MinecraftResourcePackWriter extends ResourcePackWriter<FileTree
          */
         @NotNull Builder prettyPrinting(final boolean prettyPrinting);
 
+        /**
+         * Sets the pool used to serialize and compress the files of the
+         * resource-packs in parallel, when they are written as ZIP files,
+         * null to write them sequentially (the default).
+         *
+         * <p>The written ZIP files are the exact same as the sequentially
+         * written ones, so their hashes don't change.</p>
+         *
+         * @param pool The pool, null to write sequentially
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder parallel(final @Nullable ForkJoinPool pool);
+
+        /**
+         * Makes the writer serialize and compress the files of the
+         * resource-packs in parallel, using the common pool.
+         *
+         * @return This builder
+         * @see #parallel(ForkJoinPool)
+         * @since 1.8.0
+         */
+        @Contract("-> this")
+        default @NotNull Builder parallel() {
+            return parallel(ForkJoinPool.commonPool());
+        }
+
+        /**
+         * Sets the policy that determines how every file is compressed
+         * when resource-packs are written as ZIP files, null to deflate
+         * all of them with the default level (the default).
+         *
+         * <p>Storing files that are already compressed, like textures
+         * and sounds, using {@link ZipCompressionPolicy#STORE_COMPRESSED},
+         * saves most of the time spent compressing resource-packs, while
+         * they barely get bigger.</p>
+         *
+         * @param compressionPolicy The compression policy, null to deflate every file
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder compression(final @Nullable ZipCompressionPolicy compressionPolicy);
+
+        /**
+         * Sets whether files read from ZIP files (e.g. textures and sounds
+         * of resource-packs read by {@link MinecraftResourcePackReader})
+         * should be copied as they are deflated there, instead of being
+         * inflated and deflated again, when resource-packs are written
+         * as ZIP files.
+         *
+         * <p>Saves most of the time spent compressing resource-packs
+         * that are merged or modified after being read, but the written
+         * ZIP files are not the exact same as the ones written without
+         * it, since the files may have been deflated with another level.
+         * Files the {@link #compression(ZipCompressionPolicy) compression
+         * policy} stores are still stored.</p>
+         *
+         * @param copyCompressed Whether to copy compressed files
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder copyCompressed(final boolean copyCompressed);
+
+        /**
+         * Sets whether the writer should keep the compressed files of
+         * the last resource-pack written as a ZIP file, so that the
+         * next ones only compress the files that changed.
+         *
+         * <p>Useful when the same resource-pack is rebuilt after small
+         * changes, the cache takes about as much memory as the last
+         * ZIP file, and the written ZIP files are the exact same as
+         * the ones written without it.</p>
+         *
+         * <p>Files are found in the cache by the hash of their contents,
+         * so resources are still serialized, and other files (e.g.
+         * textures) read again, but only the changed ones compressed.</p>
+         *
+         * @param cacheEntries Whether to cache compressed files
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder cacheEntries(final boolean cacheEntries);
+
         /**
          * Builds a new {@link MinecraftResourcePackWriter} instance.
          *
@@ -26,23 +26,39 @@ package team.unnamed.creative.serialize.minecraft;
 import com.google.gson.stream.JsonWriter;
 import net.kyori.adventure.key.Keyed;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.BuiltResourcePack;
 import team.unnamed.creative.ResourcePack;
 import team.unnamed.creative.base.Writable;
 import team.unnamed.creative.metadata.Metadata;
 import team.unnamed.creative.overlay.Overlay;
 import team.unnamed.creative.overlay.ResourceContainer;
 import team.unnamed.creative.serialize.minecraft.fs.FileTreeWriter;
+import team.unnamed.creative.serialize.minecraft.fs.ZipCompressionPolicy;
+import team.unnamed.creative.serialize.minecraft.fs.ZipEntryLifecycleHandler;
+import team.unnamed.creative.serialize.minecraft.io.BinaryResourceSerializer;
 import team.unnamed.creative.serialize.minecraft.io.JsonResourceSerializer;
 import team.unnamed.creative.serialize.minecraft.io.ResourceSerializer;
+import team.unnamed.creative.serialize.minecraft.io.Utf8JsonWriter;
 import team.unnamed.creative.serialize.minecraft.metadata.MetadataSerializer;
 import team.unnamed.creative.serialize.minecraft.sound.SoundRegistrySerializer;
 import team.unnamed.creative.sound.SoundRegistry;
 import team.unnamed.creative.texture.Texture;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import static team.unnamed.creative.serialize.minecraft.MinecraftResourcePackStructure.*;
 
@@ -51,10 +67,38 @@ final class MinecraftResourcePackWriterImpl implements MinecraftResourcePackWrit
             .prettyPrinting(false)
             .build();
 
+    /**
+     * Output stream that discards everything, for when only
+     * the hash of a resource-pack is needed
+     */
+    static final OutputStream DISCARDING = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte @NotNull [] b, int off, int len) {
+        }
+    };
+
     private final boolean prettyPrinting;
+    private final @Nullable ForkJoinPool pool;
+    private final @Nullable ZipCompressionPolicy compressionPolicy;
+    private final boolean copyCompressed;
+    private final ParallelZipWriter.@Nullable EntryCache cache;
 
-    private MinecraftResourcePackWriterImpl(final boolean prettyPrinting) {
+    private MinecraftResourcePackWriterImpl(
+            final boolean prettyPrinting,
+            final @Nullable ForkJoinPool pool,
+            final @Nullable ZipCompressionPolicy compressionPolicy,
+            final boolean copyCompressed,
+            final ParallelZipWriter.@Nullable EntryCache cache
+    ) {
         this.prettyPrinting = prettyPrinting;
+        this.pool = pool;
+        this.compressionPolicy = compressionPolicy;
+        this.copyCompressed = copyCompressed;
+        this.cache = cache;
     }
 
     public <T extends Keyed> void writeFullCategory(
@@ -71,12 +115,17 @@ final class MinecraftResourcePackWriterImpl implements MinecraftResourcePackWrit
                 // if it's a JSON serializer, we can use our own method, that will
                 // do some extra configuration
                 writeToJson(target, (JsonResourceSerializer<T>) serializer, resource, path);
+            } else if (serializer instanceof BinaryResourceSerializer) {
+                // the data is written as is, so that it can be copied as
+                // it is stored, if it comes from a ZIP file
+                target.write(path, ((BinaryResourceSerializer<T>) serializer).serializeBinary(resource));
             } else {
-                try (OutputStream output = target.openStream(path)) {
-                    category.serializer().serialize(resource, output);
-                } catch (IOException e) {
-                    throw new UncheckedIOException(e);
-                }
+                // written when the target wants, maybe in another thread
+                target.write(path, output -> {
+                    try (OutputStream entryOutput = new NonClosingOutputStream(output)) {
+                        serializer.serialize(resource, entryOutput);
+                    }
+                });
             }
         }
     }
@@ -137,18 +186,129 @@ final class MinecraftResourcePackWriterImpl implements MinecraftResourcePackWrit
     }
 
     private <T> void writeToJson(FileTreeWriter writer, JsonResourceSerializer<T> serializer, T object, String path) {
-        try (JsonWriter jsonWriter = new JsonWriter(writer.openWriter(path))) {
-            if (prettyPrinting) {
-                jsonWriter.setIndent("  ");
-            }
-            serializer.serializeToJson(object, jsonWriter);
+        try {
+            // written when the target wants, maybe in another thread
+            writer.write(path, output -> {
+                try (JsonWriter jsonWriter = new Utf8JsonWriter(new NonClosingOutputStream(output), prettyPrinting ? "  " : null)) {
+                    serializer.serializeToJson(object, jsonWriter);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw new UncheckedIOException("Failed to write to " + path, e.getCause());
+        }
+    }
+
+    /**
+     * Determines whether resource-packs are written as ZIP files
+     * by a {@link ParallelZipWriter}, instead of the default way
+     */
+    private boolean assembled() {
+        return pool != null || compressionPolicy != null || copyCompressed || cache != null;
+    }
+
+    /**
+     * Writes the given resource-pack as a ZIP file, serializing and
+     * compressing its files in parallel and/or reusing the cached
+     * ones, with the configured compression, the output is not closed
+     */
+    private void writeAssembled(final @NotNull ResourcePack resourcePack, final @NotNull OutputStream output) throws IOException {
+        final ParallelZipWriter writer = new ParallelZipWriter(pool, ZipEntryLifecycleHandler.DEFAULT, compressionPolicy, copyCompressed, cache);
+        write(writer, resourcePack);
+        writer.writeTo(output);
+    }
+
+    @Override
+    public void writeToZipFile(final Path path, final ResourcePack resourcePack) {
+        if (!assembled()) {
+            MinecraftResourcePackWriter.super.writeToZipFile(path, resourcePack);
+            return;
+        }
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(path))) {
+            writeAssembled(resourcePack, output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public BuiltResourcePack build(final ResourcePack resourcePack) {
+        if (!assembled()) {
+            return MinecraftResourcePackWriter.super.build(resourcePack);
+        }
+        final MessageDigest digest = sha1();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            writeAssembled(resourcePack, new DigestOutputStream(output, digest));
         } catch (IOException e) {
-            throw new UncheckedIOException("Failed to write to " + path, e);
+            throw new UncheckedIOException(e);
+        }
+        return BuiltResourcePack.of(output::writeTo, toHex(digest.digest()));
+    }
+
+    @Override
+    public @NotNull Writable writable(final @NotNull ResourcePack resourcePack) {
+        if (!assembled()) {
+            return MinecraftResourcePackWriter.super.writable(resourcePack);
         }
+        return output -> writeAssembled(resourcePack, output);
+    }
+
+    @Override
+    public @NotNull String hash(final @NotNull ResourcePack resourcePack) {
+        if (!assembled()) {
+            return MinecraftResourcePackWriter.super.hash(resourcePack);
+        }
+        final MessageDigest digest = sha1();
+        try {
+            writeAssembled(resourcePack, new DigestOutputStream(DISCARDING, digest));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return toHex(digest.digest());
+    }
+
+    static @NotNull MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot find SHA-1 algorithm");
+        }
+    }
+
+    static void replace(final @NotNull Path source, final @NotNull Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static void deleteQuietly(final @NotNull Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    static @NotNull String toHex(final byte @NotNull [] hashBytes) {
+        // stringify SHA-1 hash
+        StringBuilder builder = new StringBuilder(hashBytes.length * 2);
+        for (byte b : hashBytes) {
+            int part1 = (b >> 4) & 0xF;
+            int part2 = b & 0xF;
+            builder
+                    .append(Character.forDigit(part1, 16))
+                    .append(Character.forDigit(part2, 16));
+        }
+        return builder.toString();
     }
 
     static final class BuilderImpl implements Builder {
         private boolean prettyPrinting;
+        private ForkJoinPool pool;
+        private ZipCompressionPolicy compressionPolicy;
+        private boolean copyCompressed;
+        private boolean cacheEntries;
 
         @Override
         public @NotNull Builder prettyPrinting(final boolean prettyPrinting) {
@@ -156,9 +316,33 @@ final class MinecraftResourcePackWriterImpl implements MinecraftResourcePackWrit
             return this;
         }
 
+        @Override
+        public @NotNull Builder parallel(final @Nullable ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder compression(final @Nullable ZipCompressionPolicy compressionPolicy) {
+            this.compressionPolicy = compressionPolicy;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder copyCompressed(final boolean copyCompressed) {
+            this.copyCompressed = copyCompressed;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder cacheEntries(final boolean cacheEntries) {
+            this.cacheEntries = cacheEntries;
+            return this;
+        }
+
         @Override
         public @NotNull MinecraftResourcePackWriter build() {
-            return new MinecraftResourcePackWriterImpl(prettyPrinting);
+            return new MinecraftResourcePackWriterImpl(prettyPrinting, pool, compressionPolicy, copyCompressed, cacheEntries ? new ParallelZipWriter.EntryCache() : null);
         }
     }
 }
@@ -0,0 +1,600 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.serialize.minecraft.fs.FileTreeWriter;
+import team.unnamed.creative.serialize.minecraft.fs.ZipCompression;
+import team.unnamed.creative.serialize.minecraft.fs.ZipCompressionPolicy;
+import team.unnamed.creative.serialize.minecraft.fs.ZipEntryLifecycleHandler;
+import team.unnamed.creative.serialize.minecraft.fs.ZipEntryWritable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link FileTreeWriter} that collects the files to write, and then
+ * serializes and compresses them in parallel, into a ZIP file with the
+ * exact same bytes {@link FileTreeWriter#zip} would produce.
+ *
+ * <p>Every file is written by one of a few {@link ZipOutputStream}s, about
+ * one per thread, so that their {@link java.util.zip.Deflater}s are reused.
+ * The local headers, data and data descriptors written by them don't depend
+ * on the position of the entries, so they are copied as they are, in order,
+ * and only the offsets in the central directory records, written once all
+ * the files are compressed, are patched.</p>
+ *
+ * <p>Files read from other ZIP files ({@link ZipEntryWritable}s) can be
+ * copied as they are compressed there, without inflating and deflating
+ * them again. They are written as stored entries containing the deflated
+ * data, whose headers are then patched to describe deflated entries.</p>
+ *
+ * <p>Compressed entries can be kept in an {@link EntryCache}, so that the
+ * next ZIP files only compress the files that changed since.</p>
+ *
+ * <p>ZIP64 files are not supported, so files with 65535 entries or more are
+ * compressed sequentially, and files over 4 GiB fail to be written.</p>
+ */
+final class ParallelZipWriter implements FileTreeWriter {
+    private static final int LOCAL_VERSION = 4;
+    private static final int LOCAL_METHOD = 8;
+    private static final int LOCAL_CRC = 14;
+    private static final int LOCAL_SIZE = 22;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_SIZE = 22;
+    private static final int END_CENTRAL_SIZE = 12;
+    private static final int END_CENTRAL_OFFSET = 16;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int CENTRAL_VERSION_MADE_BY = 4;
+    private static final int CENTRAL_VERSION = 6;
+    private static final int CENTRAL_METHOD = 10;
+    private static final int CENTRAL_CRC = 16;
+    private static final int CENTRAL_COMPRESSED_SIZE = 20;
+    private static final int CENTRAL_SIZE = 24;
+    private static final int CENTRAL_NAME_LENGTH = 28;
+    private static final int CENTRAL_EXTRA_LENGTH = 30;
+    private static final int CENTRAL_COMMENT_LENGTH = 32;
+    private static final int CENTRAL_LOCAL_OFFSET = 42;
+    // version needed to extract deflated entries
+    private static final int DEFLATED_VERSION = 20;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    private final @Nullable ForkJoinPool pool;
+    private final ZipEntryLifecycleHandler entryLifecycleHandler;
+    private final @Nullable ZipCompressionPolicy compressionPolicy;
+    private final boolean copyCompressed;
+    private final @Nullable EntryCache cache;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+    private final Queue<Compressor> idleCompressors = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a new parallel ZIP writer.
+     *
+     * @param pool                  The pool, null to compress in the calling thread
+     * @param entryLifecycleHandler The ZIP entry lifecycle handler, which must
+     *                              always create the same entries for a path
+     *                              if a cache is used
+     * @param compressionPolicy     The compression policy, null to deflate every file
+     * @param copyCompressed        Whether to copy deflated files from other ZIP
+     *                              files without inflating and deflating them
+     * @param cache                 The compressed entry cache, null to not cache them
+     */
+    ParallelZipWriter(
+            final @Nullable ForkJoinPool pool,
+            final @NotNull ZipEntryLifecycleHandler entryLifecycleHandler,
+            final @Nullable ZipCompressionPolicy compressionPolicy,
+            final boolean copyCompressed,
+            final @Nullable EntryCache cache
+    ) {
+        this.pool = pool;
+        this.entryLifecycleHandler = requireNonNull(entryLifecycleHandler, "entryLifecycleHandler");
+        this.compressionPolicy = compressionPolicy;
+        this.copyCompressed = copyCompressed;
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean exists(final String path) {
+        return names.contains(path);
+    }
+
+    @Override
+    public OutputStream openStream(final String path) {
+        // written right away by the caller, so it can only be buffered
+        final Entry entry = add(path, Writable.EMPTY);
+        return new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                entry.data = Writable.bytes(toByteArray());
+            }
+        };
+    }
+
+    @Override
+    public void write(final String path, final Writable data) {
+        add(path, requireNonNull(data, "data"));
+    }
+
+    private @NotNull Entry add(final @NotNull String path, final @NotNull Writable data) {
+        if (!names.add(path)) {
+            throw new IllegalStateException("File " + path + " already exists!");
+        }
+        final Entry entry = new Entry(path, data);
+        entries.add(entry);
+        return entry;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Writes the collected files as a ZIP file to the given output,
+     * which is not closed.
+     *
+     * @param output The target output stream
+     * @throws IOException If writing fails
+     */
+    void writeTo(final @NotNull OutputStream output) throws IOException {
+        if (entries.size() >= ZIP64_MAGIC_COUNT) {
+            writeSequentially(output);
+            return;
+        }
+
+        final CompressedEntry[] compressed = new CompressedEntry[entries.size()];
+        final long[] offsets = new long[entries.size()];
+        long offset = 0;
+        try {
+            if (pool == null) {
+                for (int i = 0; i < compressed.length; i++) {
+                    final Entry entry = entries.get(i);
+                    compressed[i] = unwrap(() -> compress(entry));
+                    offsets[i] = offset;
+                    offset = append(output, offset, compressed[i]);
+                }
+            } else {
+                // bounded, so that only a few compressed entries wait in memory
+                final int window = pool.getParallelism() * 4;
+                final Deque<ForkJoinTask<CompressedEntry>> pending = new ArrayDeque<>(window);
+                int next = 0;
+                try {
+                    for (int i = 0; i < compressed.length; i++) {
+                        while (next < entries.size() && pending.size() < window) {
+                            final Entry entry = entries.get(next++);
+                            pending.add(pool.submit(() -> compress(entry)));
+                        }
+                        final ForkJoinTask<CompressedEntry> task = requireNonNull(pending.poll());
+                        compressed[i] = unwrap(task::join);
+                        offsets[i] = offset;
+                        offset = append(output, offset, compressed[i]);
+                    }
+                } finally {
+                    for (final ForkJoinTask<CompressedEntry> task : pending) {
+                        task.cancel(false);
+                    }
+                }
+            }
+
+            // the central directory records are only written once
+            // every file is compressed
+            for (final Compressor compressor : idleCompressors) {
+                compressor.finish();
+            }
+        } finally {
+            // the ones still in use (if failed) end up collected
+            Compressor compressor;
+            while ((compressor = idleCompressors.poll()) != null) {
+                compressor.close();
+            }
+        }
+
+        if (offset >= ZIP64_MAGIC) {
+            throw new IOException("Resource-pack too large to be written in parallel");
+        }
+
+        final ByteArrayOutputStream central = new ByteArrayOutputStream();
+        for (int i = 0; i < compressed.length; i++) {
+            // same central directory record, pointing to the actual offset, the
+            // compressed entry is copied, since it may be cached and reused
+            final byte[] record = compressed[i].central.clone();
+            writeInt(record, CENTRAL_LOCAL_OFFSET, offsets[i]);
+            central.write(record);
+            entryLifecycleHandler.onClose(compressed[i].entry);
+        }
+        if (central.size() >= ZIP64_MAGIC) {
+            throw new IOException("Resource-pack too large to be written in parallel");
+        }
+        central.writeTo(output);
+
+        if (cache != null) {
+            for (int i = 0; i < compressed.length; i++) {
+                cache.put(entries.get(i).path, compressed[i]);
+            }
+            // forget the files that are gone, so the cache doesn't grow forever
+            cache.retain(names);
+        }
+
+        // end of central directory record, like ZipOutputStream writes it
+        final byte[] end = new byte[END_SIZE];
+        writeInt(end, 0, END_SIGNATURE);
+        writeShort(end, 8, entries.size());
+        writeShort(end, 10, entries.size());
+        writeInt(end, END_CENTRAL_SIZE, central.size());
+        writeInt(end, END_CENTRAL_OFFSET, offset);
+        output.write(end);
+        output.flush();
+    }
+
+    private long append(final @NotNull OutputStream output, final long offset, final @NotNull CompressedEntry compressed) throws IOException {
+        if (offset >= ZIP64_MAGIC) {
+            throw new IOException("Resource-pack too large to be written in parallel");
+        }
+        final byte[] local = requireNonNull(compressed.local, "local");
+        output.write(local);
+        if (cache == null) {
+            // not needed anymore, only the central directory record is
+            compressed.local = null;
+        }
+        return offset + local.length;
+    }
+
+    private void writeSequentially(final @NotNull OutputStream output) throws IOException {
+        final ZipOutputStream zip = new ZipOutputStream(new NonClosingOutputStream(output));
+        try (final FileTreeWriter writer = compressionPolicy == null
+                ? FileTreeWriter.zip(zip, entryLifecycleHandler)
+                : FileTreeWriter.zip(zip, entryLifecycleHandler, compressionPolicy)) {
+            for (final Entry entry : entries) {
+                writer.write(entry.path, entry.data);
+            }
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private @NotNull CompressedEntry compress(final @NotNull Entry entry) {
+        final EntryCache cache = this.cache;
+        Writable data = entry.data;
+        Object fingerprint = null;
+        if (cache != null) {
+            if (data instanceof ZipEntryWritable) {
+                // described by the central directory of their ZIP file, which is
+                // not kept alive by the cache, and also matches if read again
+                fingerprint = fingerprint((ZipEntryWritable) data);
+            } else {
+                // identified by their contents, even serialized resources, since
+                // equal ones may be serialized differently (e.g. 0.0 and -0.0),
+                // serializing and hashing them is still way faster than compressing
+                // them, and they are kept so that they are not serialized twice
+                final byte[] bytes = bytes(entry);
+                fingerprint = digest(bytes);
+                data = Writable.bytes(bytes);
+            }
+            final CompressedEntry cached = cache.get(entry.path, fingerprint);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Compressor compressor = idleCompressors.poll();
+        if (compressor == null) {
+            compressor = new Compressor();
+        }
+        // only reused if it didn't fail
+        final CompressedEntry compressed = compressor.compress(entry.path, data, fingerprint);
+        idleCompressors.add(compressor);
+        return compressed;
+    }
+
+    private static byte @NotNull [] bytes(final @NotNull Entry entry) {
+        try {
+            return entry.data.toByteArray();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to write to " + entry.path, e);
+        }
+    }
+
+    private static @NotNull Object fingerprint(final @NotNull ZipEntryWritable data) {
+        final ByteBuffer fingerprint = ByteBuffer.allocate(Integer.BYTES + Long.BYTES * 3)
+                .putInt(data.method())
+                .putLong(data.crc())
+                .putLong(data.size())
+                .putLong(data.compressedSize());
+        // compared by contents
+        fingerprint.flip();
+        return fingerprint;
+    }
+
+    private static @NotNull Object digest(final byte @NotNull [] bytes) {
+        // compared by contents
+        return ByteBuffer.wrap(MinecraftResourcePackWriterImpl.sha1().digest(bytes));
+    }
+
+    private static @NotNull CompressedEntry unwrap(final @NotNull Supplier<CompressedEntry> compression) throws IOException {
+        try {
+            return compression.get();
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void describeDeflated(
+            final byte @NotNull [] header,
+            final @NotNull ZipEntry entry,
+            final int version,
+            final int method,
+            final int crc,
+            final int size
+    ) {
+        writeShort(header, version, DEFLATED_VERSION);
+        writeShort(header, method, ZipEntry.DEFLATED);
+        writeInt(header, crc, entry.getCrc());
+        writeInt(header, size, entry.getSize());
+    }
+
+    private static int readShort(final byte @NotNull [] data, final int index) {
+        return (data[index] & 0xFF) | (data[index + 1] & 0xFF) << 8;
+    }
+
+    private static long readInt(final byte @NotNull [] data, final int index) {
+        return (data[index] & 0xFFL)
+                | (data[index + 1] & 0xFFL) << 8
+                | (data[index + 2] & 0xFFL) << 16
+                | (data[index + 3] & 0xFFL) << 24;
+    }
+
+    private static void writeInt(final byte @NotNull [] data, final int index, final long value) {
+        data[index] = (byte) value;
+        data[index + 1] = (byte) (value >>> 8);
+        data[index + 2] = (byte) (value >>> 16);
+        data[index + 3] = (byte) (value >>> 24);
+    }
+
+    private static void writeShort(final byte @NotNull [] data, final int index, final int value) {
+        data[index] = (byte) value;
+        data[index + 1] = (byte) (value >>> 8);
+    }
+
+    /**
+     * Writes files to a {@link ZipOutputStream} (and its deflater) that
+     * is reused for many of them, used by a single thread at a time
+     */
+    private final class Compressor {
+        private final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        private final ZipOutputStream zip = new ZipOutputStream(sink);
+        private final FileTreeWriter writer;
+        private final List<CompressedEntry> written = new ArrayList<>();
+        private @Nullable ZipEntry created;
+
+        private Compressor() {
+            final ZipEntryLifecycleHandler capturing = new ZipEntryLifecycleHandler() {
+                @Override
+                public ZipEntry create(final String path) {
+                    return created = entryLifecycleHandler.create(path);
+                }
+
+                @Override
+                public void onClose(final ZipEntry entry) {
+                    // closed in order, once the ZIP file is assembled
+                }
+            };
+            final ZipCompressionPolicy compressionPolicy = ParallelZipWriter.this.compressionPolicy;
+            this.writer = compressionPolicy == null
+                    ? FileTreeWriter.zip(zip, capturing)
+                    : FileTreeWriter.zip(zip, capturing, compressionPolicy);
+        }
+
+        private @NotNull CompressedEntry compress(final @NotNull String path, final @NotNull Writable data, final @Nullable Object fingerprint) {
+            boolean copied = false;
+            try {
+                final byte[] deflated = copyCompressed ? deflated(path, data) : null;
+                if (deflated == null) {
+                    writer.write(path, data);
+                } else {
+                    copy(path, (ZipEntryWritable) data, deflated);
+                    copied = true;
+                }
+            } catch (final IOException e) {
+                close();
+                throw new UncheckedIOException("Failed to write to " + path, e);
+            } catch (final UncheckedIOException e) {
+                close();
+                throw new UncheckedIOException("Failed to write to " + path, e.getCause());
+            } catch (final RuntimeException | Error e) {
+                close();
+                throw e;
+            }
+
+            // local header, data and data descriptor
+            final CompressedEntry compressed = new CompressedEntry(requireNonNull(created, "created"), fingerprint, sink.toByteArray());
+            sink.reset();
+            if (copied) {
+                describeDeflated(compressed.local, compressed.entry, LOCAL_VERSION, LOCAL_METHOD, LOCAL_CRC, LOCAL_SIZE);
+                compressed.copied = true;
+            }
+            written.add(compressed);
+            return compressed;
+        }
+
+        /**
+         * Returns the deflated data of the given file, if it can be
+         * copied from the ZIP file it was read from, as the compression
+         * policy allows
+         */
+        private byte @Nullable [] deflated(final @NotNull String path, final @NotNull Writable writable) throws IOException {
+            if (!(writable instanceof ZipEntryWritable)) {
+                return null;
+            }
+            final ZipEntryWritable data = (ZipEntryWritable) writable;
+            if (data.method() != ZipEntry.DEFLATED || data.size() < 0 || data.size() >= ZIP64_MAGIC) {
+                return null;
+            }
+            final ZipCompression compression = compressionPolicy == null ? null : compressionPolicy.compression(path);
+            if (compression != null && compression.method() == ZipEntry.STORED) {
+                return null;
+            }
+            final byte[] deflated = data.compressed();
+            if (deflated == null || (compression != null && compression.smallest() && deflated.length >= data.size())) {
+                return null;
+            }
+            return deflated;
+        }
+
+        private void copy(final @NotNull String path, final @NotNull ZipEntryWritable data, final byte @NotNull [] deflated) throws IOException {
+            // written as a stored entry, and then described as deflated
+            final ZipEntry zipEntry = created = entryLifecycleHandler.create(path);
+            final CRC32 crc = new CRC32();
+            crc.update(deflated);
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(deflated.length);
+            zipEntry.setCompressedSize(deflated.length);
+            zipEntry.setCrc(crc.getValue());
+            zip.putNextEntry(zipEntry);
+            zip.write(deflated);
+            zip.closeEntry();
+
+            zipEntry.setMethod(ZipEntry.DEFLATED);
+            zipEntry.setSize(data.size());
+            zipEntry.setCrc(data.crc());
+        }
+
+        private void finish() throws IOException {
+            try {
+                writer.finish();
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            // the central directory records, in the order the files were written
+            final byte[] data = sink.toByteArray();
+            int index = 0;
+            for (final CompressedEntry compressed : written) {
+                if (readInt(data, index) != CENTRAL_SIGNATURE) {
+                    throw new IOException("Unexpected central directory record for " + compressed.entry.getName());
+                }
+                final int length = CENTRAL_HEADER_SIZE
+                        + readShort(data, index + CENTRAL_NAME_LENGTH)
+                        + readShort(data, index + CENTRAL_EXTRA_LENGTH)
+                        + readShort(data, index + CENTRAL_COMMENT_LENGTH);
+                if (readInt(data, index + CENTRAL_COMPRESSED_SIZE) == ZIP64_MAGIC
+                        || readInt(data, index + CENTRAL_SIZE) == ZIP64_MAGIC
+                        || readInt(data, index + CENTRAL_LOCAL_OFFSET) == ZIP64_MAGIC) {
+                    throw new IOException("File too large to be written in parallel: " + compressed.entry.getName());
+                }
+                compressed.central = Arrays.copyOfRange(data, index, index + length);
+                if (compressed.copied) {
+                    writeShort(compressed.central, CENTRAL_VERSION_MADE_BY, DEFLATED_VERSION);
+                    describeDeflated(compressed.central, compressed.entry, CENTRAL_VERSION, CENTRAL_METHOD, CENTRAL_CRC, CENTRAL_SIZE);
+                }
+                index += length;
+            }
+        }
+
+        private void close() {
+            try {
+                // ends the deflaters
+                writer.close();
+            } catch (final UncheckedIOException ignored) {
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String path;
+        private Writable data;
+
+        private Entry(final @NotNull String path, final @NotNull Writable data) {
+            this.path = path;
+            this.data = data;
+        }
+    }
+
+    private static final class CompressedEntry {
+        private final ZipEntry entry;
+        // null if not cached
+        private final @Nullable Object fingerprint;
+        // local header, data and data descriptor, null once written if not cached
+        private byte @Nullable [] local;
+        // central directory record, known once every file is compressed
+        private byte[] central;
+        // copied from another ZIP file, written as stored
+        private boolean copied;
+
+        private CompressedEntry(final @NotNull ZipEntry entry, final @Nullable Object fingerprint, final byte @NotNull [] local) {
+            this.entry = entry;
+            this.fingerprint = fingerprint;
+            this.local = local;
+        }
+    }
+
+    /**
+     * Cache of compressed ZIP entries, by path, kept between writes,
+     * so that unchanged files are not compressed again.
+     *
+     * <p>Only the entries of the last written ZIP file are kept, so the
+     * cache takes about as much memory as the compressed ZIP file.</p>
+     */
+    static final class EntryCache {
+        private final Map<String, CompressedEntry> entries = new ConcurrentHashMap<>();
+
+        @Nullable CompressedEntry get(final @NotNull String path, final @NotNull Object fingerprint) {
+            final CompressedEntry cached = entries.get(path);
+            return cached != null && fingerprint.equals(cached.fingerprint) ? cached : null;
+        }
+
+        void put(final @NotNull String path, final @NotNull CompressedEntry compressed) {
+            entries.put(path, compressed);
+        }
+
+        void retain(final @NotNull Set<String> paths) {
+            entries.keySet().retainAll(paths);
+        }
+    }
+}
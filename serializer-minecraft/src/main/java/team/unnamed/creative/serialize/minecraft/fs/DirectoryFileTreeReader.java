@@ -25,6 +25,8 @@ package team.unnamed.creative.serialize.minecraft.fs;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.base.Readable;
+import team.unnamed.creative.base.Writable;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -42,7 +44,8 @@ final class DirectoryFileTreeReader implements FileTreeReader {
     private File @Nullable [] files;
     private int fileCursor;
 
-    private InputStream currentStream;
+    private @Nullable File current;
+    private @Nullable InputStream currentStream;
 
     DirectoryFileTreeReader(File root) {
         this.root = root;
@@ -96,21 +99,57 @@ final class DirectoryFileTreeReader implements FileTreeReader {
         if (files == null || fileCursor >= files.length) {
             throw new NoSuchElementException("No more elements");
         } else {
-            File current = files[fileCursor++];
-            try {
-                currentStream = new FileInputStream(current);
-            } catch (IOException e) {
-                throw new IllegalStateException("Couldn't open InputStream for: " + current, e);
-            }
+            current = files[fileCursor++];
             return relativize(root, current);
         }
     }
 
     @Override
     public @NotNull InputStream stream() {
+        if (currentStream == null) {
+            // opened when needed, files may be only listed
+            currentStream = open(current());
+        }
         return currentStream;
     }
 
+    @Override
+    public @NotNull Readable content() {
+        final File file = current();
+        return new Readable() {
+            @Override
+            public @NotNull InputStream open() {
+                return DirectoryFileTreeReader.open(file);
+            }
+
+            @Override
+            public @NotNull Writable asWritable() {
+                // copied now, the file may change later
+                return Writable.bytes(readAsByteArray());
+            }
+        };
+    }
+
+    @Override
+    public boolean randomAccess() {
+        return true;
+    }
+
+    private @NotNull File current() {
+        if (current == null) {
+            throw new IllegalStateException("No current entry, call next() first");
+        }
+        return current;
+    }
+
+    private static @NotNull InputStream open(File file) {
+        try {
+            return new FileInputStream(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Couldn't open InputStream for: " + file, e);
+        }
+    }
+
     @Override
     public void close() {
         if (currentStream != null) {
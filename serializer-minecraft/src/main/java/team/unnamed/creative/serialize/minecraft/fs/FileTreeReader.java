@@ -66,6 +66,23 @@ public interface FileTreeReader extends AutoCloseable {
         return Readable.copyInputStream(stream());
     }
 
+    /**
+     * Determines whether this reader allows random access to the
+     * entries' data, i.e. whether the {@link Readable}s returned by
+     * {@link #content()} can still be read after moving to the next
+     * entries (until this reader is closed), from any thread.
+     *
+     * <p>Lets the entries be listed first and read later, e.g. in
+     * parallel. Readers of {@link ZipFile}s and directories allow
+     * it, readers of {@link ZipInputStream}s don't.</p>
+     *
+     * @return True if this reader allows random access
+     * @since 1.8.0
+     */
+    default boolean randomAccess() {
+        return false;
+    }
+
     @Override
     void close() throws IOException;
 
@@ -32,6 +32,8 @@ import java.util.zip.ZipOutputStream;
 
 import team.unnamed.creative.base.Writable;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Represents a file tree, which may be implemented by a
  * real file system with real files, or ZIP files
@@ -149,7 +151,28 @@ public interface FileTreeWriter extends AutoCloseable {
      * stream
      */
     static FileTreeWriter zip(ZipOutputStream zipStream, ZipEntryLifecycleHandler entryLifecycleHandler) {
-        return new ZipFileTreeWriter(zipStream, entryLifecycleHandler);
+        return new ZipFileTreeWriter(zipStream, entryLifecycleHandler, null);
+    }
+
+    /**
+     * Creates a new {@link FileTreeWriter} instance for
+     * the given {@link ZipOutputStream}, will not
+     * be closed
+     *
+     * <p>Every file is compressed as the given policy
+     * determines, files that are not deflated while
+     * they are written (e.g. stored ones) are fully
+     * buffered in memory first</p>
+     *
+     * @param zipStream The underlying zip stream
+     * @param entryLifecycleHandler The ZIP archive entry lifecycle handler
+     * @param compressionPolicy The compression policy
+     * @return The file tree for the given zip output
+     * stream
+     * @since 1.8.0
+     */
+    static FileTreeWriter zip(ZipOutputStream zipStream, ZipEntryLifecycleHandler entryLifecycleHandler, ZipCompressionPolicy compressionPolicy) {
+        return new ZipFileTreeWriter(zipStream, entryLifecycleHandler, requireNonNull(compressionPolicy, "compressionPolicy"));
     }
 
     /**
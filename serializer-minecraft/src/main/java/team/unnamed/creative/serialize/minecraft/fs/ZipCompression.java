@@ -0,0 +1,174 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Represents how a file is compressed when written
+ * to a ZIP file
+ *
+ * @since 1.8.0
+ */
+public final class ZipCompression {
+
+    private static final ZipCompression STORED = new ZipCompression(ZipEntry.STORED, Deflater.NO_COMPRESSION, false);
+    private static final ZipCompression DEFLATED = new ZipCompression(ZipEntry.DEFLATED, Deflater.DEFAULT_COMPRESSION, false);
+
+    private final int method;
+    private final int level;
+    private final boolean smallest;
+
+    private ZipCompression(int method, int level, boolean smallest) {
+        this.method = method;
+        this.level = level;
+        this.smallest = smallest;
+    }
+
+    /**
+     * Returns the compression that stores files without
+     * compressing them, useful for files that are already
+     * compressed, like PNG images or OGG sounds
+     *
+     * <p>The file data must be fully read before it is
+     * written, to compute its size and CRC</p>
+     *
+     * @return The stored compression
+     * @since 1.8.0
+     */
+    public static @NotNull ZipCompression stored() {
+        return STORED;
+    }
+
+    /**
+     * Returns the compression that deflates files with
+     * the given level
+     *
+     * @param level The deflate level, from 0 to 9, or -1
+     *              for the default level
+     * @return The deflated compression
+     * @since 1.8.0
+     */
+    public static @NotNull ZipCompression deflated(int level) {
+        return new ZipCompression(ZipEntry.DEFLATED, checkLevel(level), false);
+    }
+
+    /**
+     * Returns the compression that deflates files with the
+     * default level
+     *
+     * @return The deflated compression
+     * @since 1.8.0
+     */
+    public static @NotNull ZipCompression deflated() {
+        return DEFLATED;
+    }
+
+    /**
+     * Returns the compression that deflates files with the
+     * given level, unless they are smaller when stored
+     *
+     * <p>The file data must be fully read and deflated once
+     * before it is written, to know which one is smaller</p>
+     *
+     * @param level The deflate level, from 0 to 9, or -1
+     *              for the default level
+     * @return The smallest compression
+     * @since 1.8.0
+     */
+    public static @NotNull ZipCompression smallest(int level) {
+        return new ZipCompression(ZipEntry.DEFLATED, checkLevel(level), true);
+    }
+
+    private static int checkLevel(int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Level must be between -1 and 9, got " + level);
+        }
+        return level;
+    }
+
+    /**
+     * Returns the ZIP compression method, either
+     * {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+     *
+     * @return The compression method
+     * @since 1.8.0
+     */
+    public int method() {
+        return method;
+    }
+
+    /**
+     * Returns the deflate level, only meaningful if the
+     * method is {@link ZipEntry#DEFLATED}
+     *
+     * @return The deflate level
+     * @since 1.8.0
+     */
+    public int level() {
+        return level;
+    }
+
+    /**
+     * Determines whether files are stored instead, if
+     * they are smaller when stored than when deflated
+     *
+     * @return True to keep the smallest result
+     * @since 1.8.0
+     */
+    public boolean smallest() {
+        return smallest;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ZipCompression that = (ZipCompression) o;
+        return method == that.method
+                && level == that.level
+                && smallest == that.smallest;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = method;
+        result = 31 * result + level;
+        result = 31 * result + (smallest ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ZipCompression{" +
+                "method=" + method +
+                ", level=" + level +
+                ", smallest=" + smallest +
+                '}';
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Determines the {@link ZipCompression} of every file
+ * written to a ZIP file, by its path
+ *
+ * @since 1.8.0
+ */
+@FunctionalInterface
+public interface ZipCompressionPolicy {
+
+    /**
+     * Policy that deflates every file with the default
+     * level
+     *
+     * @since 1.8.0
+     */
+    ZipCompressionPolicy DEFAULT = path -> ZipCompression.deflated();
+
+    /**
+     * Policy that stores the already compressed files
+     * (PNG images and OGG sounds, by their case-insensitive
+     * extension), which barely get any smaller when deflated,
+     * and deflates the rest with the default level
+     *
+     * @since 1.8.0
+     */
+    ZipCompressionPolicy STORE_COMPRESSED = path -> path.regionMatches(true, path.length() - 4, ".png", 0, 4)
+            || path.regionMatches(true, path.length() - 4, ".ogg", 0, 4)
+            ? ZipCompression.stored()
+            : ZipCompression.deflated();
+
+    /**
+     * Determines the compression for the file at
+     * the given path
+     *
+     * @param path The file path
+     * @return The file compression
+     * @since 1.8.0
+     */
+    @NotNull ZipCompression compression(@NotNull String path);
+
+    /**
+     * Creates a policy that determines the compression
+     * of files by their (case-insensitive) extension
+     *
+     * @param compressions The compressions, by extension,
+     *                     without the leading dot
+     * @param fallback     The compression for files with
+     *                     other (or no) extensions
+     * @return The created policy
+     * @since 1.8.0
+     */
+    static @NotNull ZipCompressionPolicy byExtension(
+            @NotNull Map<String, ZipCompression> compressions,
+            @NotNull ZipCompression fallback
+    ) {
+        requireNonNull(compressions, "compressions");
+        requireNonNull(fallback, "fallback");
+        Map<String, ZipCompression> byExtension = new HashMap<>();
+        for (Map.Entry<String, ZipCompression> entry : compressions.entrySet()) {
+            byExtension.put(entry.getKey().toLowerCase(Locale.ROOT), requireNonNull(entry.getValue(), "compression"));
+        }
+        return path -> {
+            int dot = path.lastIndexOf('.');
+            if (dot == -1 || path.indexOf('/', dot) != -1) {
+                return fallback;
+            }
+            return byExtension.getOrDefault(path.substring(dot + 1).toLowerCase(Locale.ROOT), fallback);
+        };
+    }
+
+}
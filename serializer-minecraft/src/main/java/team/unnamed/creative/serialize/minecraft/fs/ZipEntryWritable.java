@@ -0,0 +1,88 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.base.Writable;
+
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+
+/**
+ * A {@link Writable} for a file read from a ZIP file, which
+ * can also provide the file data as it is compressed there,
+ * so that it can be copied to another ZIP file without being
+ * inflated and deflated again
+ *
+ * @since 1.8.0
+ */
+public interface ZipEntryWritable extends Writable {
+
+    /**
+     * Returns the compression method of the file, either
+     * {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+     *
+     * @return The compression method
+     * @since 1.8.0
+     */
+    int method();
+
+    /**
+     * Returns the CRC-32 of the (uncompressed) file data
+     *
+     * @return The CRC-32
+     * @since 1.8.0
+     */
+    long crc();
+
+    /**
+     * Returns the size of the (uncompressed) file data
+     *
+     * @return The uncompressed size
+     * @since 1.8.0
+     */
+    long size();
+
+    /**
+     * Returns the size of the file data as it is compressed
+     * in the ZIP file, with the {@link #method() compression
+     * method}
+     *
+     * @return The compressed size
+     * @since 1.8.0
+     */
+    long compressedSize();
+
+    /**
+     * Returns the file data as it is compressed in the
+     * ZIP file, with the {@link #method() compression
+     * method}, if available
+     *
+     * @return The compressed data, null if not available
+     * @throws IOException If reading fails
+     * @since 1.8.0
+     */
+    byte @Nullable [] compressed() throws IOException;
+
+}
@@ -31,13 +31,23 @@ import team.unnamed.creative.base.Writable;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.io.UncheckedIOException;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -52,6 +62,11 @@ final class ZipFileTreeReader implements FileTreeReader {
     private @Nullable ZipEntry currentEntry;
     private @Nullable ZipEntry nextEntry;
 
+    // read when the compressed data of an entry is first needed
+    private @Nullable FileChannel channel;
+    private @Nullable Map<String, Long> localHeaderOffsets;
+    private boolean closed;
+
     ZipFileTreeReader(final @NotNull ZipFile zipFile) {
         this.zipFile = requireNonNull(zipFile, "zipFile");
         this.entries = zipFile.entries();
@@ -106,6 +121,11 @@ final class ZipFileTreeReader implements FileTreeReader {
         return readable;
     }
 
+    @Override
+    public boolean randomAccess() {
+        return true;
+    }
+
     @Override
     public void close() throws IOException {
         // memoize created content before closing
@@ -118,12 +138,60 @@ final class ZipFileTreeReader implements FileTreeReader {
         }
 
         // close zip file
+        synchronized (this) {
+            closed = true;
+            if (channel != null) {
+                channel.close();
+            }
+        }
         zipFile.close();
     }
 
+    /**
+     * Reads the data of the given entry as it is compressed
+     * in the ZIP file, only for deflated entries
+     *
+     * @param entry The entry
+     * @return The compressed data, null if not available
+     * @throws IOException If reading fails
+     */
+    private synchronized byte @Nullable [] readCompressed(final @NotNull ZipEntry entry) throws IOException {
+        final long compressedSize = entry.getCompressedSize();
+        if (closed || entry.getMethod() != ZipEntry.DEFLATED || compressedSize < 0 || compressedSize > Integer.MAX_VALUE - 8) {
+            return null;
+        }
+        if (localHeaderOffsets == null) {
+            try {
+                channel = FileChannel.open(Paths.get(zipFile.getName()), StandardOpenOption.READ);
+                localHeaderOffsets = ZipFiles.localHeaderOffsets(channel);
+            } catch (final IOException | RuntimeException e) {
+                // not a regular file, or not readable, just inflate it
+                localHeaderOffsets = Collections.emptyMap();
+            }
+        }
+        final Long offset = localHeaderOffsets.get(entry.getName());
+        if (offset == null || channel == null) {
+            return null;
+        }
+
+        final ByteBuffer header = ZipFiles.read(channel, offset, ZipFiles.LOCAL_HEADER_SIZE);
+        if (header.getInt(0) != ZipFiles.LOCAL_HEADER_SIGNATURE) {
+            return null;
+        }
+        final int nameLength = header.getShort(ZipFiles.LOCAL_NAME_LENGTH) & 0xFFFF;
+        final int extraLength = header.getShort(ZipFiles.LOCAL_EXTRA_LENGTH) & 0xFFFF;
+        final ByteBuffer name = ZipFiles.read(channel, offset + ZipFiles.LOCAL_HEADER_SIZE, nameLength);
+        if (!entry.getName().equals(new String(name.array(), StandardCharsets.UTF_8))) {
+            return null;
+        }
+        return ZipFiles.read(channel, offset + ZipFiles.LOCAL_HEADER_SIZE + nameLength + extraLength, (int) compressedSize).array();
+    }
+
     private class ZipFileEntryReadable implements Readable {
         private final ZipEntry entry;
         private byte @Nullable [] memoized;
+        // memoized instead, if available, since it is smaller
+        private byte @Nullable [] memoizedCompressed;
 
         ZipFileEntryReadable(final @NotNull ZipEntry entry) {
             this.entry = requireNonNull(entry, "entry");
@@ -133,6 +201,19 @@ final class ZipFileTreeReader implements FileTreeReader {
         public @NotNull InputStream open() throws IOException {
             if (memoized != null) {
                 return new ByteArrayInputStream(memoized);
+            } else if (memoizedCompressed != null) {
+                // the inflater needs an extra dummy byte, like for ZipFile
+                final InputStream compressed = new SequenceInputStream(
+                        new ByteArrayInputStream(memoizedCompressed),
+                        new ByteArrayInputStream(new byte[1])
+                );
+                return new InflaterInputStream(compressed, new Inflater(true)) {
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        inf.end();
+                    }
+                };
             } else {
                 return zipFile.getInputStream(entry);
             }
@@ -143,16 +224,30 @@ final class ZipFileTreeReader implements FileTreeReader {
             if (memoized != null) {
                 return Writable.bytes(memoized);
             } else {
-                return Readable.super.asWritable();
+                return new ZipFileEntryWritable(this);
+            }
+        }
+
+        byte @Nullable [] compressed() throws IOException {
+            if (memoizedCompressed != null) {
+                return memoizedCompressed;
             }
+            return readCompressed(entry);
         }
 
         void memoize() {
-            if (memoized != null) {
+            if (memoized != null || memoizedCompressed != null) {
                 // already memoized!
                 return;
             }
-            this.memoized = Readable.super.readAsByteArray();
+            try {
+                this.memoizedCompressed = readCompressed(entry);
+            } catch (final IOException e) {
+                // fallback to the inflated data
+            }
+            if (memoizedCompressed == null) {
+                this.memoized = Readable.super.readAsByteArray();
+            }
         }
 
         @Override
@@ -173,4 +268,51 @@ final class ZipFileTreeReader implements FileTreeReader {
             }
         }
     }
+
+    private static final class ZipFileEntryWritable implements ZipEntryWritable {
+        private final ZipFileEntryReadable readable;
+
+        ZipFileEntryWritable(final @NotNull ZipFileEntryReadable readable) {
+            this.readable = readable;
+        }
+
+        @Override
+        public void write(final @NotNull OutputStream output) throws IOException {
+            try {
+                readable.readAndWrite(output);
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public int method() {
+            return readable.entry.getMethod();
+        }
+
+        @Override
+        public long crc() {
+            return readable.entry.getCrc();
+        }
+
+        @Override
+        public long size() {
+            return readable.entry.getSize();
+        }
+
+        @Override
+        public long compressedSize() {
+            return readable.entry.getCompressedSize();
+        }
+
+        @Override
+        public byte @Nullable [] compressed() throws IOException {
+            return readable.compressed();
+        }
+
+        @Override
+        public String toString() {
+            return "ZipEntryWritable(" + readable.entry.getName() + ")";
+        }
+    }
 }
@@ -24,13 +24,17 @@
 package team.unnamed.creative.serialize.minecraft.fs;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.base.Writable;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -39,12 +43,21 @@ final class ZipFileTreeWriter implements FileTreeWriter {
     private final Set<String> names = new HashSet<>();
     private final ZipOutputStream output;
     private final ZipEntryLifecycleHandler entryLifecycleHandler;
+    // null to never change the compression of the stream
+    private final @Nullable ZipCompressionPolicy compressionPolicy;
 
-    private ZipEntryOutputStream current;
+    private OutputStream current;
 
-    ZipFileTreeWriter(ZipOutputStream output, ZipEntryLifecycleHandler entryLifecycleHandler) {
+    // unknown until set, the stream may have been configured
+    private int level = Integer.MIN_VALUE;
+    // reused to find out the deflated size of files
+    private Deflater measuring;
+    private byte[] measuringBuffer;
+
+    ZipFileTreeWriter(ZipOutputStream output, ZipEntryLifecycleHandler entryLifecycleHandler, @Nullable ZipCompressionPolicy compressionPolicy) {
         this.output = output;
         this.entryLifecycleHandler = entryLifecycleHandler;
+        this.compressionPolicy = compressionPolicy;
     }
 
     @Override
@@ -66,6 +79,14 @@ final class ZipFileTreeWriter implements FileTreeWriter {
                 current = null;
             }
 
+            ZipCompression compression = compression(path);
+            if (!streamed(compression)) {
+                // the size must be known before writing the entry
+                current = new BufferedEntryOutputStream(path, compression);
+                return current;
+            }
+
+            setLevel(compression);
             ZipEntry entry = entryLifecycleHandler.create(path);
             output.putNextEntry(entry);
             current = new ZipEntryOutputStream(entry);
@@ -87,7 +108,15 @@ final class ZipFileTreeWriter implements FileTreeWriter {
                 current = null;
             }
 
+            ZipCompression compression = compression(path);
+            if (!streamed(compression)) {
+                byte[] bytes = data.toByteArray();
+                writeBuffered(path, compression, bytes, bytes.length);
+                return;
+            }
+
             // no-need to create a ZipEntryOutputStream
+            setLevel(compression);
             ZipEntry entry = entryLifecycleHandler.create(path);
             output.putNextEntry(entry);
             data.write(output);
@@ -99,6 +128,71 @@ final class ZipFileTreeWriter implements FileTreeWriter {
         }
     }
 
+    private @Nullable ZipCompression compression(String path) {
+        return compressionPolicy == null ? null : compressionPolicy.compression(path);
+    }
+
+    private static boolean streamed(@Nullable ZipCompression compression) {
+        return compression == null || (compression.method() == ZipEntry.DEFLATED && !compression.smallest());
+    }
+
+    private void setLevel(@Nullable ZipCompression compression) {
+        if (compression != null && compression.level() != level) {
+            output.setLevel(compression.level());
+            level = compression.level();
+        }
+    }
+
+    private void writeBuffered(String path, ZipCompression compression, byte[] bytes, int length) throws IOException {
+        ZipEntry entry = entryLifecycleHandler.create(path);
+        if (compression.method() == ZipEntry.STORED || !smallerDeflated(compression.level(), bytes, length)) {
+            // stored entries need their size and CRC before their data
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, length);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(length);
+            entry.setCompressedSize(length);
+            entry.setCrc(crc.getValue());
+        } else {
+            setLevel(compression);
+        }
+        output.putNextEntry(entry);
+        output.write(bytes, 0, length);
+        output.closeEntry();
+        entryLifecycleHandler.onClose(entry);
+    }
+
+    private boolean smallerDeflated(int level, byte[] bytes, int length) {
+        if (measuring == null) {
+            measuring = new Deflater(level, true);
+            measuringBuffer = new byte[8192];
+        } else {
+            measuring.setLevel(level);
+        }
+        try {
+            measuring.setInput(bytes, 0, length);
+            measuring.finish();
+            long size = 0;
+            while (!measuring.finished()) {
+                size += measuring.deflate(measuringBuffer);
+                if (size >= length) {
+                    // no need to keep deflating, it is already larger
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            measuring.reset();
+        }
+    }
+
+    private void endMeasuring() {
+        if (measuring != null) {
+            measuring.end();
+            measuring = null;
+        }
+    }
+
     @Override
     public void finish() {
         try {
@@ -109,6 +203,8 @@ final class ZipFileTreeWriter implements FileTreeWriter {
             output.finish();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
+        } finally {
+            endMeasuring();
         }
     }
 
@@ -122,9 +218,36 @@ final class ZipFileTreeWriter implements FileTreeWriter {
             output.close();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
+        } finally {
+            endMeasuring();
         }
     }
 
+    /**
+     * Entry output stream that buffers the data, for the entries
+     * that can't be compressed while they are written
+     */
+    private class BufferedEntryOutputStream extends ByteArrayOutputStream {
+
+        private final String path;
+        private final ZipCompression compression;
+        private boolean closed;
+
+        private BufferedEntryOutputStream(String path, ZipCompression compression) {
+            this.path = path;
+            this.compression = compression;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                writeBuffered(path, compression, buf, count);
+            }
+        }
+
+    }
+
     private class ZipEntryOutputStream extends OutputStream {
 
         private ZipEntry entry;
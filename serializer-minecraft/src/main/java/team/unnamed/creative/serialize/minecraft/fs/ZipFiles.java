@@ -0,0 +1,146 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the parts of ZIP files that {@link java.util.zip.ZipFile}
+ * doesn't expose, to read the compressed data of their entries
+ */
+final class ZipFiles {
+
+    static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    static final int LOCAL_HEADER_SIZE = 30;
+    static final int LOCAL_NAME_LENGTH = 26;
+    static final int LOCAL_EXTRA_LENGTH = 28;
+
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int CENTRAL_NAME_LENGTH = 28;
+    private static final int CENTRAL_EXTRA_LENGTH = 30;
+    private static final int CENTRAL_COMMENT_LENGTH = 32;
+    private static final int CENTRAL_LOCAL_OFFSET = 42;
+
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_SIZE = 22;
+    private static final int END_COUNT = 10;
+    private static final int END_CENTRAL_SIZE = 12;
+    private static final int END_CENTRAL_OFFSET = 16;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    private ZipFiles() {
+    }
+
+    /**
+     * Reads the offsets of the local headers of the entries of
+     * the given ZIP file, by entry name
+     *
+     * <p>ZIP64 files are not supported, an empty map is returned
+     * for them, or if the file isn't a valid ZIP file</p>
+     *
+     * @param channel The ZIP file channel
+     * @return The local header offsets, by entry name
+     * @throws IOException If reading fails
+     */
+    static @NotNull Map<String, Long> localHeaderOffsets(@NotNull FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < END_SIZE) {
+            return Collections.emptyMap();
+        }
+
+        // the end record is followed by a comment of unknown length
+        int tailLength = (int) Math.min(size, END_SIZE + MAX_COMMENT_LENGTH);
+        long tailPosition = size - tailLength;
+        ByteBuffer tail = read(channel, tailPosition, tailLength);
+        int end = -1;
+        for (int i = tailLength - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE) {
+                end = i;
+                break;
+            }
+        }
+        if (end == -1) {
+            return Collections.emptyMap();
+        }
+
+        long centralSize = tail.getInt(end + END_CENTRAL_SIZE) & 0xFFFFFFFFL;
+        long centralOffset = tail.getInt(end + END_CENTRAL_OFFSET) & 0xFFFFFFFFL;
+        if ((tail.getShort(end + END_COUNT) & 0xFFFF) == ZIP64_MAGIC_COUNT
+                || centralSize == ZIP64_MAGIC
+                || centralOffset == ZIP64_MAGIC
+                || centralSize > Integer.MAX_VALUE) {
+            return Collections.emptyMap();
+        }
+
+        // offsets are shifted if there is data before the ZIP file
+        long base = tailPosition + end - centralSize - centralOffset;
+        if (base < 0) {
+            return Collections.emptyMap();
+        }
+
+        ByteBuffer central = read(channel, base + centralOffset, (int) centralSize);
+        Map<String, Long> offsets = new HashMap<>();
+        int index = 0;
+        while (index + CENTRAL_HEADER_SIZE <= centralSize && central.getInt(index) == CENTRAL_SIGNATURE) {
+            int nameLength = central.getShort(index + CENTRAL_NAME_LENGTH) & 0xFFFF;
+            int extraLength = central.getShort(index + CENTRAL_EXTRA_LENGTH) & 0xFFFF;
+            int commentLength = central.getShort(index + CENTRAL_COMMENT_LENGTH) & 0xFFFF;
+            long offset = central.getInt(index + CENTRAL_LOCAL_OFFSET) & 0xFFFFFFFFL;
+            if (index + CENTRAL_HEADER_SIZE + nameLength > centralSize) {
+                break;
+            }
+            String name = new String(central.array(), index + CENTRAL_HEADER_SIZE, nameLength, StandardCharsets.UTF_8);
+            if (offset != ZIP64_MAGIC) {
+                offsets.put(name, base + offset);
+            }
+            index += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+        return offsets;
+    }
+
+    static @NotNull ByteBuffer read(@NotNull FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                throw new EOFException("Unexpected end of ZIP file");
+            }
+        }
+        return buffer;
+    }
+
+}
@@ -0,0 +1,297 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.io;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+
+/**
+ * Formats floats as the shortest decimal that rounds to them, in the
+ * same format as {@link Float#toString(float)}, straight into a byte
+ * array.
+ *
+ * <p>The digits are computed with Raffaello Giulietti's Schubfach
+ * algorithm, which is also used by {@link Float#toString(float)} since
+ * Java 19. Older versions sometimes write more digits than needed,
+ * e.g. {@code 3.3629008E7} instead of {@code 3.362901E7}.</p>
+ */
+final class FloatFormat {
+    /**
+     * The maximum amount of bytes written for a float,
+     * e.g. {@code -1.23456789E-45}
+     */
+    static final int MAX_LENGTH = 15;
+
+    // the precision, in bits
+    private static final int P = 24;
+    // minimum and maximum exponents, for c 2^q
+    private static final int Q_MIN = -149;
+    private static final int C_MIN = 1 << (P - 1);
+    private static final int T_MASK = C_MIN - 1;
+    private static final int BQ_MASK = 0xFF;
+    // subnormal significands below this have less than two digits
+    private static final int C_TINY = 8;
+    // the range of k, for 10^k
+    private static final int K_MIN = -45;
+    private static final int K_MAX = 31;
+    // the maximum amount of digits
+    private static final int H = 9;
+
+    private static final long MASK_32 = (1L << 32) - 1;
+
+    private static final int[] POW10 = {
+            1, 10, 100, 1_000, 10_000, 100_000, 1_000_000,
+            10_000_000, 100_000_000, 1_000_000_000
+    };
+
+    /**
+     * The 63 most significant bits of 10^(-k) 2^(-r) + 1, for every
+     * k, where r makes it lie in [2^125, 2^126)
+     */
+    private static final long[] G = new long[K_MAX - K_MIN + 1];
+
+    static {
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            final int r = flog2pow10(-k) - 125;
+            BigInteger numerator = BigInteger.ONE;
+            BigInteger denominator = BigInteger.ONE;
+            if (k <= 0) {
+                numerator = BigInteger.TEN.pow(-k);
+            } else {
+                denominator = BigInteger.TEN.pow(k);
+            }
+            if (r <= 0) {
+                numerator = numerator.shiftLeft(-r);
+            } else {
+                denominator = denominator.shiftLeft(r);
+            }
+            G[k - K_MIN] = numerator.divide(denominator).add(BigInteger.ONE).shiftRight(63).longValue();
+        }
+    }
+
+    private FloatFormat() {
+        throw new UnsupportedOperationException("Can't instantiate utility class");
+    }
+
+    /**
+     * Writes the given finite float to the given buffer, as
+     * ASCII characters, which must have room for {@link #MAX_LENGTH}
+     * bytes from the given position
+     *
+     * @param value    The finite float
+     * @param buffer   The buffer
+     * @param position The position to write at
+     * @return The position after the written bytes
+     */
+    static int write(final float value, final byte @NotNull [] buffer, int position) {
+        final int bits = Float.floatToRawIntBits(value);
+        final int t = bits & T_MASK;
+        final int bq = (bits >>> (P - 1)) & BQ_MASK;
+        if (bits < 0) {
+            buffer[position++] = '-';
+        }
+        if (bq != 0) {
+            // normal value, mq = -q
+            final int mq = -Q_MIN + 1 - bq;
+            final int c = C_MIN | t;
+            if (0 < mq && mq < P) {
+                // integers are written as they are
+                final int f = c >> mq;
+                if (f << mq == c) {
+                    return write(buffer, position, f, 0);
+                }
+            }
+            return toDecimal(buffer, position, -mq, c, 0);
+        } else if (t != 0) {
+            // subnormal value
+            return t < C_TINY
+                    ? toDecimal(buffer, position, Q_MIN, 10 * t, -1)
+                    : toDecimal(buffer, position, Q_MIN, t, 0);
+        } else {
+            buffer[position++] = '0';
+            buffer[position++] = '.';
+            buffer[position++] = '0';
+            return position;
+        }
+    }
+
+    /**
+     * Finds the shortest decimal f 10^e in the rounding interval
+     * of c 2^q, the closest to it if there are many, and writes it
+     */
+    private static int toDecimal(final byte @NotNull [] buffer, final int position, final int q, final int c, final int dk) {
+        final int out = c & 0x1;
+        final long cb = (long) c << 2;
+        final long cbr = cb + 2;
+        final long cbl;
+        final int k;
+        if (c != C_MIN || q == Q_MIN) {
+            // regular spacing
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // irregular spacing
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        final int h = q + flog2pow10(-k) + 33;
+
+        final long g = G[k - K_MIN] + 1;
+
+        final int vb = rop(g, cb << h);
+        final int vbl = rop(g, cbl << h);
+        final int vbr = rop(g, cbr << h);
+
+        final int s = vb >> 2;
+        if (s >= 100) {
+            // floor(s / 10) = floor(s 1_717_986_919 / 2^34)
+            final int sp10 = 10 * (int) (s * 1_717_986_919L >>> 34);
+            final int tp10 = sp10 + 10;
+            final boolean upin = vbl + out <= sp10 << 2;
+            final boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return write(buffer, position, upin ? sp10 : tp10, k);
+            }
+        }
+
+        final int t = s + 1;
+        final boolean uin = vbl + out <= s << 2;
+        final boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            // exactly one of them is in the rounding interval
+            return write(buffer, position, uin ? s : t, k + dk);
+        }
+        // both of them are, so the closest one, or the even one
+        final int cmp = vb - (s + t << 1);
+        return write(buffer, position, cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk);
+    }
+
+    /**
+     * Writes f 10^e, like {@link Float#toString(float)} does: plain
+     * from 10^-3 (inclusive) to 10^7 (exclusive), computerized
+     * scientific notation otherwise
+     */
+    private static int write(final byte @NotNull [] buffer, int position, int f, int e) {
+        // remove trailing zeroes
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+        int length = 1;
+        while (length < H && f >= POW10[length]) {
+            length++;
+        }
+        // so that f 10^e = 0.f 10^e
+        e += length;
+
+        if (0 < e && e <= 7) {
+            if (length <= e) {
+                position = writeDigits(buffer, position, f, length);
+                for (int i = length; i < e; i++) {
+                    buffer[position++] = '0';
+                }
+                buffer[position++] = '.';
+                buffer[position++] = '0';
+            } else {
+                final int fraction = length - e;
+                position = writeDigits(buffer, position, f / POW10[fraction], e);
+                buffer[position++] = '.';
+                position = writeDigits(buffer, position, f % POW10[fraction], fraction);
+            }
+        } else if (-3 < e && e <= 0) {
+            buffer[position++] = '0';
+            buffer[position++] = '.';
+            for (; e < 0; e++) {
+                buffer[position++] = '0';
+            }
+            position = writeDigits(buffer, position, f, length);
+        } else {
+            final int fraction = length - 1;
+            position = writeDigits(buffer, position, f / POW10[fraction], 1);
+            buffer[position++] = '.';
+            if (fraction == 0) {
+                buffer[position++] = '0';
+            } else {
+                position = writeDigits(buffer, position, f % POW10[fraction], fraction);
+            }
+            buffer[position++] = 'E';
+            int exponent = e - 1;
+            if (exponent < 0) {
+                buffer[position++] = '-';
+                exponent = -exponent;
+            }
+            if (exponent >= 10) {
+                buffer[position++] = (byte) ('0' + exponent / 10);
+            }
+            buffer[position++] = (byte) ('0' + exponent % 10);
+        }
+        return position;
+    }
+
+    private static int writeDigits(final byte @NotNull [] buffer, final int position, int value, final int digits) {
+        final int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    // computes rop(cp g 2^(-95))
+    private static int rop(final long g, final long cp) {
+        final long x1 = multiplyHigh(g, cp);
+        final long vbp = x1 >>> 31;
+        return (int) (vbp | (x1 & MASK_32) + MASK_32 >>> 32);
+    }
+
+    // Math.multiplyHigh, only available since Java 9
+    private static long multiplyHigh(final long x, final long y) {
+        final long x1 = x >> 32;
+        final long x2 = x & MASK_32;
+        final long y1 = y >> 32;
+        final long y2 = y & MASK_32;
+        final long z2 = x2 * y2;
+        final long t = x1 * y2 + (z2 >>> 32);
+        long z1 = t & MASK_32;
+        final long z0 = t >> 32;
+        z1 += x2 * y1;
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    // floor(log10(2^e))
+    private static int flog10pow2(final int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    // floor(log10(3/4 2^e))
+    private static int flog10threeQuartersPow2(final int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    // floor(log2(10^e))
+    private static int flog2pow10(final int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+}
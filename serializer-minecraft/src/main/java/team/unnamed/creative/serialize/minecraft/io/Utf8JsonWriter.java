@@ -0,0 +1,590 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.io;
+
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link JsonWriter} that encodes the JSON as UTF-8 by itself,
+ * straight into a byte buffer (reused by the next writers in the
+ * same thread), instead of writing it to a {@link Writer}.
+ *
+ * <p>The written bytes are the exact same as the ones written by
+ * a {@link JsonWriter} wrapping an UTF-8 {@link java.io.OutputStreamWriter},
+ * including its escaping and number formatting, except for floats,
+ * which are always written with the shortest decimal that rounds to
+ * them (see {@link FloatFormat}), like {@link Float#toString(float)}
+ * does since Java 19.</p>
+ *
+ * <p>Since {@link JsonWriter#setIndent(String)} can't be overridden,
+ * the indent must be given on creation.</p>
+ */
+@ApiStatus.Internal
+public final class Utf8JsonWriter extends JsonWriter {
+    private static final int BUFFER_SIZE = 8192;
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<>();
+
+    // the maximum amount of bytes written for a single char, escaped
+    private static final int MAX_CHAR_SIZE = 6;
+    // the maximum length of a long, "-9223372036854775808"
+    private static final int MAX_LONG_SIZE = 20;
+
+    private static final byte[][] REPLACEMENTS = new byte[128][];
+    private static final byte[][] HTML_SAFE_REPLACEMENTS;
+    private static final byte[] LINE_SEPARATOR = ascii("\\u2028");
+    private static final byte[] PARAGRAPH_SEPARATOR = ascii("\\u2029");
+
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[] NULL = ascii("null");
+
+    private static final Pattern VALID_JSON_NUMBER_PATTERN = Pattern.compile("-?(?:0|[1-9][0-9]*)(?:\\.[0-9]+)?(?:[eE][-+]?[0-9]+)?");
+
+    // same escapes as JsonWriter
+    static {
+        for (int i = 0; i <= 0x1f; i++) {
+            REPLACEMENTS[i] = ascii(String.format("\\u%04x", i));
+        }
+        REPLACEMENTS['"'] = ascii("\\\"");
+        REPLACEMENTS['\\'] = ascii("\\\\");
+        REPLACEMENTS['\t'] = ascii("\\t");
+        REPLACEMENTS['\b'] = ascii("\\b");
+        REPLACEMENTS['\n'] = ascii("\\n");
+        REPLACEMENTS['\r'] = ascii("\\r");
+        REPLACEMENTS['\f'] = ascii("\\f");
+        HTML_SAFE_REPLACEMENTS = REPLACEMENTS.clone();
+        HTML_SAFE_REPLACEMENTS['<'] = ascii("\\u003c");
+        HTML_SAFE_REPLACEMENTS['>'] = ascii("\\u003e");
+        HTML_SAFE_REPLACEMENTS['&'] = ascii("\\u0026");
+        HTML_SAFE_REPLACEMENTS['='] = ascii("\\u003d");
+        HTML_SAFE_REPLACEMENTS['\''] = ascii("\\u0027");
+    }
+
+    // the writer required by JsonWriter, never used
+    private static final Writer UNSUPPORTED_WRITER = new Writer() {
+        @Override
+        public void write(final char @NotNull [] buffer, final int off, final int len) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void flush() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    // scopes, like in JsonWriter
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+
+    private final OutputStream output;
+    private final byte @Nullable [] indent;
+    private final byte[] separator;
+
+    private byte @Nullable [] buffer;
+    private int position;
+    // zero once closed, so that writing needs to flush, and fails
+    private int capacity;
+
+    private int[] stack = new int[32];
+    private int stackSize = 0;
+    private @Nullable String deferredName;
+
+    /**
+     * Creates a new writer for the given output, which
+     * writes the JSON without indentation
+     *
+     * @param output The output
+     */
+    public Utf8JsonWriter(final @NotNull OutputStream output) {
+        this(output, null);
+    }
+
+    /**
+     * Creates a new writer for the given output
+     *
+     * @param output The output
+     * @param indent The indent for every nesting level, null or empty
+     *               to write the JSON without indentation
+     */
+    public Utf8JsonWriter(final @NotNull OutputStream output, final @Nullable String indent) {
+        super(UNSUPPORTED_WRITER);
+        this.output = requireNonNull(output, "output");
+        if (indent == null || indent.isEmpty()) {
+            this.indent = null;
+            this.separator = ascii(":");
+        } else {
+            this.indent = indent.getBytes(StandardCharsets.UTF_8);
+            this.separator = ascii(": ");
+        }
+
+        byte[] buffer = BUFFERS.get();
+        if (buffer == null) {
+            buffer = new byte[BUFFER_SIZE];
+        } else {
+            // owned by this writer until closed
+            BUFFERS.remove();
+        }
+        this.buffer = buffer;
+        this.capacity = buffer.length;
+        push(EMPTY_DOCUMENT);
+    }
+
+    @Override
+    public @NotNull JsonWriter beginArray() throws IOException {
+        writeDeferredName();
+        return open(EMPTY_ARRAY, '[');
+    }
+
+    @Override
+    public @NotNull JsonWriter endArray() throws IOException {
+        return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    @Override
+    public @NotNull JsonWriter beginObject() throws IOException {
+        writeDeferredName();
+        return open(EMPTY_OBJECT, '{');
+    }
+
+    @Override
+    public @NotNull JsonWriter endObject() throws IOException {
+        return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    private @NotNull JsonWriter open(final int empty, final char openBracket) throws IOException {
+        beforeValue();
+        push(empty);
+        writeByte(openBracket);
+        return this;
+    }
+
+    private @NotNull JsonWriter close(final int empty, final int nonempty, final char closeBracket) throws IOException {
+        final int context = peek();
+        if (context != nonempty && context != empty) {
+            throw new IllegalStateException("Nesting problem.");
+        }
+        if (deferredName != null) {
+            throw new IllegalStateException("Dangling name: " + deferredName);
+        }
+
+        stackSize--;
+        if (context == nonempty) {
+            newline();
+        }
+        writeByte(closeBracket);
+        return this;
+    }
+
+    private void push(final int newTop) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = newTop;
+    }
+
+    private int peek() {
+        if (stackSize == 0) {
+            throw new IllegalStateException("JsonWriter is closed.");
+        }
+        return stack[stackSize - 1];
+    }
+
+    private void replaceTop(final int topOfStack) {
+        stack[stackSize - 1] = topOfStack;
+    }
+
+    @Override
+    public @NotNull JsonWriter name(final @NotNull String name) {
+        requireNonNull(name, "name == null");
+        if (deferredName != null) {
+            throw new IllegalStateException();
+        }
+        if (stackSize == 0) {
+            throw new IllegalStateException("JsonWriter is closed.");
+        }
+        deferredName = name;
+        return this;
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (deferredName != null) {
+            beforeName();
+            string(deferredName);
+            deferredName = null;
+        }
+    }
+
+    @Override
+    public @NotNull JsonWriter value(final @Nullable String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    @Override
+    public @NotNull JsonWriter jsonValue(final @Nullable String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        beforeValue();
+        encode(value, null);
+        return this;
+    }
+
+    @Override
+    public @NotNull JsonWriter nullValue() throws IOException {
+        if (deferredName != null) {
+            if (getSerializeNulls()) {
+                writeDeferredName();
+            } else {
+                // skip the name and the value
+                deferredName = null;
+                return this;
+            }
+        }
+        beforeValue();
+        writeBytes(NULL);
+        return this;
+    }
+
+    @Override
+    public @NotNull JsonWriter value(final boolean value) throws IOException {
+        writeDeferredName();
+        beforeValue();
+        writeBytes(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public @NotNull JsonWriter value(final @Nullable Boolean value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        return value(value.booleanValue());
+    }
+
+    @Override
+    public @NotNull JsonWriter value(final float value) throws IOException {
+        writeDeferredName();
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            if (!isLenient()) {
+                throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+            }
+            beforeValue();
+            encode(Float.toString(value), null);
+            return this;
+        }
+        beforeValue();
+        if (position + FloatFormat.MAX_LENGTH > capacity) {
+            makeRoom();
+        }
+        position = FloatFormat.write(value, buffer, position);
+        return this;
+    }
+
+    @Override
+    public @NotNull JsonWriter value(final double value) throws IOException {
+        writeDeferredName();
+        if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        beforeValue();
+        encode(Double.toString(value), null);
+        return this;
+    }
+
+    @Override
+    public @NotNull JsonWriter value(final long value) throws IOException {
+        writeDeferredName();
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    @Override
+    public @NotNull JsonWriter value(final @Nullable Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+
+        final Class<? extends Number> numberClass = value.getClass();
+        if (numberClass == Integer.class || numberClass == Long.class
+                || numberClass == Short.class || numberClass == Byte.class) {
+            // written without creating a string
+            return value(value.longValue());
+        } else if (numberClass == Float.class) {
+            return value(value.floatValue());
+        }
+
+        writeDeferredName();
+        final String string = value.toString();
+        if (string.equals("-Infinity") || string.equals("Infinity") || string.equals("NaN")) {
+            if (!isLenient()) {
+                throw new IllegalArgumentException("Numeric values must be finite, but was " + string);
+            }
+        } else if (!isTrustedNumberType(numberClass) && !VALID_JSON_NUMBER_PATTERN.matcher(string).matches()) {
+            throw new IllegalArgumentException("String created by " + numberClass + " is not a valid JSON number: " + string);
+        }
+        beforeValue();
+        encode(string, null);
+        return this;
+    }
+
+    private static boolean isTrustedNumberType(final @NotNull Class<? extends Number> numberClass) {
+        return numberClass == Integer.class || numberClass == Long.class || numberClass == Double.class
+                || numberClass == Float.class || numberClass == Byte.class || numberClass == Short.class
+                || numberClass == BigDecimal.class || numberClass == BigInteger.class
+                || numberClass == AtomicInteger.class || numberClass == AtomicLong.class;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (stackSize == 0) {
+            throw new IllegalStateException("JsonWriter is closed.");
+        }
+        flushBuffer();
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        final byte[] buffer = this.buffer;
+        try {
+            if (buffer != null) {
+                output.write(buffer, 0, position);
+            }
+        } finally {
+            if (buffer != null) {
+                this.buffer = null;
+                position = 0;
+                capacity = 0;
+                BUFFERS.set(buffer);
+            }
+            output.close();
+        }
+
+        final int size = stackSize;
+        if (size > 1 || size == 1 && stack[0] != NONEMPTY_DOCUMENT) {
+            throw new IOException("Incomplete document");
+        }
+        stackSize = 0;
+    }
+
+    private void beforeName() throws IOException {
+        final int context = peek();
+        if (context == NONEMPTY_OBJECT) {
+            writeByte(',');
+        } else if (context != EMPTY_OBJECT) {
+            throw new IllegalStateException("Nesting problem.");
+        }
+        newline();
+        replaceTop(DANGLING_NAME);
+    }
+
+    private void beforeValue() throws IOException {
+        switch (peek()) {
+            case NONEMPTY_DOCUMENT:
+                if (!isLenient()) {
+                    throw new IllegalStateException("JSON must have only one top-level value.");
+                }
+                // fall-through
+            case EMPTY_DOCUMENT:
+                replaceTop(NONEMPTY_DOCUMENT);
+                break;
+            case EMPTY_ARRAY:
+                replaceTop(NONEMPTY_ARRAY);
+                newline();
+                break;
+            case NONEMPTY_ARRAY:
+                writeByte(',');
+                newline();
+                break;
+            case DANGLING_NAME:
+                writeBytes(separator);
+                replaceTop(NONEMPTY_OBJECT);
+                break;
+            default:
+                throw new IllegalStateException("Nesting problem.");
+        }
+    }
+
+    private void newline() throws IOException {
+        final byte[] indent = this.indent;
+        if (indent == null) {
+            return;
+        }
+        writeByte('\n');
+        for (int i = 1; i < stackSize; i++) {
+            writeBytes(indent);
+        }
+    }
+
+    private void string(final @NotNull String value) throws IOException {
+        writeByte('"');
+        encode(value, isHtmlSafe() ? HTML_SAFE_REPLACEMENTS : REPLACEMENTS);
+        writeByte('"');
+    }
+
+    /**
+     * Writes the given string encoded as UTF-8, escaping the
+     * characters with replacements, if given
+     */
+    private void encode(final @NotNull String value, final byte @Nullable [] @Nullable [] replacements) throws IOException {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (position + MAX_CHAR_SIZE > capacity) {
+                makeRoom();
+            }
+            final byte[] buffer = this.buffer;
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                final byte[] replacement = replacements == null ? null : replacements[c];
+                if (replacement == null) {
+                    buffer[position++] = (byte) c;
+                } else {
+                    System.arraycopy(replacement, 0, buffer, position, replacement.length);
+                    position += replacement.length;
+                }
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (replacements != null && (c == '\u2028' || c == '\u2029')) {
+                final byte[] replacement = c == '\u2028' ? LINE_SEPARATOR : PARAGRAPH_SEPARATOR;
+                System.arraycopy(replacement, 0, buffer, position, replacement.length);
+                position += replacement.length;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    // malformed, replaced like the UTF-8 encoder does
+                    buffer[position++] = '?';
+                }
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            // can't be negated
+            encode(Long.toString(value), null);
+            return;
+        }
+        if (position + MAX_LONG_SIZE > capacity) {
+            makeRoom();
+        }
+        final byte[] buffer = this.buffer;
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining != 0; remaining /= 10) {
+            digits++;
+        }
+        final int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    private void writeByte(final char c) throws IOException {
+        if (position == capacity) {
+            makeRoom();
+        }
+        buffer[position++] = (byte) c;
+    }
+
+    private void writeBytes(final byte @NotNull [] bytes) throws IOException {
+        if (position + bytes.length > capacity) {
+            makeRoom();
+            if (bytes.length > capacity) {
+                // longer than the buffer (only huge indents)
+                output.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void makeRoom() throws IOException {
+        if (buffer == null) {
+            throw new IOException("JsonWriter is closed.");
+        }
+        flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (buffer != null && position > 0) {
+            output.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static byte @NotNull [] ascii(final @NotNull String string) {
+        return string.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -27,6 +27,7 @@ import org.jetbrains.annotations.ApiStatus;
 import team.unnamed.creative.overlay.ResourceContainer;
 import team.unnamed.creative.serialize.minecraft.ResourceCategory;
 import team.unnamed.creative.serialize.minecraft.io.BinaryResourceDeserializer;
+import team.unnamed.creative.serialize.minecraft.io.BinaryResourceSerializer;
 import team.unnamed.creative.sound.Sound;
 
 @ApiStatus.Internal
@@ -38,7 +39,7 @@ public class SoundSerializer {
             ResourceContainer::sound,
             ResourceContainer::sounds,
             (BinaryResourceDeserializer<Sound>) (data, key) -> Sound.sound(key, data),
-            (sound, output) -> sound.data().write(output)
+            (BinaryResourceSerializer<Sound>) Sound::data
     );
 
 }
@@ -0,0 +1,216 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.serialize.minecraft.fs.FileTreeReader;
+import team.unnamed.creative.serialize.minecraft.fs.FileTreeWriter;
+import team.unnamed.creative.serialize.minecraft.fs.ZipCompression;
+import team.unnamed.creative.serialize.minecraft.fs.ZipCompressionPolicy;
+import team.unnamed.creative.serialize.minecraft.fs.ZipEntryLifecycleHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelZipWriterTest {
+    private static final int FILES = 50;
+
+    private final AtomicInteger serialized = new AtomicInteger();
+    private final AtomicInteger compressed = new AtomicInteger();
+    private final ZipEntryLifecycleHandler counting = new ZipEntryLifecycleHandler() {
+        @Override
+        public ZipEntry create(String path) {
+            compressed.incrementAndGet();
+            return ZipEntryLifecycleHandler.DEFAULT.create(path);
+        }
+    };
+
+    @Test
+    @DisplayName("Test that cached entries are only compressed again if they changed")
+    void test_cached_entries_reused() throws IOException {
+        testCachedEntriesReused(null);
+    }
+
+    @Test
+    @DisplayName("Test that cached entries are only compressed again if they changed, in parallel")
+    void test_cached_entries_reused_parallel() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            testCachedEntriesReused(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void testCachedEntriesReused(ForkJoinPool pool) throws IOException {
+        ParallelZipWriter.EntryCache cache = new ParallelZipWriter.EntryCache();
+
+        assertArrayEquals(expected(FILES, -1), write(pool, cache, FILES, -1));
+        assertEquals(FILES, compressed.getAndSet(0));
+        // serialized once, even if compressed
+        assertEquals(FILES, serialized.getAndSet(0));
+
+        // unchanged
+        assertArrayEquals(expected(FILES, -1), write(pool, cache, FILES, -1));
+        assertEquals(0, compressed.getAndSet(0));
+        assertEquals(FILES, serialized.getAndSet(0));
+
+        // changed and removed files
+        assertArrayEquals(expected(FILES - 10, 5), write(pool, cache, FILES - 10, 5));
+        assertEquals(1, compressed.getAndSet(0));
+        assertEquals(FILES - 10, serialized.getAndSet(0));
+
+        // and back
+        assertArrayEquals(expected(FILES, -1), write(pool, cache, FILES, -1));
+        assertEquals(11, compressed.getAndSet(0));
+    }
+
+    @Test
+    @DisplayName("Test that cached entries copied from a ZIP file are reused when it is read again")
+    void test_cached_zip_entries_reused(@TempDir Path directory) throws IOException {
+        Path source = directory.resolve("source.zip");
+        try (FileTreeWriter writer = FileTreeWriter.zip(new ZipOutputStream(Files.newOutputStream(source)))) {
+            for (int i = 0; i < FILES; i++) {
+                writer.write("file_" + i + ".txt", Writable.bytes(contents(i, -1)));
+            }
+        }
+
+        ParallelZipWriter.EntryCache cache = new ParallelZipWriter.EntryCache();
+        byte[] first = null;
+        for (int round = 0; round < 2; round++) {
+            ParallelZipWriter writer = new ParallelZipWriter(null, counting, null, true, cache);
+            // a new reader every time, like when the resource-pack is read again
+            try (FileTreeReader reader = FileTreeReader.zip(new ZipFile(source.toFile()))) {
+                while (reader.hasNext()) {
+                    writer.write(reader.next(), reader.content().asWritable());
+                }
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                writer.writeTo(output);
+                if (first == null) {
+                    first = output.toByteArray();
+                } else {
+                    assertArrayEquals(first, output.toByteArray());
+                }
+            }
+            assertEquals(round == 0 ? FILES : 0, compressed.getAndSet(0));
+        }
+    }
+
+    private byte[] write(ForkJoinPool pool, ParallelZipWriter.EntryCache cache, int files, int changed) throws IOException {
+        ParallelZipWriter writer = new ParallelZipWriter(pool, counting, null, false, cache);
+        for (int i = 0; i < files; i++) {
+            byte[] contents = contents(i, changed);
+            writer.write("file_" + i + ".txt", output -> {
+                serialized.incrementAndGet();
+                output.write(contents);
+            });
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.writeTo(output);
+        return output.toByteArray();
+    }
+
+    private static byte[] expected(int files, int changed) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (FileTreeWriter writer = FileTreeWriter.zip(new ZipOutputStream(output))) {
+            for (int i = 0; i < files; i++) {
+                writer.write("file_" + i + ".txt", Writable.bytes(contents(i, changed)));
+            }
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] contents(int i, int changed) {
+        return ("contents of file " + i + (i == changed ? " (changed)" : "")).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Test that files are compressed in parallel with the compression of the policy")
+    void test_compression_policy_parallel(@TempDir Path directory) throws IOException {
+        Map<String, ZipCompression> compressions = new HashMap<>();
+        compressions.put("png", ZipCompression.stored());
+        compressions.put("txt", ZipCompression.deflated(1));
+        compressions.put("bin", ZipCompression.smallest(9));
+        ZipCompressionPolicy policy = ZipCompressionPolicy.byExtension(compressions, ZipCompression.deflated());
+
+        byte[] text = new byte[20000];
+        byte[] noise = new byte[20000];
+        Random random = new Random(42);
+        for (int i = 0; i < text.length; i++) {
+            text[i] = (byte) ('a' + random.nextInt(4));
+        }
+        random.nextBytes(noise);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try (FileTreeWriter sequential = FileTreeWriter.zip(new ZipOutputStream(expected), ZipEntryLifecycleHandler.DEFAULT, policy)) {
+            ParallelZipWriter parallel = new ParallelZipWriter(pool, ZipEntryLifecycleHandler.DEFAULT, policy, false, null);
+            for (FileTreeWriter writer : new FileTreeWriter[]{sequential, parallel}) {
+                writer.write("stored.PNG", Writable.bytes(text));
+                writer.write("fast.txt", Writable.bytes(text));
+                writer.write("smaller.bin", Writable.bytes(text));
+                writer.write("noise.bin", Writable.bytes(noise));
+                writer.write("default.json", Writable.bytes(text));
+            }
+            Path file = directory.resolve("compressed.zip");
+            try (OutputStream output = Files.newOutputStream(file)) {
+                parallel.writeTo(output);
+            }
+
+            try (ZipFile zip = new ZipFile(file.toFile())) {
+                assertEquals(ZipEntry.STORED, zip.getEntry("stored.PNG").getMethod());
+                assertEquals(text.length, zip.getEntry("stored.PNG").getCompressedSize());
+                assertEquals(ZipEntry.DEFLATED, zip.getEntry("fast.txt").getMethod());
+                assertEquals(ZipEntry.DEFLATED, zip.getEntry("smaller.bin").getMethod());
+                assertTrue(zip.getEntry("smaller.bin").getCompressedSize() < zip.getEntry("fast.txt").getCompressedSize());
+                assertEquals(ZipEntry.STORED, zip.getEntry("noise.bin").getMethod());
+                assertEquals(noise.length, zip.getEntry("noise.bin").getCompressedSize());
+                assertEquals(ZipEntry.DEFLATED, zip.getEntry("default.json").getMethod());
+            }
+            sequential.close();
+            assertArrayEquals(expected.toByteArray(), Files.readAllBytes(file));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
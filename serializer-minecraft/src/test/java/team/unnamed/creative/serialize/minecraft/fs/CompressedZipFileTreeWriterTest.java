@@ -0,0 +1,48 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipOutputStream;
+
+class CompressedZipFileTreeWriterTest extends ZipFileTreeWriterTest {
+
+    @Override
+    public FileTreeWriter createWriter() throws IOException {
+        Map<String, ZipCompression> compressions = new HashMap<>();
+        compressions.put("txt", ZipCompression.stored());
+        compressions.put("json", ZipCompression.stored());
+        compressions.put("bin", ZipCompression.smallest(9));
+        return FileTreeWriter.zip(
+                new ZipOutputStream(Files.newOutputStream(zipPath()), StandardCharsets.UTF_8),
+                ZipEntryLifecycleHandler.DEFAULT,
+                ZipCompressionPolicy.byExtension(compressions, ZipCompression.deflated(1))
+        );
+    }
+
+}
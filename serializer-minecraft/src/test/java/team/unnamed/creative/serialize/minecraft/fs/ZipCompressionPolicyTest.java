@@ -0,0 +1,142 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.base.Writable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipCompressionPolicyTest {
+
+    private static final byte[] TEXT = text();
+    private static final byte[] NOISE = noise();
+
+    @Test
+    @DisplayName("Test that the compressed files are stored by their case-insensitive extension")
+    void test_store_compressed_case_insensitive() {
+        for (String path : new String[]{"textures/stone.png", "textures/STONE.PNG", "sounds/click.Ogg"}) {
+            assertEquals(ZipEntry.STORED, ZipCompressionPolicy.STORE_COMPRESSED.compression(path).method(), path);
+        }
+        for (String path : new String[]{"pack.mcmeta", "models/png", "png", "textures/stone.png.mcmeta"}) {
+            assertEquals(ZipEntry.DEFLATED, ZipCompressionPolicy.STORE_COMPRESSED.compression(path).method(), path);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that files are written with the compression of the policy")
+    void test_written_compressions(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("compressed.zip");
+        try (FileTreeWriter writer = FileTreeWriter.zip(
+                new ZipOutputStream(Files.newOutputStream(file)),
+                ZipEntryLifecycleHandler.DEFAULT,
+                policy()
+        )) {
+            write(writer);
+        }
+        assertCompressions(file);
+    }
+
+    private static ZipCompressionPolicy policy() {
+        Map<String, ZipCompression> compressions = new HashMap<>();
+        compressions.put("png", ZipCompression.stored());
+        compressions.put("txt", ZipCompression.deflated(1));
+        compressions.put("json", ZipCompression.deflated(9));
+        compressions.put("bin", ZipCompression.smallest(9));
+        return ZipCompressionPolicy.byExtension(compressions, ZipCompression.deflated());
+    }
+
+    private static void write(FileTreeWriter writer) {
+        writer.write("stored.PNG", Writable.bytes(TEXT));
+        writer.write("fast.txt", Writable.bytes(TEXT));
+        writer.write("best.json", Writable.bytes(TEXT));
+        writer.write("smaller.bin", Writable.bytes(TEXT));
+        writer.write("noise.bin", Writable.bytes(NOISE));
+    }
+
+    private static void assertCompressions(Path file) throws IOException {
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            assertCompression(zip.getEntry("stored.PNG"), ZipEntry.STORED, TEXT.length);
+            assertCompression(zip.getEntry("fast.txt"), ZipEntry.DEFLATED, deflatedSize(1, TEXT));
+            assertCompression(zip.getEntry("best.json"), ZipEntry.DEFLATED, deflatedSize(9, TEXT));
+            // deflated only when it gets smaller
+            assertCompression(zip.getEntry("smaller.bin"), ZipEntry.DEFLATED, deflatedSize(9, TEXT));
+            assertTrue(deflatedSize(9, NOISE) >= NOISE.length);
+            assertCompression(zip.getEntry("noise.bin"), ZipEntry.STORED, NOISE.length);
+        }
+    }
+
+    private static void assertCompression(ZipEntry entry, int method, long compressedSize) {
+        assertEquals(method, entry.getMethod(), entry.getName());
+        assertEquals(compressedSize, entry.getCompressedSize(), entry.getName());
+    }
+
+    private static long deflatedSize(int level, byte[] data) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                deflater.deflate(buffer);
+            }
+            return deflater.getBytesWritten();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] text() {
+        // compressible, but differently by every level
+        Random random = new Random(42);
+        String[] words = {"creative", "resource", "pack", "texture", "model", "sound", "font", "atlas"};
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            builder.append(words[random.nextInt(words.length)]).append(random.nextInt(100)).append(' ');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] noise() {
+        byte[] noise = new byte[20000];
+        new Random(42).nextBytes(noise);
+        return noise;
+    }
+
+}
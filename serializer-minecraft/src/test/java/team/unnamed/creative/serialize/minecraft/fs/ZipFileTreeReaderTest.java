@@ -24,12 +24,24 @@
 package team.unnamed.creative.serialize.minecraft.fs;
 
 import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.base.Writable;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
 class ZipFileTreeReaderTest implements FileTreeReaderTest {
     @Override
     public @NotNull FileTreeReader createReader() {
@@ -40,4 +52,30 @@ class ZipFileTreeReaderTest implements FileTreeReaderTest {
             throw new UncheckedIOException(e);
         }
     }
+
+    @Test
+    void test_compressed_contents() throws IOException {
+        final Map<String, Writable> files = new HashMap<>();
+        try (FileTreeReader reader = createReader()) {
+            while (reader.hasNext()) {
+                files.put(reader.next(), reader.content().asWritable());
+            }
+        }
+
+        // still readable after closing the reader, from memory
+        assertEquals(4, files.size());
+        assertEquals("Hello, this is a cool file", files.get("file.txt").toUTF8String());
+        assertEquals("This is the third file", files.get("dir/subdir/file3.txt").toUTF8String());
+
+        final ZipEntryWritable file = assertInstanceOf(ZipEntryWritable.class, files.get("dir/subdir/file3.txt"));
+        assertEquals(ZipEntry.DEFLATED, file.method());
+        assertEquals(22, file.size());
+
+        final byte[] compressed = file.compressed();
+        assertNotNull(compressed);
+        assertEquals(21, compressed.length);
+        try (InflaterInputStream input = new InflaterInputStream(new ByteArrayInputStream(compressed), new Inflater(true))) {
+            assertEquals("This is the third file", Writable.copyInputStream(input).toUTF8String());
+        }
+    }
 }
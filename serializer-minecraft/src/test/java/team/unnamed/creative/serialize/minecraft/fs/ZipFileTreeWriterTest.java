@@ -45,7 +45,7 @@ class ZipFileTreeWriterTest implements FileTreeWriterTest {
 
     private @TempDir Path tempDir;
 
-    private Path zipPath() {
+    Path zipPath() {
         return tempDir.resolve("test-output.zip");
     }
 
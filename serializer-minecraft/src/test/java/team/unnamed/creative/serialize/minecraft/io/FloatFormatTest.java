@@ -0,0 +1,88 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FloatFormatTest {
+
+    @Test
+    void test_format() {
+        assertFormat("0.0", 0F);
+        assertFormat("-0.0", -0F);
+        assertFormat("1.0", 1F);
+        assertFormat("-16.0", -16F);
+        assertFormat("0.3", 0.3F);
+        assertFormat("0.0625", 0.0625F);
+        assertFormat("22.5", 22.5F);
+        assertFormat("-45.0", -45F);
+        assertFormat("0.001", 0.001F);
+        assertFormat("1.0E-4", 0.0001F);
+        assertFormat("1234567.0", 1234567F);
+        assertFormat("1.0E7", 1E7F);
+        assertFormat("3.4028235E38", Float.MAX_VALUE);
+        assertFormat("1.4E-45", Float.MIN_VALUE);
+
+        // older versions of Float.toString write more digits
+        assertFormat("3.362901E7", 3.3629008E7F);
+        assertFormat("1.2345679E8", 123456789F);
+        assertFormat("1.1754944E-38", Float.MIN_NORMAL);
+    }
+
+    @Test
+    void test_shortest_round_trip() {
+        final byte[] buffer = new byte[FloatFormat.MAX_LENGTH];
+        for (long bits = 0; bits <= 0xFFFFFFFFL; bits += 9973) {
+            final float value = Float.intBitsToFloat((int) bits);
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                continue;
+            }
+            final String formatted = format(buffer, value);
+            assertEquals(value, Float.parseFloat(formatted), formatted);
+            assertTrue(digits(formatted) <= digits(Float.toString(value)), formatted);
+        }
+    }
+
+    private static void assertFormat(final String expected, final float value) {
+        assertEquals(expected, format(new byte[FloatFormat.MAX_LENGTH], value));
+    }
+
+    private static String format(final byte[] buffer, final float value) {
+        final int length = FloatFormat.write(value, buffer, 0);
+        return new String(buffer, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    // the amount of significant digits
+    private static int digits(final String formatted) {
+        final String mantissa = formatted.split("E")[0].replace("-", "").replace(".", "");
+        final String trimmed = mantissa.replaceAll("^0+", "").replaceAll("0+$", "");
+        return Math.max(trimmed.length(), 1);
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.io;
+
+import com.google.gson.internal.Streams;
+import com.google.gson.stream.JsonWriter;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.serialize.minecraft.GsonUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Utf8JsonWriterTest {
+
+    @Test
+    void test_same_output_as_json_writer() throws IOException {
+        assertSameOutput(null, writer -> {
+            writer.beginObject();
+            writer.name("empty_object").beginObject().endObject();
+            writer.name("empty_array").beginArray().endArray();
+            writer.name("nested").beginArray()
+                    .beginObject().name("a").value(1).endObject()
+                    .beginArray().value(true).value(false).nullValue().endArray()
+                    .endArray();
+            writer.name("longs").beginArray()
+                    .value(0L).value(-7L).value(Long.MAX_VALUE).value(Long.MIN_VALUE)
+                    .endArray();
+            writer.name("floats").beginArray()
+                    .value(0.3F).value(-1F).value(1E-10F).value(16F).value(0.0625F)
+                    .endArray();
+            writer.name("doubles").beginArray()
+                    .value(0.1 + 0.2).value(-0D).value(1E300)
+                    .endArray();
+            writer.name("numbers").beginArray()
+                    .value((Number) 5).value((Number) (short) -3).value((Number) 2.5F)
+                    .value(new BigDecimal("1.50")).value((Number) null)
+                    .endArray();
+            writer.name("null").nullValue();
+            writer.name("boxed").value((Boolean) null);
+            writer.name("raw").jsonValue("{\"raw\": [1, 2]}");
+            writer.endObject();
+        });
+    }
+
+    @Test
+    void test_same_escaping_as_json_writer() throws IOException {
+        final StringBuilder ascii = new StringBuilder();
+        for (char c = 0; c < 0x80; c++) {
+            ascii.append(c);
+        }
+        final String[] strings = {
+                ascii.toString(),
+                "minecraft:item/diamond_sword",
+                "\u00f1and\u00fa, \u5bff\u53f8 and \uD83C\uDF63",
+                "separators \u2028 \u2029",
+                "lone surrogates \uD83C, \uDF63 and \uDF63\uD83C"
+        };
+        for (final boolean htmlSafe : new boolean[]{false, true}) {
+            assertSameOutput(null, writer -> {
+                writer.setHtmlSafe(htmlSafe);
+                writer.beginObject();
+                for (final String string : strings) {
+                    writer.name(string).value(string);
+                }
+                writer.endObject();
+            });
+        }
+    }
+
+    @Test
+    void test_same_pretty_printing_as_json_writer() throws IOException {
+        final String json = "{\"parent\":\"item/generated\",\"textures\":{\"layer0\":\"item/stick\"},"
+                + "\"elements\":[{\"from\":[0,0,0],\"to\":[16,16,16],\"faces\":{}}],\"display\":[]}";
+        for (final String indent : new String[]{null, "  ", "\t"}) {
+            assertSameOutput(indent, writer -> Streams.write(GsonUtil.parseString(json), writer));
+        }
+    }
+
+    @Test
+    void test_large_output() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.append("\u00fc\"").append(i);
+        }
+        final String string = builder.toString();
+        assertSameOutput("  ", writer -> {
+            writer.beginArray();
+            for (int i = 0; i < 1000; i++) {
+                writer.value(i).value(string.substring(0, i * 10));
+            }
+            writer.value(string);
+            writer.endArray();
+        });
+    }
+
+    @Test
+    void test_incomplete_document() {
+        assertThrows(IOException.class, () -> {
+            try (JsonWriter writer = new Utf8JsonWriter(new ByteArrayOutputStream())) {
+                writer.beginObject().name("incomplete");
+            }
+        });
+        assertThrows(IllegalStateException.class, () -> {
+            try (JsonWriter writer = new Utf8JsonWriter(new ByteArrayOutputStream())) {
+                writer.beginArray().endObject();
+            }
+        });
+    }
+
+    private static void assertSameOutput(final String indent, final JsonWrite write) throws IOException {
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(expected, StandardCharsets.UTF_8))) {
+            if (indent != null) {
+                writer.setIndent(indent);
+            }
+            write.write(writer);
+        }
+
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (JsonWriter writer = new Utf8JsonWriter(actual, indent)) {
+            write.write(writer);
+        }
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray(), () -> actual.toString());
+    }
+
+    private interface JsonWrite {
+        void write(final JsonWriter writer) throws IOException;
+    }
+
+}
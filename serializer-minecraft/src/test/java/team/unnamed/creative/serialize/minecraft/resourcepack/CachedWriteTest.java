@@ -0,0 +1,127 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.resourcepack;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.model.Element;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.texture.Texture;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CachedWriteTest {
+    @Test
+    void test_cached_rebuilds_match_uncached_builds() {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(18, "This is a cached resource-pack");
+        for (int i = 0; i < 50; i++) {
+            resourcePack.texture(Texture.texture(Key.key("minecraft:test_texture_" + i), Writable.stringUtf8("texture " + i)));
+        }
+
+        MinecraftResourcePackWriter uncached = MinecraftResourcePackWriter.minecraft();
+        MinecraftResourcePackWriter cached = MinecraftResourcePackWriter.builder()
+                .cacheEntries(true)
+                .build();
+
+        assertEquals(uncached.build(resourcePack).hash(), cached.build(resourcePack).hash());
+
+        // changed, added and removed files
+        resourcePack.packMeta(18, "This is a changed resource-pack");
+        resourcePack.unknownFile("credits.txt", Writable.stringUtf8("Unnamed Team"));
+        resourcePack.removeTexture(Key.key("minecraft:test_texture_0"));
+        assertEquals(uncached.build(resourcePack).hash(), cached.build(resourcePack).hash());
+
+        // and back
+        resourcePack.packMeta(18, "This is a cached resource-pack");
+        assertEquals(uncached.build(resourcePack).hash(), cached.build(resourcePack).hash());
+    }
+
+    @Test
+    void test_cached_parallel_rebuilds_match_uncached_builds() throws IOException {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(18, "This is a cached parallel resource-pack");
+        for (int i = 0; i < 100; i++) {
+            resourcePack.texture(Texture.texture(Key.key("minecraft:test_texture_" + i), Writable.stringUtf8("texture " + i)));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MinecraftResourcePackWriter uncached = MinecraftResourcePackWriter.minecraft();
+            MinecraftResourcePackWriter cached = MinecraftResourcePackWriter.builder()
+                    .parallel(pool)
+                    .cacheEntries(true)
+                    .build();
+
+            assertArrayEquals(uncached.build(resourcePack).data().toByteArray(), cached.build(resourcePack).data().toByteArray());
+
+            resourcePack.packMeta(18, "This is a changed resource-pack");
+            resourcePack.unknownFile("credits.txt", Writable.stringUtf8("Unnamed Team"));
+            resourcePack.removeTexture(Key.key("minecraft:test_texture_0"));
+            assertArrayEquals(uncached.build(resourcePack).data().toByteArray(), cached.build(resourcePack).data().toByteArray());
+
+            resourcePack.packMeta(18, "This is a cached parallel resource-pack");
+            assertArrayEquals(uncached.build(resourcePack).data().toByteArray(), cached.build(resourcePack).data().toByteArray());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void test_cached_rebuilds_of_equal_resources_serialized_differently() {
+        // equal models (0.0 == -0.0), but serialized differently
+        Key key = Key.key("minecraft:test_model");
+        Model positive = Model.model()
+                .key(key)
+                .addElement(Element.element().from(new Vector3Float(0F, 0F, 0F)).to(new Vector3Float(16F, 16F, 16F)).build())
+                .build();
+        Model negative = Model.model()
+                .key(key)
+                .addElement(Element.element().from(new Vector3Float(-0F, 0F, 0F)).to(new Vector3Float(16F, 16F, 16F)).build())
+                .build();
+        assertEquals(positive, negative);
+
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(18, "This is a cached resource-pack");
+
+        MinecraftResourcePackWriter uncached = MinecraftResourcePackWriter.minecraft();
+        MinecraftResourcePackWriter cached = MinecraftResourcePackWriter.builder()
+                .cacheEntries(true)
+                .build();
+
+        resourcePack.model(positive);
+        assertEquals(uncached.build(resourcePack).hash(), cached.build(resourcePack).hash());
+
+        resourcePack.model(negative);
+        assertEquals(uncached.build(resourcePack).hash(), cached.build(resourcePack).hash());
+    }
+}
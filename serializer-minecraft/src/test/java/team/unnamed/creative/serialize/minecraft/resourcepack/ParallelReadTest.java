@@ -0,0 +1,92 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.resourcepack;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.metadata.Metadata;
+import team.unnamed.creative.metadata.animation.AnimationMeta;
+import team.unnamed.creative.overlay.Overlay;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackReader;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.texture.Texture;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class ParallelReadTest {
+    @Test
+    void test_parallel_read_matches_sequential_read(final @TempDir Path directory) {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(18, "This is a parallel resource-pack");
+        for (int i = 0; i < 100; i++) {
+            Key key = Key.key("minecraft:test_texture_" + i + ".png");
+            Writable data = Writable.stringUtf8("texture " + i);
+            if (i % 3 == 0) {
+                resourcePack.texture(Texture.texture(key, data, Metadata.metadata()
+                        .addPart(AnimationMeta.animation().frameTime(i + 1).build())
+                        .build()));
+            } else {
+                resourcePack.texture(Texture.texture(key, data));
+            }
+        }
+        Overlay overlay = Overlay.overlay("v20");
+        overlay.texture(Texture.texture(Key.key("minecraft:overlay_texture.png"), Writable.stringUtf8("overlay texture")));
+        overlay.unknownFile("overlay.txt", Writable.stringUtf8("Overlay file"));
+        resourcePack.overlay(overlay);
+        resourcePack.unknownFile("credits.txt", Writable.stringUtf8("Unnamed Team"));
+
+        MinecraftResourcePackWriter writer = MinecraftResourcePackWriter.minecraft();
+        File zipFile = directory.resolve("resource-pack.zip").toFile();
+        File folder = directory.resolve("resource-pack").toFile();
+        writer.writeToZipFile(zipFile, resourcePack);
+        writer.writeToDirectory(folder, resourcePack);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MinecraftResourcePackReader sequential = MinecraftResourcePackReader.minecraft();
+            MinecraftResourcePackReader parallel = MinecraftResourcePackReader.builder()
+                    .parallel(pool)
+                    .build();
+
+            // resource-packs don't implement equals, compare their written files instead
+            assertArrayEquals(
+                    writer.build(sequential.readFromZipFile(zipFile)).data().toByteArray(),
+                    writer.build(parallel.readFromZipFile(zipFile)).data().toByteArray()
+            );
+            assertArrayEquals(
+                    writer.build(sequential.readFromDirectory(folder)).data().toByteArray(),
+                    writer.build(parallel.readFromDirectory(folder)).data().toByteArray()
+            );
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
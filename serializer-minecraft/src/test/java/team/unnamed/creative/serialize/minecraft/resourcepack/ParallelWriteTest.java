@@ -0,0 +1,68 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.resourcepack;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.texture.Texture;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelWriteTest {
+    @Test
+    void test_parallel_pack_matches_sequential_pack() throws IOException {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(18, "This is a parallel resource-pack");
+        for (int i = 0; i < 100; i++) {
+            resourcePack.texture(Texture.texture(Key.key("minecraft:test_texture_" + i), Writable.stringUtf8("texture " + i)));
+        }
+        resourcePack.unknownFile("credits.txt", Writable.stringUtf8("Unnamed Team"));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MinecraftResourcePackWriter sequential = MinecraftResourcePackWriter.minecraft();
+            MinecraftResourcePackWriter parallel = MinecraftResourcePackWriter.builder()
+                    .parallel(pool)
+                    .build();
+
+            BuiltResourcePack expected = sequential.build(resourcePack);
+            BuiltResourcePack built = parallel.build(resourcePack);
+
+            assertArrayEquals(expected.data().toByteArray(), built.data().toByteArray());
+            assertEquals(expected.hash(), built.hash());
+            assertArrayEquals(expected.data().toByteArray(), parallel.writable(resourcePack).toByteArray());
+            assertEquals(expected.hash(), parallel.hash(resourcePack));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.resourcepack;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.texture.Texture;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class StreamingWriteTest {
+    @Test
+    void test_streamed_pack_matches_built_pack() throws IOException {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(18, "This is a streamed resource-pack");
+        resourcePack.texture(Texture.texture(Key.key("minecraft:test_texture"), Writable.stringUtf8("asddasd")));
+        resourcePack.unknownFile("credits.txt", Writable.stringUtf8("Unnamed Team"));
+
+        MinecraftResourcePackWriter writer = MinecraftResourcePackWriter.minecraft();
+        BuiltResourcePack built = writer.build(resourcePack);
+
+        assertArrayEquals(built.data().toByteArray(), writer.writable(resourcePack).toByteArray());
+        assertEquals(built.hash(), writer.hash(resourcePack));
+    }
+
+    @Test
+    void test_pack_built_to_file_matches_built_pack(@TempDir Path directory) throws IOException {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(18, "This is a resource-pack built to a file");
+        resourcePack.unknownFile("credits.txt", Writable.stringUtf8("Unnamed Team"));
+
+        MinecraftResourcePackWriter writer = MinecraftResourcePackWriter.minecraft();
+        BuiltResourcePack built = writer.build(resourcePack);
+
+        // twice, the second build reuses the file of the first one
+        writer.build(resourcePack, directory);
+        BuiltResourcePack builtToFile = writer.build(resourcePack, directory);
+
+        assertEquals(built.hash(), builtToFile.hash());
+        assertEquals(directory.resolve(built.hash() + ".zip"), builtToFile.file());
+        assertArrayEquals(built.data().toByteArray(), builtToFile.data().toByteArray());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void test_pack_built_to_file_survives_rebuilds(@TempDir Path directory) throws IOException {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(18, "This is the first resource-pack");
+
+        MinecraftResourcePackWriter writer = MinecraftResourcePackWriter.minecraft();
+        BuiltResourcePack first = writer.build(resourcePack, directory);
+        byte[] firstData = writer.build(resourcePack).data().toByteArray();
+
+        resourcePack.packMeta(18, "This is the second resource-pack");
+        resourcePack.unknownFile("credits.txt", Writable.stringUtf8("Unnamed Team"));
+        BuiltResourcePack second = writer.build(resourcePack, directory);
+
+        // the first pack still serves its own data
+        assertNotEquals(first.hash(), second.hash());
+        assertNotEquals(first.file(), second.file());
+        assertArrayEquals(firstData, first.data().toByteArray());
+        assertEquals(firstData.length, Files.size(first.file()));
+        assertArrayEquals(writer.build(resourcePack).data().toByteArray(), second.data().toByteArray());
+    }
+}
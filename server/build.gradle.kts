@@ -7,4 +7,11 @@ description = "An standalone resource-pack server for the creative API"
 dependencies {
     api(project(":creative-api"))
     testImplementation(project(":creative-serializer-minecraft"))
-}
\ No newline at end of file
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the resource-pack server load generator over loopback, pass options with --args"
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("team.unnamed.creative.server.load.LoadGenerator")
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The outcome of {@link ResourcePackServer#drain draining} a
+ * resource-pack server, for the downloads that were in progress
+ * when it started.
+ *
+ * @since 1.8.0
+ */
+public final class DrainResult {
+    private final int drained;
+    private final int aborted;
+
+    DrainResult(final int drained, final int aborted) {
+        this.drained = drained;
+        this.aborted = aborted;
+    }
+
+    /**
+     * Returns the amount of downloads that completed before
+     * the deadline.
+     *
+     * @return The drained downloads count
+     * @since 1.8.0
+     */
+    public int drained() {
+        return drained;
+    }
+
+    /**
+     * Returns the amount of downloads that failed, or that were
+     * still in progress at the deadline and were cut off.
+     *
+     * @return The aborted downloads count
+     * @since 1.8.0
+     */
+    public int aborted() {
+        return aborted;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "DrainResult{" +
+                "drained=" + drained +
+                ", aborted=" + aborted +
+                '}';
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final DrainResult that = (DrainResult) o;
+        return drained == that.drained && aborted == that.aborted;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * drained + aborted;
+    }
+}
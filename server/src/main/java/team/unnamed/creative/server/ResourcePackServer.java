@@ -31,13 +31,16 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.server.event.DownloadListener;
 import team.unnamed.creative.server.handler.ResourcePackRequestHandler;
+import team.unnamed.creative.server.metrics.ResourcePackServerMetrics;
 
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static java.util.Objects.requireNonNull;
@@ -78,11 +81,120 @@ public interface ResourcePackServer {
     /**
      * Stops the internal {@link HttpServer}
      *
+     * <p>Downloads in progress are {@link #drain drained} for up
+     * to the given delay.</p>
+     *
      * @param delay the maximum time in seconds to wait until requests have finished
      * @see HttpServer#stop(int)
      * @since 1.0.0
      */
-    void stop(final int delay);
+    default void stop(final int delay) {
+        drain(Math.max(delay, 0), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Gracefully stops the server, new requests are no longer
+     * accepted, and downloads in progress are given until the
+     * timeout to complete, then, the ones still in progress are
+     * aborted and the server is stopped.
+     *
+     * <p>Returns as soon as all the downloads complete, or when
+     * the timeout elapses.</p>
+     *
+     * @param timeout The maximum time to wait for downloads in progress
+     * @param unit    The timeout unit
+     * @return How many downloads were drained and aborted
+     * @since 1.8.0
+     */
+    @NotNull DrainResult drain(final long timeout, final @NotNull TimeUnit unit);
+
+    /**
+     * Returns the amount of requests that are currently being
+     * handled or whose response is still being written, i.e.
+     * downloads in progress, rejected requests are not counted.
+     *
+     * @return The amount of active downloads
+     * @since 1.8.0
+     */
+    int activeDownloads();
+
+    /**
+     * Returns the amount of requests that were accepted but are
+     * waiting for an executor thread to be handled.
+     *
+     * <p>Always zero if the server has no executor, since requests
+     * are handled directly by the dispatcher thread.</p>
+     *
+     * @return The amount of queued requests
+     * @since 1.8.0
+     */
+    int queuedRequests();
+
+    /**
+     * Returns the metrics of this server, updated as requests
+     * are handled.
+     *
+     * @return The server metrics
+     * @since 1.8.0
+     */
+    @NotNull ResourcePackServerMetrics metrics();
+
+    /**
+     * Returns the handler currently serving the requests.
+     *
+     * @return The current request handler
+     * @since 1.8.0
+     */
+    @NotNull ResourcePackRequestHandler handler();
+
+    /**
+     * Atomically replaces the handler serving the requests, without
+     * restarting the server.
+     *
+     * <p>Requests received after this call are served by the new
+     * handler, while downloads in progress finish with the handler
+     * (and pack data) they started with. The server keeps no other
+     * reference to the previous handler, so it can be reclaimed once
+     * its last download completes.</p>
+     *
+     * @param handler The new request handler
+     * @since 1.8.0
+     */
+    void handler(final @NotNull ResourcePackRequestHandler handler);
+
+    /**
+     * Atomically replaces the served resource-pack, without
+     * restarting the server.
+     *
+     * <p>The pack is prepared before being installed, so requests
+     * never wait for it, see {@link #handler(ResourcePackRequestHandler)}
+     * for the behavior of downloads in progress.</p>
+     *
+     * @param pack      The new served resource-pack
+     * @param validOnly Whether to only serve the pack if the
+     *                  request is valid
+     * @throws java.io.UncheckedIOException If the resource-pack data
+     *                                      can't be read
+     * @since 1.8.0
+     */
+    default void pack(final @NotNull BuiltResourcePack pack, final boolean validOnly) {
+        requireNonNull(pack, "pack");
+        handler(ResourcePackRequestHandler.fixed(pack, validOnly));
+    }
+
+    /**
+     * Atomically replaces the served resource-pack, without
+     * restarting the server.
+     *
+     * @param pack The new served resource-pack
+     * @throws java.io.UncheckedIOException If the resource-pack data
+     *                                      can't be read
+     * @see #pack(BuiltResourcePack, boolean)
+     * @since 1.8.0
+     */
+    default void pack(final @NotNull BuiltResourcePack pack) {
+        pack(pack, false);
+    }
 
     /**
      * A builder for {@link ResourcePackServer} instances
@@ -156,6 +268,65 @@ public interface ResourcePackServer {
         @Contract("_ -> this")
         @NotNull Builder executor(final @Nullable Executor executor);
 
+        /**
+         * Sets the server to handle every request in a fixed-size
+         * pool of platform threads with a bounded queue, optional.
+         *
+         * <p>When the queue is full, new requests are answered with 503
+         * (Service Unavailable) without waiting for space, so that the
+         * server keeps accepting and reading the other connections.</p>
+         *
+         * <p>The pool is owned by the server and shut down when
+         * it is stopped.</p>
+         *
+         * @param threads       The amount of threads
+         * @param queueCapacity The maximum amount of requests waiting
+         *                      for a thread
+         * @return This builder
+         * @see ResourcePackServer#queuedRequests()
+         * @since 1.8.0
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder boundedExecutor(final int threads, final int queueCapacity);
+
+        /**
+         * Sets the server to handle every request in a new virtual
+         * thread, optional.
+         *
+         * <p>Virtual threads are only available in Java 21 or newer,
+         * on older runtimes, a {@link #boundedExecutor bounded executor}
+         * with two threads per available processor is used instead.</p>
+         *
+         * <p>The executor is owned by the server and shut down when
+         * it is stopped.</p>
+         *
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("-> this")
+        @NotNull Builder virtualThreadExecutor();
+
+        /**
+         * Sets the server to use a non-blocking transport built on NIO
+         * selectors instead of the JDK {@link com.sun.net.httpserver.HttpServer},
+         * optional.
+         *
+         * <p>A few I/O threads serve all the connections, resource-pack
+         * bodies are written as clients are able to receive them, using
+         * {@link java.nio.channels.FileChannel#transferTo} for file-backed
+         * packs, so slow downloads don't hold a thread each. Handlers still
+         * run in the set {@link #executor executor}, or in the I/O threads
+         * if there is none, so they should not block.</p>
+         *
+         * <p>This transport does not support {@link #secure HTTPS}.</p>
+         *
+         * @param ioThreads The amount of I/O threads
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder nioTransport(final int ioThreads);
+
         /**
          * Sets the server's HTTPS configurator, optional.
          * If not set, the server will default to a HTTP
@@ -277,6 +448,188 @@ public interface ResourcePackServer {
         @Contract("_ -> this")
         @NotNull Builder path(final @NotNull String path);
 
+        /**
+         * Sets the path where the server {@link ResourcePackServer#metrics() metrics}
+         * are served as plain text, optional, not served by default.
+         *
+         * <p>The text uses the Prometheus exposition format, so it can
+         * be scraped directly. It must be different from the
+         * {@link #path base path}, and is matched like it, by prefix.</p>
+         *
+         * @param metricsPath The metrics path, null to not serve them
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder metricsPath(final @Nullable String metricsPath);
+
+        /**
+         * Limits the download requests per remote address, optional.
+         *
+         * <p>Every address gets a bucket of {@code burst} requests,
+         * refilled at {@code permitsPerSecond}, requests exceeding it
+         * are answered with a 429 (Too Many Requests) status and a
+         * Retry-After header, without calling the handler.</p>
+         *
+         * <p>Note that clients behind a proxy share the proxy address.</p>
+         *
+         * @param permitsPerSecond The sustained amount of requests per second
+         * @param burst            The maximum amount of requests at once
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder addressRateLimit(final double permitsPerSecond, final int burst);
+
+        /**
+         * Limits the download requests per player, identified by the
+         * UUID sent by Minecraft clients, optional.
+         *
+         * <p>Works like {@link #addressRateLimit}, requests not made by
+         * Minecraft clients are not limited by this.</p>
+         *
+         * @param permitsPerSecond The sustained amount of requests per second
+         * @param burst            The maximum amount of requests at once
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder uuidRateLimit(final double permitsPerSecond, final int burst);
+
+        /**
+         * Limits the amount of {@link ResourcePackServer#activeDownloads() active downloads},
+         * optional.
+         *
+         * <p>Requests exceeding it are answered with a 503 (Service
+         * Unavailable) status and a Retry-After header, without calling
+         * the handler.</p>
+         *
+         * @param maxActiveDownloads The maximum amount of active downloads
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder maxActiveDownloads(final int maxActiveDownloads);
+
+        /**
+         * Limits the bandwidth used by all the downloads together, optional.
+         *
+         * <p>Concurrent downloads share the bandwidth fairly, and responses
+         * of at most {@code prioritySize} bytes are sent ahead of larger
+         * ones, so that players joining with a small pack don't wait
+         * behind huge downloads.</p>
+         *
+         * @param bytesPerSecond The maximum amount of response body bytes
+         *                       sent per second
+         * @param prioritySize   The maximum size of prioritized responses,
+         *                       in bytes, zero to not prioritize any
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder bandwidthLimit(final long bytesPerSecond, final long prioritySize);
+
+        /**
+         * Limits the bandwidth used by all the downloads together, optional.
+         *
+         * <p>Concurrent downloads share the bandwidth fairly.</p>
+         *
+         * @param bytesPerSecond The maximum amount of response body bytes
+         *                       sent per second
+         * @return This builder
+         * @see #bandwidthLimit(long, long)
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        default @NotNull Builder bandwidthLimit(final long bytesPerSecond) {
+            return bandwidthLimit(bytesPerSecond, 0L);
+        }
+
+        /**
+         * Sets the maximum time a client may take to send a request
+         * head, optional, unlimited by default.
+         *
+         * <p>Connections exceeding it are closed and counted in
+         * {@link ResourcePackServerMetrics#evictedConnections()}, it also
+         * limits how long idle keep-alive connections are kept.</p>
+         *
+         * <p>Only enforced by the {@link #nioTransport NIO transport},
+         * the JDK HTTP server reads request heads by itself, see its
+         * {@code sun.net.httpserver.maxReqTime} system property.</p>
+         *
+         * @param timeout The maximum time, zero to not limit it
+         * @param unit    The time unit
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder headerReadTimeout(final long timeout, final @NotNull TimeUnit unit);
+
+        /**
+         * Sets the maximum time a client may go without receiving any
+         * response byte, optional, unlimited by default.
+         *
+         * <p>Only time spent waiting for the client counts, not the time
+         * waiting for the handler or the {@link #bandwidthLimit bandwidth limit}.
+         * Connections exceeding it are closed, which releases the worker
+         * writing the response, and are counted in
+         * {@link ResourcePackServerMetrics#evictedConnections()}.</p>
+         *
+         * @param timeout The maximum time, zero to not limit it
+         * @param unit    The time unit
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder writeIdleTimeout(final long timeout, final @NotNull TimeUnit unit);
+
+        /**
+         * Sets the minimum throughput a client must receive responses at,
+         * optional, unlimited by default.
+         *
+         * <p>The throughput is measured over consecutive windows of the
+         * given duration, counting only the time spent waiting for the
+         * client, like {@link #writeIdleTimeout}. Connections below it
+         * are closed and counted in {@link ResourcePackServerMetrics#evictedConnections()}.</p>
+         *
+         * @param bytesPerSecond The minimum amount of response body bytes
+         *                       received per second, zero to not limit it
+         * @param window         The measurement window
+         * @param unit           The window time unit
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_, _, _ -> this")
+        @NotNull Builder minThroughput(final long bytesPerSecond, final long window, final @NotNull TimeUnit unit);
+
+        /**
+         * Adds a listener for the download lifecycle events, optional.
+         *
+         * <p>Events are delivered asynchronously by a single thread, so
+         * listeners never delay transfers, see {@link DownloadListener}.</p>
+         *
+         * @param listener The download listener
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder downloadListener(final @NotNull DownloadListener listener);
+
+        /**
+         * Sets the capacity of the download events queue, optional,
+         * defaults to 1024.
+         *
+         * <p>Events are dropped when the queue is full, which happens
+         * when listeners are slower than the downloads.</p>
+         *
+         * @param capacity The maximum amount of pending events
+         * @return This builder
+         * @see ResourcePackServerMetrics#droppedEvents()
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder eventQueueCapacity(final int capacity);
+
         /**
          * Builds the {@link ResourcePackServer} instance.
          *
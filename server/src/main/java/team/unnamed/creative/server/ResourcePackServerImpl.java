@@ -24,8 +24,26 @@
 package team.unnamed.creative.server;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -37,49 +55,251 @@ import com.sun.net.httpserver.HttpsConfigurator;
 import com.sun.net.httpserver.HttpsServer;
 
 import static java.util.Objects.requireNonNull;
+import team.unnamed.creative.server.event.Download;
+import team.unnamed.creative.server.event.DownloadListener;
 import team.unnamed.creative.server.handler.ResourcePackRequestHandler;
+import team.unnamed.creative.server.metrics.MetricsRecorder;
+import team.unnamed.creative.server.metrics.ResourcePackServerMetrics;
 import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+import team.unnamed.creative.server.transport.ExchangeObserver;
+import team.unnamed.creative.server.transport.ServerTransport;
+import team.unnamed.creative.server.util.BandwidthLimiter;
+import team.unnamed.creative.server.util.EventDispatcher;
+import team.unnamed.creative.server.util.RequestExecutors;
 import team.unnamed.creative.server.util.ResourcePackDownloadRequestParser;
+import team.unnamed.creative.server.util.SlowClientPolicy;
+import team.unnamed.creative.server.util.TokenBucketLimiter;
 
 final class ResourcePackServerImpl implements ResourcePackServer {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long OVERLOADED_RETRY_NANOS = TimeUnit.SECONDS.toNanos(ServerTransport.OVERLOADED_RETRY_AFTER_SECONDS);
+    private static final long DRAIN_POLL_MILLIS = 10L;
 
-    private final HttpServer server;
-    private final ResourcePackRequestHandler handler;
+    private final ServerTransport transport;
+    private volatile ResourcePackRequestHandler handler;
+    private final @Nullable ExecutorService ownedExecutor;
+
+    private final MetricsRecorder metrics = new MetricsRecorder();
+    private final AtomicInteger queuedRequests = new AtomicInteger();
+    // started downloads, rejected requests are never counted
+    private final AtomicInteger activeDownloads = new AtomicInteger();
+    private final Set<TrackedDownload> inFlightDownloads = ConcurrentHashMap.newKeySet();
+    // downloads created by the exchange observer, taken by the handler
+    // right after, in the same thread
+    private final Map<HttpExchange, TrackedDownload> pendingDownloads = new ConcurrentHashMap<>();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private volatile boolean draining;
+
+    private final @Nullable TokenBucketLimiter<InetAddress> addressLimiter;
+    private final @Nullable TokenBucketLimiter<UUID> uuidLimiter;
+    private final int maxActiveDownloads;
+
+    private final @NotNull List<DownloadListener> downloadListeners;
+    private final @Nullable EventDispatcher eventDispatcher;
 
     ResourcePackServerImpl(
-            final @NotNull HttpServer server,
+            final @NotNull TransportFactory transportFactory,
             final @NotNull String path,
-            final @NotNull ResourcePackRequestHandler handler
-    ) {
-        this.server = requireNonNull(server, "server");
+            final @Nullable String metricsPath,
+            final @NotNull ResourcePackRequestHandler handler,
+            final @Nullable Executor executor,
+            final @Nullable ExecutorService ownedExecutor,
+            final @Nullable TokenBucketLimiter<InetAddress> addressLimiter,
+            final @Nullable TokenBucketLimiter<UUID> uuidLimiter,
+            final int maxActiveDownloads,
+            final @NotNull List<DownloadListener> downloadListeners,
+            final int eventQueueCapacity,
+            final @Nullable Function<Runnable, SlowClientPolicy> slowClientPolicyFactory
+    ) throws IOException {
+        requireNonNull(transportFactory, "transportFactory");
+        requireNonNull(path, "path");
         this.handler = requireNonNull(handler, "handler");
-        this.server.createContext(requireNonNull(path, "path"), this::handleRequest);
+        this.ownedExecutor = ownedExecutor;
+        this.addressLimiter = addressLimiter;
+        this.uuidLimiter = uuidLimiter;
+        this.maxActiveDownloads = maxActiveDownloads;
+        this.downloadListeners = requireNonNull(downloadListeners, "downloadListeners");
+        this.eventDispatcher = downloadListeners.isEmpty()
+                ? null
+                : new EventDispatcher("Resource-pack server events", eventQueueCapacity);
+        this.transport = transportFactory.create(
+                countQueued(executor),
+                slowClientPolicyFactory == null ? null : slowClientPolicyFactory.apply(metrics::connectionEvicted)
+        );
+        this.transport.context(path, this::handleRequest, exchange -> {
+            final TrackedDownload download = new TrackedDownload(exchange);
+            pendingDownloads.put(exchange, download);
+            return download;
+        });
+        if (metricsPath != null) {
+            this.transport.context(metricsPath, this::handleMetrics, null);
+        }
+    }
+
+    private @Nullable Executor countQueued(final @Nullable Executor executor) {
+        if (executor == null) {
+            return null;
+        }
+        return command -> {
+            queuedRequests.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    queuedRequests.decrementAndGet();
+                    command.run();
+                });
+            } catch (final RejectedExecutionException e) {
+                queuedRequests.decrementAndGet();
+                throw e;
+            }
+        };
     }
 
     @Override
     public @NotNull InetSocketAddress address() {
-        return server.getAddress();
+        return transport.address();
     }
 
     @Override
     public void start() {
-        server.start();
+        if (eventDispatcher != null) {
+            eventDispatcher.start();
+        }
+        transport.start();
     }
 
     @Override
-    public void stop(final int delay) {
-        server.stop(delay);
+    public @NotNull DrainResult drain(final long timeout, final @NotNull TimeUnit unit) {
+        requireNonNull(unit, "unit");
+        if (!stopped.compareAndSet(false, true)) {
+            return new DrainResult(0, 0);
+        }
+        draining = true;
+        transport.stopAccepting();
+
+        // only the downloads in progress now, new requests are rejected
+        final List<TrackedDownload> downloads = new ArrayList<>(inFlightDownloads);
+        final long deadline = System.nanoTime() + unit.toNanos(Math.max(timeout, 0L));
+        while (!completed(downloads) && System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(DRAIN_POLL_MILLIS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        int drained = 0;
+        int aborted = 0;
+        for (final TrackedDownload download : downloads) {
+            if (download.rejected) {
+                // joined the snapshot, but then rejected by this drain
+                continue;
+            }
+            if (download.completed && !download.failed) {
+                drained++;
+            } else {
+                aborted++;
+            }
+        }
+
+        transport.stop(0);
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        if (eventDispatcher != null) {
+            // queued events are still delivered
+            eventDispatcher.shutdown();
+        }
+        return new DrainResult(drained, aborted);
+    }
+
+    private static boolean completed(final @NotNull List<TrackedDownload> downloads) {
+        for (final TrackedDownload download : downloads) {
+            if (!download.completed && !download.rejected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int activeDownloads() {
+        return activeDownloads.get();
+    }
+
+    @Override
+    public int queuedRequests() {
+        return queuedRequests.get();
+    }
+
+    @Override
+    public @NotNull ResourcePackServerMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public @NotNull ResourcePackRequestHandler handler() {
+        return handler;
+    }
+
+    @Override
+    public void handler(final @NotNull ResourcePackRequestHandler handler) {
+        this.handler = requireNonNull(handler, "handler");
     }
 
     private void handleRequest(final @NotNull HttpExchange exchange) throws IOException {
-        if (!"GET".equals(exchange.getRequestMethod())) {
+        final TrackedDownload download = pendingDownloads.remove(exchange);
+        final String method = exchange.getRequestMethod();
+        final boolean head = "HEAD".equals(method);
+        if (!head && !"GET".equals(method)) {
+            exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+            exchange.sendResponseHeaders(405, -1);
             exchange.close();
             return;
         }
 
+        if (draining) {
+            exchange.getResponseHeaders().set("Connection", "close");
+            reject(exchange, 503, OVERLOADED_RETRY_NANOS);
+            return;
+        }
+
+        if (head) {
+            // HttpExchange doesn't accept a body for HEAD requests, so
+            // handlers writing one would fail, just discard it instead
+            exchange.setStreams(null, new HeadResponseBody(exchange.getResponseBody()));
+        }
+
+        if (addressLimiter != null) {
+            final long wait = addressLimiter.tryAcquire(exchange.getRemoteAddress().getAddress());
+            if (wait > 0) {
+                reject(exchange, 429, wait);
+                return;
+            }
+        }
+
         final Headers headers = exchange.getRequestHeaders();
         final ResourcePackDownloadRequest request = ResourcePackDownloadRequestParser.parse(headers);
 
+        if (request != null && uuidLimiter != null) {
+            final long wait = uuidLimiter.tryAcquire(request.uuid());
+            if (wait > 0) {
+                reject(exchange, 429, wait);
+                return;
+            }
+        }
+        if (download != null && !download.started(request)) {
+            if (draining) {
+                exchange.getResponseHeaders().set("Connection", "close");
+            }
+            reject(exchange, 503, OVERLOADED_RETRY_NANOS);
+            return;
+        }
+        metrics.request(request != null);
+
+        // read once, a swap during this download must not affect it, and
+        // the previous handler is only kept alive by the downloads using it
+        final ResourcePackRequestHandler handler = this.handler;
         try {
             handler.onRequest(request, exchange);
         } finally {
@@ -87,13 +307,219 @@ final class ResourcePackServerImpl implements ResourcePackServer {
         }
     }
 
+    private void reject(final @NotNull HttpExchange exchange, final int status, final long retryAfterNanos) throws IOException {
+        metrics.rejected();
+        final long retryAfterSeconds = Math.max(1L, (retryAfterNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        exchange.getResponseHeaders().set("Retry-After", Long.toString(retryAfterSeconds));
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private void fire(final @NotNull Consumer<DownloadListener> event) {
+        final EventDispatcher eventDispatcher = this.eventDispatcher;
+        if (eventDispatcher == null) {
+            return;
+        }
+        final boolean queued = eventDispatcher.dispatch(() -> {
+            for (final DownloadListener listener : downloadListeners) {
+                try {
+                    event.accept(listener);
+                } catch (final Throwable e) {
+                    System.err.println("Exception caught when calling a download listener");
+                    e.printStackTrace();
+                }
+            }
+        });
+        if (!queued) {
+            metrics.eventDropped();
+        }
+    }
+
+    private void handleMetrics(final @NotNull HttpExchange exchange) throws IOException {
+        final byte[] data = metrics.toText().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Content-Length", Integer.toString(data.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, data.length);
+        try (final OutputStream responseStream = exchange.getResponseBody()) {
+            responseStream.write(data);
+        }
+    }
+
+    /**
+     * Records the metrics and fires the events of a single download,
+     * from the start of its handling until its response is completely
+     * written
+     */
+    private final class TrackedDownload implements ExchangeObserver.Listener, Download {
+        private final long start = System.nanoTime();
+        private final InetSocketAddress remoteAddress;
+        private final String path;
+        private @Nullable ResourcePackDownloadRequest request;
+        private final AtomicLong bytes = new AtomicLong();
+        private volatile boolean started;
+        private volatile boolean firstByteWritten;
+        private volatile boolean failed;
+        private volatile boolean completed;
+        // rejected after joining the in-flight downloads, since draining
+        private volatile boolean rejected;
+
+        TrackedDownload(final @NotNull HttpExchange exchange) {
+            this.remoteAddress = exchange.getRemoteAddress();
+            this.path = exchange.getRequestURI().getPath();
+        }
+
+        /**
+         * Marks this exchange as a download, called before passing it
+         * to the handler, rejected requests are not downloads, so they
+         * are neither measured nor counted as active
+         *
+         * @return False if the download must be rejected, because there
+         * are too many active downloads or the server is draining
+         */
+        boolean started(final @Nullable ResourcePackDownloadRequest request) {
+            // counted before checking, so concurrent downloads can't exceed the limit
+            final int active = activeDownloads.incrementAndGet();
+            if (maxActiveDownloads > 0 && active > maxActiveDownloads) {
+                activeDownloads.decrementAndGet();
+                return false;
+            }
+            inFlightDownloads.add(this);
+            if (draining) {
+                // may be in the snapshot of the drain, which skips it
+                rejected = true;
+                inFlightDownloads.remove(this);
+                activeDownloads.decrementAndGet();
+                return false;
+            }
+            metrics.downloadStarted();
+            this.request = request;
+            this.started = true;
+            fire(listener -> listener.onStarted(this));
+            return true;
+        }
+
+        @Override
+        public @Nullable ResourcePackDownloadRequest request() {
+            return request;
+        }
+
+        @Override
+        public @NotNull InetSocketAddress remoteAddress() {
+            return remoteAddress;
+        }
+
+        @Override
+        public @NotNull String path() {
+            return path;
+        }
+
+        @Override
+        public void onBodyWritten(final long bytes) {
+            metrics.bytesSent(bytes);
+            this.bytes.addAndGet(bytes);
+            if (started && !firstByteWritten) {
+                firstByteWritten = true;
+                metrics.firstByte(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void onCompleted(final @Nullable Throwable failure) {
+            failed = failure != null;
+            completed = true;
+            if (!started) {
+                return;
+            }
+
+            final long elapsed = System.nanoTime() - start;
+            if (!firstByteWritten) {
+                firstByteWritten = true;
+                metrics.firstByte(elapsed);
+            }
+            metrics.downloadCompleted(elapsed, failure != null);
+            inFlightDownloads.remove(this);
+            activeDownloads.decrementAndGet();
+
+            final long sent = bytes.get();
+            if (failure == null) {
+                fire(listener -> listener.onCompleted(this, sent, elapsed));
+            } else {
+                fire(listener -> listener.onAborted(this, sent, failure));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Download{remoteAddress=" + remoteAddress + ", path='" + path + "', request=" + request + '}';
+        }
+    }
+
+    /**
+     * Response body for HEAD requests, discards everything written
+     * by handlers, but still closes the original body stream, since
+     * that is what completes the exchange in newer HttpServer versions
+     */
+    private static final class HeadResponseBody extends OutputStream {
+        private final OutputStream original;
+        private boolean closed;
+
+        HeadResponseBody(final @NotNull OutputStream original) {
+            this.original = original;
+        }
+
+        @Override
+        public void write(final int b) {
+        }
+
+        @Override
+        public void write(final byte @NotNull [] b, final int off, final int len) {
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                original.close();
+            } catch (final IOException ignored) {
+                // older HttpServer versions complete HEAD exchanges when
+                // headers are sent and never open the original stream
+            }
+        }
+    }
+
     static final class BuilderImpl implements Builder {
+        private static final int FALLBACK_QUEUE_CAPACITY = 1024;
+        private static final int DEFAULT_EVENT_QUEUE_CAPACITY = 1024;
+
         private InetSocketAddress address;
         private Executor executor;
+        private Supplier<ExecutorService> ownedExecutorFactory;
         private int backlog;
         private ResourcePackRequestHandler handler;
         private String path = "/";
+        private String metricsPath;
+        private Supplier<TokenBucketLimiter<InetAddress>> addressLimiterFactory;
+        private Supplier<TokenBucketLimiter<UUID>> uuidLimiterFactory;
+        private int maxActiveDownloads;
+        private final List<DownloadListener> downloadListeners = new ArrayList<>();
+        private int eventQueueCapacity = DEFAULT_EVENT_QUEUE_CAPACITY;
+        private Supplier<BandwidthLimiter> bandwidthLimiterFactory;
+        private long headerReadTimeout;
+        private long writeIdleTimeout;
+        private long minBytesPerSecond;
+        private long throughputWindow;
         private HttpServerFactory serverFactory = HttpServer::create;
+        private boolean secure;
+        private int ioThreads;
 
         @Override
         public @NotNull Builder address(final @NotNull InetSocketAddress address) {
@@ -104,6 +530,34 @@ final class ResourcePackServerImpl implements ResourcePackServer {
         @Override
         public @NotNull Builder executor(final @Nullable Executor executor) {
             this.executor = executor;
+            this.ownedExecutorFactory = null;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder boundedExecutor(final int threads, final int queueCapacity) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("Thread count must be positive, got " + threads);
+            }
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("Queue capacity must be positive, got " + queueCapacity);
+            }
+            this.executor = null;
+            this.ownedExecutorFactory = () -> RequestExecutors.bounded(threads, queueCapacity);
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder virtualThreadExecutor() {
+            this.executor = null;
+            this.ownedExecutorFactory = () -> {
+                final ExecutorService virtual = RequestExecutors.virtualThreadPerTask();
+                if (virtual != null) {
+                    return virtual;
+                }
+                final int threads = Runtime.getRuntime().availableProcessors() * 2;
+                return RequestExecutors.bounded(threads, FALLBACK_QUEUE_CAPACITY);
+            };
             return this;
         }
 
@@ -115,6 +569,16 @@ final class ResourcePackServerImpl implements ResourcePackServer {
                 server.setHttpsConfigurator(httpsConfigurator);
                 return server;
             };
+            this.secure = true;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder nioTransport(final int ioThreads) {
+            if (ioThreads <= 0) {
+                throw new IllegalArgumentException("I/O thread count must be positive, got " + ioThreads);
+            }
+            this.ioThreads = ioThreads;
             return this;
         }
 
@@ -136,11 +600,164 @@ final class ResourcePackServerImpl implements ResourcePackServer {
             return this;
         }
 
+        @Override
+        public @NotNull Builder metricsPath(final @Nullable String metricsPath) {
+            this.metricsPath = metricsPath;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder addressRateLimit(final double permitsPerSecond, final int burst) {
+            checkRateLimit(permitsPerSecond, burst);
+            this.addressLimiterFactory = () -> new TokenBucketLimiter<>(permitsPerSecond, burst);
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder uuidRateLimit(final double permitsPerSecond, final int burst) {
+            checkRateLimit(permitsPerSecond, burst);
+            this.uuidLimiterFactory = () -> new TokenBucketLimiter<>(permitsPerSecond, burst);
+            return this;
+        }
+
+        private static void checkRateLimit(final double permitsPerSecond, final int burst) {
+            if (!(permitsPerSecond > 0) || Double.isInfinite(permitsPerSecond)) {
+                throw new IllegalArgumentException("Permits per second must be positive and finite, got " + permitsPerSecond);
+            }
+            if (burst <= 0) {
+                throw new IllegalArgumentException("Burst must be positive, got " + burst);
+            }
+        }
+
+        @Override
+        public @NotNull Builder maxActiveDownloads(final int maxActiveDownloads) {
+            if (maxActiveDownloads <= 0) {
+                throw new IllegalArgumentException("Maximum active downloads must be positive, got " + maxActiveDownloads);
+            }
+            this.maxActiveDownloads = maxActiveDownloads;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder bandwidthLimit(final long bytesPerSecond, final long prioritySize) {
+            if (bytesPerSecond <= 0) {
+                throw new IllegalArgumentException("Bytes per second must be positive, got " + bytesPerSecond);
+            }
+            if (prioritySize < 0) {
+                throw new IllegalArgumentException("Priority size can't be negative, got " + prioritySize);
+            }
+            this.bandwidthLimiterFactory = () -> new BandwidthLimiter(bytesPerSecond, prioritySize);
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder headerReadTimeout(final long timeout, final @NotNull TimeUnit unit) {
+            requireNonNull(unit, "unit");
+            if (timeout < 0) {
+                throw new IllegalArgumentException("Header read timeout can't be negative, got " + timeout);
+            }
+            this.headerReadTimeout = unit.toNanos(timeout);
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder writeIdleTimeout(final long timeout, final @NotNull TimeUnit unit) {
+            requireNonNull(unit, "unit");
+            if (timeout < 0) {
+                throw new IllegalArgumentException("Write idle timeout can't be negative, got " + timeout);
+            }
+            this.writeIdleTimeout = unit.toNanos(timeout);
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder minThroughput(final long bytesPerSecond, final long window, final @NotNull TimeUnit unit) {
+            requireNonNull(unit, "unit");
+            if (bytesPerSecond < 0) {
+                throw new IllegalArgumentException("Minimum bytes per second can't be negative, got " + bytesPerSecond);
+            }
+            if (window <= 0) {
+                throw new IllegalArgumentException("Throughput window must be positive, got " + window);
+            }
+            this.minBytesPerSecond = bytesPerSecond;
+            this.throughputWindow = unit.toNanos(window);
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder downloadListener(final @NotNull DownloadListener listener) {
+            downloadListeners.add(requireNonNull(listener, "listener"));
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder eventQueueCapacity(final int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Event queue capacity must be positive, got " + capacity);
+            }
+            this.eventQueueCapacity = capacity;
+            return this;
+        }
+
         @Override
         public @NotNull ResourcePackServer build() throws IOException {
-            final HttpServer server = serverFactory.create(address, backlog);
-            server.setExecutor(executor);
-            return new ResourcePackServerImpl(server, path, handler);
+            if (path.equals(metricsPath)) {
+                throw new IllegalStateException("Metrics path must be different from the base path " + path);
+            }
+
+            final BandwidthLimiter bandwidthLimiter = bandwidthLimiterFactory == null ? null : bandwidthLimiterFactory.get();
+            final TransportFactory transportFactory;
+            if (ioThreads > 0) {
+                if (secure) {
+                    throw new IllegalStateException("HTTPS is not supported by the NIO transport");
+                }
+                requireNonNull(address, "address");
+                final int ioThreads = this.ioThreads;
+                transportFactory = (executor, slowClientPolicy) -> ServerTransport.nio(address, backlog, executor, ioThreads, bandwidthLimiter, slowClientPolicy);
+            } else {
+                final HttpServer server = serverFactory.create(address, backlog);
+                transportFactory = (executor, slowClientPolicy) -> ServerTransport.httpServer(server, executor, bandwidthLimiter, slowClientPolicy);
+            }
+
+            final Function<Runnable, SlowClientPolicy> slowClientPolicyFactory;
+            if (headerReadTimeout > 0 || writeIdleTimeout > 0 || minBytesPerSecond > 0) {
+                final long headerReadTimeout = this.headerReadTimeout;
+                final long writeIdleTimeout = this.writeIdleTimeout;
+                final long minBytesPerSecond = this.minBytesPerSecond;
+                final long throughputWindow = this.throughputWindow;
+                slowClientPolicyFactory = evictionListener -> new SlowClientPolicy(
+                        headerReadTimeout,
+                        writeIdleTimeout,
+                        minBytesPerSecond,
+                        throughputWindow,
+                        evictionListener
+                );
+            } else {
+                slowClientPolicyFactory = null;
+            }
+
+            final ExecutorService ownedExecutor = ownedExecutorFactory == null ? null : ownedExecutorFactory.get();
+            try {
+                return new ResourcePackServerImpl(
+                        transportFactory,
+                        path,
+                        metricsPath,
+                        handler,
+                        ownedExecutor == null ? executor : ownedExecutor,
+                        ownedExecutor,
+                        addressLimiterFactory == null ? null : addressLimiterFactory.get(),
+                        uuidLimiterFactory == null ? null : uuidLimiterFactory.get(),
+                        maxActiveDownloads,
+                        new ArrayList<>(downloadListeners),
+                        eventQueueCapacity,
+                        slowClientPolicyFactory
+                );
+            } catch (final IOException | RuntimeException e) {
+                if (ownedExecutor != null) {
+                    ownedExecutor.shutdown();
+                }
+                throw e;
+            }
         }
     }
 
@@ -149,4 +766,10 @@ final class ResourcePackServerImpl implements ResourcePackServer {
         HttpServer create(InetSocketAddress address, int backlog) throws IOException;
 
     }
+
+    interface TransportFactory {
+
+        ServerTransport create(@Nullable Executor executor, @Nullable SlowClientPolicy slowClientPolicy) throws IOException;
+
+    }
 }
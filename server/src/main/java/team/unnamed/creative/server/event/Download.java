@@ -0,0 +1,66 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.event;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+
+import java.net.InetSocketAddress;
+
+/**
+ * A resource-pack download handled by the server, given to
+ * {@link DownloadListener}s.
+ *
+ * @since 1.8.0
+ */
+@ApiStatus.NonExtendable
+public interface Download {
+    /**
+     * Returns the download request, which identifies the player.
+     *
+     * @return The download request, null if the request was not
+     * made by a Minecraft client
+     * @since 1.8.0
+     */
+    @Nullable ResourcePackDownloadRequest request();
+
+    /**
+     * Returns the address of the client.
+     *
+     * @return The client address
+     * @since 1.8.0
+     */
+    @NotNull InetSocketAddress remoteAddress();
+
+    /**
+     * Returns the requested path, including the server
+     * base path.
+     *
+     * @return The requested path
+     * @since 1.8.0
+     */
+    @NotNull String path();
+}
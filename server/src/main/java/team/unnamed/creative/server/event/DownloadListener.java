@@ -0,0 +1,79 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.event;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listens to the lifecycle of the resource-pack downloads of a
+ * server, so that, for example, gameplay can be delayed until a
+ * player has the pack, or a failed download can be retried.
+ *
+ * <p>Events are delivered asynchronously, in order, by a single
+ * thread, through a bounded queue. Listeners never delay transfers,
+ * but if they are too slow and the queue fills up, new events are
+ * dropped, see {@link team.unnamed.creative.server.metrics.ResourcePackServerMetrics#droppedEvents()}.</p>
+ *
+ * <p>Requests rejected by the server (rate limits, overload) are not
+ * downloads, so they produce no events.</p>
+ *
+ * @since 1.8.0
+ */
+public interface DownloadListener {
+    /**
+     * Called when the server starts handling a download.
+     *
+     * @param download The download
+     * @since 1.8.0
+     */
+    default void onStarted(final @NotNull Download download) {
+    }
+
+    /**
+     * Called when the response of a download is completely written.
+     *
+     * <p>Note that completed responses may still be errors, like 404
+     * (Not Found) responses, and that a completely written response
+     * may not have been received by the client yet.</p>
+     *
+     * @param download      The download
+     * @param bytes         The amount of response body bytes sent
+     * @param durationNanos The download duration, in nanoseconds
+     * @since 1.8.0
+     */
+    default void onCompleted(final @NotNull Download download, final long bytes, final long durationNanos) {
+    }
+
+    /**
+     * Called when a download fails before its response is completely
+     * written, usually because the client disconnected.
+     *
+     * @param download The download
+     * @param bytes    The amount of response body bytes sent
+     * @param cause    The failure cause
+     * @since 1.8.0
+     */
+    default void onAborted(final @NotNull Download download, final long bytes, final @NotNull Throwable cause) {
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+
+import java.util.function.Function;
+
+/**
+ * A {@link ResourcePackRequestHandler} that generates resource-packs
+ * on demand, from a content key computed for every request, and keeps
+ * the most recently used ones in memory.
+ *
+ * <p>Requests with the same key share the same resource-pack, which
+ * is generated only once even if many of them arrive at the same
+ * time, the first request generates it and the others wait for it.</p>
+ *
+ * <p>Generation runs in the thread handling the request, so servers
+ * using this handler should set an executor.</p>
+ *
+ * @param <K> The content key type, must implement equals and hashCode
+ * @since 1.8.0
+ */
+@ApiStatus.NonExtendable
+public interface CachingResourcePackRequestHandler<K> extends ResourcePackRequestHandler {
+    /**
+     * Creates a new builder for {@link CachingResourcePackRequestHandler}
+     * instances.
+     *
+     * @param keyFunction The function computing the content key of a request,
+     *                    must never return null
+     * @param generator   The function generating the resource-pack for a key
+     * @param <K>         The content key type
+     * @return The new builder
+     * @since 1.8.0
+     */
+    @Contract("_, _ -> new")
+    static <K> @NotNull Builder<K> builder(
+            final @NotNull Function<@NotNull ResourcePackDownloadRequest, @NotNull K> keyFunction,
+            final @NotNull Function<@NotNull K, @NotNull BuiltResourcePack> generator
+    ) {
+        return new CachingResourcePackRequestHandlerImpl.BuilderImpl<>(keyFunction, generator);
+    }
+
+    /**
+     * Returns the resource-pack for the given key, generating it if
+     * it is not cached, useful to know the hash to send to a player
+     * when prompting the download.
+     *
+     * @param key The content key
+     * @return The resource-pack
+     * @throws java.io.UncheckedIOException If the generated resource-pack
+     *                                      data can't be read
+     * @since 1.8.0
+     */
+    @NotNull BuiltResourcePack get(final @NotNull K key);
+
+    /**
+     * Removes the resource-pack for the given key from the cache,
+     * downloads in progress are not affected.
+     *
+     * <p>A generation in progress for the key is not cached when it
+     * finishes, since it may be stale, so the next request for the
+     * key generates the resource-pack again.</p>
+     *
+     * @param key The content key
+     * @since 1.8.0
+     */
+    void invalidate(final @NotNull K key);
+
+    /**
+     * Removes all the resource-packs from the cache, downloads in
+     * progress are not affected, neither are generations in progress
+     * cached.
+     *
+     * @since 1.8.0
+     */
+    void invalidateAll();
+
+    /**
+     * Returns the amount of cached resource-packs.
+     *
+     * @return The amount of cached resource-packs
+     * @since 1.8.0
+     */
+    int cachedPacks();
+
+    /**
+     * Returns the total size, in bytes, of the cached resource-packs.
+     *
+     * @return The size of the cached resource-packs
+     * @since 1.8.0
+     */
+    long cachedBytes();
+
+    /**
+     * Mutable builder for {@link CachingResourcePackRequestHandler}.
+     *
+     * @param <K> The content key type
+     * @since 1.8.0
+     */
+    interface Builder<K> {
+        /**
+         * Sets the maximum total size, in bytes, of the cached
+         * resource-packs, optional, defaults to 256 MiB.
+         *
+         * <p>The least recently used resource-packs are evicted
+         * when it is exceeded, resource-packs bigger than this
+         * size are never cached.</p>
+         *
+         * @param maxCacheBytes The maximum size of the cache
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder<K> maxCacheBytes(final long maxCacheBytes);
+
+        /**
+         * Sets the content key used for requests not made by Minecraft
+         * clients, optional.
+         *
+         * <p>If not set, these requests are answered with a 400 (Bad
+         * Request) status.</p>
+         *
+         * @param key The content key for non-Minecraft requests
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder<K> fallbackKey(final @Nullable K key);
+
+        /**
+         * Builds the handler.
+         *
+         * @return The built handler
+         * @since 1.8.0
+         */
+        @Contract("-> new")
+        @NotNull CachingResourcePackRequestHandler<K> build();
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+import team.unnamed.creative.server.response.ResourcePackResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+final class CachingResourcePackRequestHandlerImpl<K> implements CachingResourcePackRequestHandler<K> {
+    private static final long DEFAULT_MAX_CACHE_BYTES = 256L * 1024 * 1024;
+
+    private final Function<ResourcePackDownloadRequest, K> keyFunction;
+    private final Function<K, BuiltResourcePack> generator;
+    private final long maxCacheBytes;
+    private final @Nullable K fallbackKey;
+
+    // access-ordered, guarded by itself
+    private final LinkedHashMap<K, ResourcePackResponse> cache = new LinkedHashMap<>(16, 0.75F, true);
+    private long cachedBytes;
+
+    // generations in progress, joined by concurrent requests for the same key,
+    // removed (with the cache lock held) when their key is invalidated
+    private final Map<K, CompletableFuture<ResourcePackResponse>> generating = new ConcurrentHashMap<>();
+
+    private CachingResourcePackRequestHandlerImpl(
+            final @NotNull Function<ResourcePackDownloadRequest, K> keyFunction,
+            final @NotNull Function<K, BuiltResourcePack> generator,
+            final long maxCacheBytes,
+            final @Nullable K fallbackKey
+    ) {
+        this.keyFunction = keyFunction;
+        this.generator = generator;
+        this.maxCacheBytes = maxCacheBytes;
+        this.fallbackKey = fallbackKey;
+    }
+
+    @Override
+    public void onRequest(final @Nullable ResourcePackDownloadRequest request, final @NotNull HttpExchange exchange) throws IOException {
+        final K key;
+        if (request == null) {
+            if (fallbackKey == null) {
+                TextResponses.send(exchange, 400, TextResponses.INVALID_CLIENT);
+                return;
+            }
+            key = fallbackKey;
+        } else {
+            key = requireNonNull(keyFunction.apply(request), "Key function returned null");
+        }
+        response(key).send(exchange);
+    }
+
+    @Override
+    public @NotNull BuiltResourcePack get(final @NotNull K key) {
+        requireNonNull(key, "key");
+        return response(key).pack();
+    }
+
+    private @NotNull ResourcePackResponse response(final @NotNull K key) {
+        ResourcePackResponse response = cached(key);
+        if (response != null) {
+            return response;
+        }
+
+        final CompletableFuture<ResourcePackResponse> future = new CompletableFuture<>();
+        final CompletableFuture<ResourcePackResponse> existing = generating.putIfAbsent(key, future);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            // it may have been generated and cached after our first check
+            response = cached(key);
+            if (response == null) {
+                response = prepare(generator.apply(key));
+                cache(key, future, response);
+            }
+            future.complete(response);
+            return response;
+        } catch (final Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            generating.remove(key, future);
+        }
+    }
+
+    private static @NotNull ResourcePackResponse prepare(final @NotNull BuiltResourcePack pack) {
+        requireNonNull(pack, "Generator returned null");
+        try {
+            return ResourcePackResponse.of(pack);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to prepare resource-pack " + pack, e);
+        }
+    }
+
+    private static @NotNull ResourcePackResponse join(final @NotNull CompletableFuture<ResourcePackResponse> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private @Nullable ResourcePackResponse cached(final @NotNull K key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private void cache(
+            final @NotNull K key,
+            final @NotNull CompletableFuture<ResourcePackResponse> generation,
+            final @NotNull ResourcePackResponse response
+    ) {
+        final long size = response.contentLength();
+        if (size > maxCacheBytes) {
+            return;
+        }
+        synchronized (cache) {
+            if (generating.get(key) != generation) {
+                // invalidated while generating, the response may be stale
+                return;
+            }
+            final ResourcePackResponse previous = cache.put(key, response);
+            if (previous != null) {
+                cachedBytes -= previous.contentLength();
+            }
+            cachedBytes += size;
+
+            // evict least recently used entries, the new one is the last
+            final Iterator<ResourcePackResponse> iterator = cache.values().iterator();
+            while (cachedBytes > maxCacheBytes) {
+                cachedBytes -= iterator.next().contentLength();
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public void invalidate(final @NotNull K key) {
+        requireNonNull(key, "key");
+        synchronized (cache) {
+            final ResourcePackResponse removed = cache.remove(key);
+            if (removed != null) {
+                cachedBytes -= removed.contentLength();
+            }
+            generating.remove(key);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+            cachedBytes = 0;
+            generating.clear();
+        }
+    }
+
+    @Override
+    public int cachedPacks() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public long cachedBytes() {
+        synchronized (cache) {
+            return cachedBytes;
+        }
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "CachingResourcePackRequestHandler{" +
+                "maxCacheBytes=" + maxCacheBytes +
+                ", cachedPacks=" + cachedPacks() +
+                ", cachedBytes=" + cachedBytes() +
+                '}';
+    }
+
+    static final class BuilderImpl<K> implements Builder<K> {
+        private final Function<ResourcePackDownloadRequest, K> keyFunction;
+        private final Function<K, BuiltResourcePack> generator;
+        private long maxCacheBytes = DEFAULT_MAX_CACHE_BYTES;
+        private K fallbackKey;
+
+        BuilderImpl(
+                final @NotNull Function<ResourcePackDownloadRequest, K> keyFunction,
+                final @NotNull Function<K, BuiltResourcePack> generator
+        ) {
+            this.keyFunction = requireNonNull(keyFunction, "keyFunction");
+            this.generator = requireNonNull(generator, "generator");
+        }
+
+        @Override
+        public @NotNull Builder<K> maxCacheBytes(final long maxCacheBytes) {
+            if (maxCacheBytes < 0) {
+                throw new IllegalArgumentException("Maximum cache size can't be negative, got " + maxCacheBytes);
+            }
+            this.maxCacheBytes = maxCacheBytes;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder<K> fallbackKey(final @Nullable K key) {
+            this.fallbackKey = key;
+            return this;
+        }
+
+        @Override
+        public @NotNull CachingResourcePackRequestHandler<K> build() {
+            return new CachingResourcePackRequestHandlerImpl<>(keyFunction, generator, maxCacheBytes, fallbackKey);
+        }
+    }
+}
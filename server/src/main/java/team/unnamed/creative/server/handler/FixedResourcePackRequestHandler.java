@@ -28,39 +28,36 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.BuiltResourcePack;
 import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+import team.unnamed.creative.server.response.ResourcePackResponse;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
 import java.util.Objects;
 
 final class FixedResourcePackRequestHandler implements ResourcePackRequestHandler {
     private final BuiltResourcePack pack;
+    private final ResourcePackResponse response;
     private final boolean validOnly;
 
     FixedResourcePackRequestHandler(final @NotNull BuiltResourcePack pack, final boolean validOnly) {
         this.pack = Objects.requireNonNull(pack, "pack");
         this.validOnly = validOnly;
+        try {
+            // computed once, shared by all the downloads
+            this.response = ResourcePackResponse.of(pack);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to prepare resource-pack " + pack, e);
+        }
     }
 
     @Override
     public void onRequest(final @Nullable ResourcePackDownloadRequest request, final @NotNull HttpExchange exchange) throws IOException {
         if (request == null && validOnly) {
-            final byte[] data = "Please use a Minecraft client\n".getBytes(StandardCharsets.UTF_8);
-            exchange.getResponseHeaders().set("Content-Type", "text/plain");
-            exchange.sendResponseHeaders(400, data.length);
-            try (final OutputStream responseStream = exchange.getResponseBody()) {
-                responseStream.write(data);
-            }
+            TextResponses.send(exchange, 400, TextResponses.INVALID_CLIENT);
             return;
         }
 
-        final byte[] data = pack.data().toByteArray();
-        exchange.getResponseHeaders().set("Content-Type", "application/zip");
-        exchange.sendResponseHeaders(200, data.length);
-        try (final OutputStream responseStream = exchange.getResponseBody()) {
-            responseStream.write(data);
-        }
+        response.send(exchange);
     }
 
     @Override
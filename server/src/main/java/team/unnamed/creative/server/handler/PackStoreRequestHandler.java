@@ -0,0 +1,121 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.BuiltResourcePack;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link ResourcePackRequestHandler} that serves many resource-packs
+ * at once, each one from a URL derived from its hash.
+ *
+ * <p>A registered pack is served at {@code <path>/<hash>.zip}, where
+ * {@code <path>} is the server path and {@code <hash>} is the pack
+ * {@link BuiltResourcePack#hash() SHA-1 hash}, since that URL always
+ * serves the same bytes, responses tell clients and caches that they
+ * never change.</p>
+ *
+ * <p>Packs are reference counted, every {@link #register} call must
+ * be paired with a {@link #release} call, and a pack is removed from
+ * the store when its last reference is released. Downloads in progress
+ * are not affected by the removal.</p>
+ *
+ * @since 1.8.0
+ */
+@ApiStatus.NonExtendable
+public interface PackStoreRequestHandler extends ResourcePackRequestHandler {
+    /**
+     * Registers the given resource-pack, or adds a reference to it
+     * if a pack with the same hash is already registered.
+     *
+     * <p>The pack is prepared when it's first registered, so requests
+     * never wait for it.</p>
+     *
+     * @param pack The resource-pack
+     * @return The name of the pack in the store, {@code <hash>.zip},
+     * to be appended to the server URL
+     * @throws java.io.UncheckedIOException If the resource-pack data
+     *                                      can't be read
+     * @since 1.8.0
+     */
+    @NotNull String register(final @NotNull BuiltResourcePack pack);
+
+    /**
+     * Removes a reference to the resource-pack with the given hash,
+     * the pack is removed from the store if it was the last one.
+     *
+     * @param hash The resource-pack hash
+     * @return True if the pack was removed from the store
+     * @throws IllegalArgumentException If there is no registered
+     *                                  pack with the given hash
+     * @since 1.8.0
+     */
+    boolean release(final @NotNull String hash);
+
+    /**
+     * Removes a reference to the given resource-pack, the pack is
+     * removed from the store if it was the last one.
+     *
+     * @param pack The resource-pack
+     * @return True if the pack was removed from the store
+     * @throws IllegalArgumentException If the pack is not registered
+     * @since 1.8.0
+     */
+    default boolean release(final @NotNull BuiltResourcePack pack) {
+        requireNonNull(pack, "pack");
+        return release(pack.hash());
+    }
+
+    /**
+     * Returns the registered resource-pack with the given hash.
+     *
+     * @param hash The resource-pack hash
+     * @return The resource-pack, or null if there is none
+     * @since 1.8.0
+     */
+    @Nullable BuiltResourcePack pack(final @NotNull String hash);
+
+    /**
+     * Returns the amount of references to the resource-pack with
+     * the given hash.
+     *
+     * @param hash The resource-pack hash
+     * @return The amount of references, zero if the pack is
+     * not registered
+     * @since 1.8.0
+     */
+    int references(final @NotNull String hash);
+
+    /**
+     * Returns the amount of registered resource-packs.
+     *
+     * @return The amount of registered resource-packs
+     * @since 1.8.0
+     */
+    int size();
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+import team.unnamed.creative.server.response.ResourcePackResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Objects.requireNonNull;
+
+final class PackStoreRequestHandlerImpl implements PackStoreRequestHandler {
+    private static final String EXTENSION = ".zip";
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final boolean validOnly;
+
+    PackStoreRequestHandlerImpl(final boolean validOnly) {
+        this.validOnly = validOnly;
+    }
+
+    @Override
+    public @NotNull String register(final @NotNull BuiltResourcePack pack) {
+        requireNonNull(pack, "pack");
+        final String hash = key(pack.hash());
+        entries.compute(hash, (key, entry) -> {
+            if (entry == null) {
+                try {
+                    entry = new Entry(ResourcePackResponse.immutable(pack));
+                } catch (final IOException e) {
+                    throw new UncheckedIOException("Failed to prepare resource-pack " + pack, e);
+                }
+            }
+            // only modified inside compute, so updates are serialized
+            entry.references++;
+            return entry;
+        });
+        return hash + EXTENSION;
+    }
+
+    @Override
+    public boolean release(final @NotNull String hash) {
+        requireNonNull(hash, "hash");
+        final boolean[] removed = new boolean[1];
+        entries.compute(key(hash), (key, entry) -> {
+            if (entry == null) {
+                throw new IllegalArgumentException("No resource-pack registered with hash " + hash);
+            }
+            if (--entry.references == 0) {
+                removed[0] = true;
+                return null;
+            }
+            return entry;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public @Nullable BuiltResourcePack pack(final @NotNull String hash) {
+        requireNonNull(hash, "hash");
+        final Entry entry = entries.get(key(hash));
+        return entry == null ? null : entry.response.pack();
+    }
+
+    @Override
+    public int references(final @NotNull String hash) {
+        requireNonNull(hash, "hash");
+        final Entry entry = entries.get(key(hash));
+        return entry == null ? 0 : entry.references;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void onRequest(final @Nullable ResourcePackDownloadRequest request, final @NotNull HttpExchange exchange) throws IOException {
+        if (request == null && validOnly) {
+            TextResponses.send(exchange, 400, TextResponses.INVALID_CLIENT);
+            return;
+        }
+
+        final String name = name(exchange);
+        final Entry entry = name == null ? null : entries.get(name);
+        if (entry == null) {
+            TextResponses.send(exchange, 404, "No resource-pack available\n");
+            return;
+        }
+        // the response is kept by this download even if the pack is released
+        entry.response.send(exchange);
+    }
+
+    /**
+     * Returns the hash requested by the given exchange, from its
+     * {@code <hash>.zip} path after the context path, or null if
+     * the path has a different form
+     */
+    private static @Nullable String name(final @NotNull HttpExchange exchange) {
+        final String path = exchange.getRequestURI().getPath();
+        final String contextPath = exchange.getHttpContext().getPath();
+        if (path == null || !path.startsWith(contextPath) || !path.endsWith(EXTENSION)) {
+            return null;
+        }
+        int start = contextPath.length();
+        if (!contextPath.endsWith("/")) {
+            // the name must be a segment of its own, e.g. "/packs/<hash>.zip"
+            // for a "/packs" context, never "/packs<hash>.zip"
+            if (start >= path.length() || path.charAt(start) != '/') {
+                return null;
+            }
+            start++;
+        }
+        final int end = path.length() - EXTENSION.length();
+        if (start >= end || path.indexOf('/', start) != -1) {
+            return null;
+        }
+        return key(path.substring(start, end));
+    }
+
+    private static @NotNull String key(final @NotNull String hash) {
+        return hash.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "PackStoreRequestHandler{" +
+                "packs=" + entries.keySet() +
+                ", validOnly=" + validOnly +
+                '}';
+    }
+
+    private static final class Entry {
+        private final ResourcePackResponse response;
+        private volatile int references;
+
+        private Entry(final @NotNull ResourcePackResponse response) {
+            this.response = response;
+        }
+    }
+}
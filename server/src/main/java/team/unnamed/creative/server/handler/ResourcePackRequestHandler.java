@@ -28,9 +28,11 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
 import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
 
 import java.io.IOException;
+import java.util.function.Function;
 
 /**
  * Responsible for handling resource-pack download requests.
@@ -52,6 +54,8 @@ public interface ResourcePackRequestHandler {
      *                  if the request is valid (has all the values
      *                  that a Minecraft vanilla client would send)
      * @return The new handler instance
+     * @throws java.io.UncheckedIOException If the resource-pack data
+     *                                      can't be read
      * @since 1.2.0
      */
     @Contract("_, _ -> new")
@@ -72,6 +76,122 @@ public interface ResourcePackRequestHandler {
         return fixed(pack, false);
     }
 
+    /**
+     * Creates a new, empty, {@link ResourcePackRequestHandler} that
+     * serves every registered resource-pack from a URL derived from
+     * its hash.
+     *
+     * @param validOnly Whether to only return the resource-packs
+     *                  if the request is valid
+     * @return The new handler instance
+     * @see PackStoreRequestHandler
+     * @since 1.8.0
+     */
+    @Contract("_ -> new")
+    static @NotNull PackStoreRequestHandler store(final boolean validOnly) {
+        return new PackStoreRequestHandlerImpl(validOnly);
+    }
+
+    /**
+     * Creates a new, empty, {@link ResourcePackRequestHandler} that
+     * serves every registered resource-pack from a URL derived from
+     * its hash.
+     *
+     * @return The new handler instance
+     * @see PackStoreRequestHandler
+     * @since 1.8.0
+     */
+    @Contract("-> new")
+    static @NotNull PackStoreRequestHandler store() {
+        return store(false);
+    }
+
+    /**
+     * Creates a new builder for a {@link ResourcePackRequestHandler}
+     * that serves a different resource-pack depending on the pack
+     * format of the client.
+     *
+     * @return The new builder
+     * @see VariantResourcePackRequestHandler
+     * @since 1.8.0
+     */
+    @Contract("-> new")
+    static VariantResourcePackRequestHandler.@NotNull Builder variants() {
+        return VariantResourcePackRequestHandler.builder();
+    }
+
+    /**
+     * Creates a new builder for a {@link ResourcePackRequestHandler}
+     * that generates resource-packs on demand, from a content key
+     * computed for every request, and caches them.
+     *
+     * @param keyFunction The function computing the content key of a request,
+     *                    must never return null
+     * @param generator   The function generating the resource-pack for a key
+     * @param <K>         The content key type
+     * @return The new builder
+     * @see CachingResourcePackRequestHandler
+     * @since 1.8.0
+     */
+    @Contract("_, _ -> new")
+    static <K> CachingResourcePackRequestHandler.@NotNull Builder<K> caching(
+            final @NotNull Function<@NotNull ResourcePackDownloadRequest, @NotNull K> keyFunction,
+            final @NotNull Function<@NotNull K, @NotNull BuiltResourcePack> generator
+    ) {
+        return CachingResourcePackRequestHandler.builder(keyFunction, generator);
+    }
+
+    /**
+     * Creates a new {@link ResourcePackRequestHandler} that writes the
+     * resource-pack of every request straight to the response, while
+     * it is generated, without building it in memory first.
+     *
+     * <p>Useful for rarely requested resource-packs (e.g. per-player
+     * variants), the response is chunked, so its first bytes are sent
+     * right away. Generation runs in the thread handling the request,
+     * so servers using this handler should set an executor.</p>
+     *
+     * <p>The generated data must be deterministic, since players verify
+     * it against the hash they were sent, e.g. the
+     * {@code MinecraftResourcePackWriter#writable} and
+     * {@code MinecraftResourcePackWriter#hash} methods of the Minecraft
+     * serializer produce the same data for the same resource-pack.</p>
+     *
+     * @param generator The function returning the resource-pack data for
+     *                  a request (null if not made by a Minecraft client),
+     *                  or null if there is none, answered with a 404 (Not
+     *                  Found) status
+     * @param validOnly Whether to only return the resource-pack
+     *                  if the request is valid
+     * @return The new handler instance
+     * @since 1.8.0
+     */
+    @Contract("_, _ -> new")
+    static @NotNull ResourcePackRequestHandler streaming(
+            final @NotNull Function<@Nullable ResourcePackDownloadRequest, @Nullable Writable> generator,
+            final boolean validOnly
+    ) {
+        return new StreamingResourcePackRequestHandler(generator, validOnly);
+    }
+
+    /**
+     * Creates a new {@link ResourcePackRequestHandler} that writes the
+     * resource-pack of every request straight to the response, while
+     * it is generated.
+     *
+     * @param generator The function returning the resource-pack data for
+     *                  a request, or null if there is none
+     * @return The new handler instance
+     * @see #streaming(Function, boolean)
+     * @since 1.8.0
+     */
+    @Contract("_ -> new")
+    static @NotNull ResourcePackRequestHandler streaming(
+            final @NotNull Function<@Nullable ResourcePackDownloadRequest, @Nullable Writable> generator
+    ) {
+        return streaming(generator, false);
+    }
+
     /**
      * Handles a resource pack request, the resulting resource
      * pack is written to {@link HttpExchange#getResponseBody()}
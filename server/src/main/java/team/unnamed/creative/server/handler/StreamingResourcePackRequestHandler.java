@@ -0,0 +1,96 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+final class StreamingResourcePackRequestHandler implements ResourcePackRequestHandler {
+    /**
+     * Size of the buffer between the generator and the response, which
+     * is also the size of the sent chunks, zip streams write in small
+     * pieces
+     */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Function<@Nullable ResourcePackDownloadRequest, @Nullable Writable> generator;
+    private final boolean validOnly;
+
+    StreamingResourcePackRequestHandler(
+            final @NotNull Function<@Nullable ResourcePackDownloadRequest, @Nullable Writable> generator,
+            final boolean validOnly
+    ) {
+        this.generator = requireNonNull(generator, "generator");
+        this.validOnly = validOnly;
+    }
+
+    @Override
+    public void onRequest(final @Nullable ResourcePackDownloadRequest request, final @NotNull HttpExchange exchange) throws IOException {
+        if (request == null && validOnly) {
+            TextResponses.send(exchange, 400, TextResponses.INVALID_CLIENT);
+            return;
+        }
+
+        final Writable pack = generator.apply(request);
+        if (pack == null) {
+            TextResponses.send(exchange, 404, "No resource-pack available\n");
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/zip");
+        // generated for every request, never reused
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        // the length is unknown until the pack is written, so the
+        // response is chunked, and its first bytes are sent while the
+        // rest is still being serialized
+        exchange.sendResponseHeaders(200, 0);
+        try (final OutputStream output = new BufferedOutputStream(exchange.getResponseBody(), BUFFER_SIZE)) {
+            pack.write(output);
+        }
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "StreamingResourcePackRequestHandler{" +
+                "generator=" + generator +
+                ", validOnly=" + validOnly +
+                '}';
+    }
+}
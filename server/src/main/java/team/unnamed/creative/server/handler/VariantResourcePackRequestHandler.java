@@ -0,0 +1,152 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.metadata.pack.PackFormat;
+
+/**
+ * A {@link ResourcePackRequestHandler} that serves a different
+ * resource-pack variant depending on the pack format of the
+ * requesting client.
+ *
+ * <p>Variants are prepared once, when the handler is built, and
+ * looked up with a binary search over their (non-overlapping)
+ * pack format ranges.</p>
+ *
+ * @since 1.8.0
+ */
+@ApiStatus.NonExtendable
+public interface VariantResourcePackRequestHandler extends ResourcePackRequestHandler {
+    /**
+     * Creates a new builder for {@link VariantResourcePackRequestHandler}
+     * instances.
+     *
+     * @return The new builder
+     * @since 1.8.0
+     */
+    @Contract("-> new")
+    static @NotNull Builder builder() {
+        return new VariantResourcePackRequestHandlerImpl.BuilderImpl();
+    }
+
+    /**
+     * Returns the resource-pack served to clients with the given
+     * pack format, useful to know the hash to send to a player
+     * when prompting the download.
+     *
+     * @param packFormat The client pack format
+     * @return The variant for that pack format, or the fallback
+     * pack if there is none, may be null
+     * @since 1.8.0
+     */
+    @Nullable BuiltResourcePack variant(final int packFormat);
+
+    /**
+     * Returns the resource-pack served to clients whose pack format
+     * matches no variant, or that are not Minecraft clients.
+     *
+     * @return The fallback resource-pack, may be null
+     * @since 1.8.0
+     */
+    @Nullable BuiltResourcePack fallback();
+
+    /**
+     * Mutable builder for {@link VariantResourcePackRequestHandler}.
+     *
+     * @since 1.8.0
+     */
+    interface Builder {
+        /**
+         * Adds a resource-pack variant, served to clients with a pack
+         * format in the range of the given {@link PackFormat}, from
+         * {@link PackFormat#min()} to {@link PackFormat#max()}.
+         *
+         * @param formats The pack format range
+         * @param pack    The resource-pack
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder variant(final @NotNull PackFormat formats, final @NotNull BuiltResourcePack pack);
+
+        /**
+         * Adds a resource-pack variant, served to clients with a pack
+         * format between {@code min} and {@code max}.
+         *
+         * @param min  The minimum pack format (inclusive)
+         * @param max  The maximum pack format (inclusive)
+         * @param pack The resource-pack
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_, _, _ -> this")
+        default @NotNull Builder variant(final int min, final int max, final @NotNull BuiltResourcePack pack) {
+            return variant(PackFormat.format(max, min, max), pack);
+        }
+
+        /**
+         * Sets the resource-pack served to clients whose pack format
+         * matches no variant, and to requests not made by Minecraft
+         * clients unless {@link #validOnly} is set, optional.
+         *
+         * <p>If not set, these requests are answered with a 404
+         * (Not Found) status.</p>
+         *
+         * @param pack The fallback resource-pack
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder fallback(final @Nullable BuiltResourcePack pack);
+
+        /**
+         * Sets whether to only serve resource-packs to requests made
+         * by Minecraft clients, optional, defaults to false.
+         *
+         * @param validOnly Whether to only serve valid requests
+         * @return This builder
+         * @since 1.8.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder validOnly(final boolean validOnly);
+
+        /**
+         * Builds the handler, preparing every variant.
+         *
+         * @return The built handler
+         * @throws IllegalArgumentException If the pack format ranges
+         *                                  of two variants overlap
+         * @throws java.io.UncheckedIOException If the data of a
+         *                                      resource-pack can't be read
+         * @since 1.8.0
+         */
+        @Contract("-> new")
+        @NotNull VariantResourcePackRequestHandler build();
+    }
+}
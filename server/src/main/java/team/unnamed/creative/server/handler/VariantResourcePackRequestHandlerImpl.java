@@ -0,0 +1,208 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.metadata.pack.PackFormat;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+import team.unnamed.creative.server.response.ResourcePackResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+final class VariantResourcePackRequestHandlerImpl implements VariantResourcePackRequestHandler {
+    // sorted by min, ranges don't overlap, so max values are sorted too
+    private final int[] mins;
+    private final int[] maxs;
+    private final ResourcePackResponse[] responses;
+    private final @Nullable ResourcePackResponse fallback;
+    private final boolean validOnly;
+
+    private VariantResourcePackRequestHandlerImpl(
+            final int @NotNull [] mins,
+            final int @NotNull [] maxs,
+            final @NotNull ResourcePackResponse @NotNull [] responses,
+            final @Nullable ResourcePackResponse fallback,
+            final boolean validOnly
+    ) {
+        this.mins = mins;
+        this.maxs = maxs;
+        this.responses = responses;
+        this.fallback = fallback;
+        this.validOnly = validOnly;
+    }
+
+    private @Nullable ResourcePackResponse response(final int packFormat) {
+        // find the last variant with min <= packFormat
+        int low = 0;
+        int high = mins.length - 1;
+        int index = -1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (mins[mid] <= packFormat) {
+                index = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (index != -1 && packFormat <= maxs[index]) {
+            return responses[index];
+        }
+        return fallback;
+    }
+
+    @Override
+    public @Nullable BuiltResourcePack variant(final int packFormat) {
+        final ResourcePackResponse response = response(packFormat);
+        return response == null ? null : response.pack();
+    }
+
+    @Override
+    public @Nullable BuiltResourcePack fallback() {
+        return fallback == null ? null : fallback.pack();
+    }
+
+    @Override
+    public void onRequest(final @Nullable ResourcePackDownloadRequest request, final @NotNull HttpExchange exchange) throws IOException {
+        if (request == null && validOnly) {
+            TextResponses.send(exchange, 400, TextResponses.INVALID_CLIENT);
+            return;
+        }
+
+        final ResourcePackResponse response = request == null ? fallback : response(request.packFormat());
+        if (response == null) {
+            TextResponses.send(exchange, 404, request == null
+                    ? "No resource-pack available\n"
+                    : "No resource-pack available for pack format " + request.packFormat() + '\n');
+            return;
+        }
+        response.send(exchange);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        final StringBuilder builder = new StringBuilder("VariantResourcePackRequestHandler{variants=[");
+        for (int i = 0; i < responses.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append('[').append(mins[i]).append(", ").append(maxs[i]).append("]=").append(responses[i].pack());
+        }
+        return builder.append("], fallback=").append(fallback()).append('}').toString();
+    }
+
+    static final class BuilderImpl implements Builder {
+        private final List<Variant> variants = new ArrayList<>();
+        private BuiltResourcePack fallback;
+        private boolean validOnly;
+
+        @Override
+        public @NotNull Builder variant(final @NotNull PackFormat formats, final @NotNull BuiltResourcePack pack) {
+            requireNonNull(formats, "formats");
+            requireNonNull(pack, "pack");
+            variants.add(new Variant(formats.min(), formats.max(), pack));
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder fallback(final @Nullable BuiltResourcePack pack) {
+            this.fallback = pack;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder validOnly(final boolean validOnly) {
+            this.validOnly = validOnly;
+            return this;
+        }
+
+        @Override
+        public @NotNull VariantResourcePackRequestHandler build() {
+            final List<Variant> sorted = new ArrayList<>(variants);
+            sorted.sort(Comparator.comparingInt(variant -> variant.min));
+
+            final int size = sorted.size();
+            final int[] mins = new int[size];
+            final int[] maxs = new int[size];
+            final ResourcePackResponse[] responses = new ResourcePackResponse[size];
+
+            // the same pack may be used for many ranges, prepare it once
+            final Map<BuiltResourcePack, ResourcePackResponse> prepared = new IdentityHashMap<>();
+            for (int i = 0; i < size; i++) {
+                final Variant variant = sorted.get(i);
+                if (i > 0 && variant.min <= maxs[i - 1]) {
+                    throw new IllegalArgumentException("Pack format range [" + variant.min + ", " + variant.max
+                            + "] overlaps with [" + mins[i - 1] + ", " + maxs[i - 1] + ']');
+                }
+                mins[i] = variant.min;
+                maxs[i] = variant.max;
+                responses[i] = prepare(prepared, variant.pack);
+            }
+
+            return new VariantResourcePackRequestHandlerImpl(
+                    mins,
+                    maxs,
+                    responses,
+                    fallback == null ? null : prepare(prepared, fallback),
+                    validOnly
+            );
+        }
+
+        private static @NotNull ResourcePackResponse prepare(
+                final @NotNull Map<BuiltResourcePack, ResourcePackResponse> prepared,
+                final @NotNull BuiltResourcePack pack
+        ) {
+            return prepared.computeIfAbsent(pack, key -> {
+                try {
+                    return ResourcePackResponse.of(key);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException("Failed to prepare resource-pack " + key, e);
+                }
+            });
+        }
+    }
+
+    private static final class Variant {
+        private final int min;
+        private final int max;
+        private final BuiltResourcePack pack;
+
+        private Variant(final int min, final int max, final @NotNull BuiltResourcePack pack) {
+            this.min = min;
+            this.max = max;
+            this.pack = pack;
+        }
+    }
+}
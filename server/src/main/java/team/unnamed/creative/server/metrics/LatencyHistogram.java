@@ -0,0 +1,86 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.metrics;
+
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A histogram of durations, with fixed buckets from 1 millisecond
+ * to 1 minute, plus an overflow bucket.
+ *
+ * <p>Values are updated concurrently, so reading the same histogram
+ * many times may give slightly different (but never decreasing)
+ * results.</p>
+ *
+ * @since 1.8.0
+ */
+@ApiStatus.NonExtendable
+public interface LatencyHistogram {
+    /**
+     * Returns the amount of recorded durations.
+     *
+     * @return The recorded durations count
+     * @since 1.8.0
+     */
+    long count();
+
+    /**
+     * Returns the sum of all the recorded durations, in nanoseconds.
+     *
+     * @return The sum of the recorded durations
+     * @since 1.8.0
+     */
+    long sumNanos();
+
+    /**
+     * Returns the (inclusive) upper bounds of the buckets, in
+     * milliseconds, the overflow bucket is not included.
+     *
+     * @return A copy of the bucket upper bounds
+     * @since 1.8.0
+     */
+    long[] bucketBoundsMillis();
+
+    /**
+     * Returns the amount of durations recorded in each bucket,
+     * the last one being the overflow bucket, so this array has
+     * one more element than {@link #bucketBoundsMillis()}.
+     *
+     * @return The bucket counts
+     * @since 1.8.0
+     */
+    long[] bucketCounts();
+
+    /**
+     * Estimates the given percentile, as the upper bound of the
+     * bucket containing it.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The estimated percentile in milliseconds, or
+     * {@link Long#MAX_VALUE} if it is in the overflow bucket,
+     * zero if nothing was recorded
+     * @since 1.8.0
+     */
+    long percentileMillis(final double percentile);
+}
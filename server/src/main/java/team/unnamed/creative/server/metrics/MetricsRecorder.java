@@ -0,0 +1,187 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.metrics;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link ResourcePackServerMetrics} implementation, also used by
+ * the server to record them.
+ */
+@ApiStatus.Internal
+public final class MetricsRecorder implements ResourcePackServerMetrics {
+    private static final String PREFIX = "creative_resource_pack_server_";
+
+    private final LongAdder validRequests = new LongAdder();
+    private final LongAdder invalidRequests = new LongAdder();
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder inFlightDownloads = new LongAdder();
+    private final LongAdder evictedConnections = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LatencyHistogramImpl downloadLatency = new LatencyHistogramImpl();
+    private final LatencyHistogramImpl timeToFirstByte = new LatencyHistogramImpl();
+
+    public void downloadStarted() {
+        inFlightDownloads.increment();
+    }
+
+    public void request(final boolean valid) {
+        (valid ? validRequests : invalidRequests).increment();
+    }
+
+    public void rejected() {
+        rejectedRequests.increment();
+    }
+
+    public void bytesSent(final long bytes) {
+        bytesSent.add(bytes);
+    }
+
+    public void firstByte(final long nanos) {
+        timeToFirstByte.record(nanos);
+    }
+
+    public void connectionEvicted() {
+        evictedConnections.increment();
+    }
+
+    public void eventDropped() {
+        droppedEvents.increment();
+    }
+
+    public void downloadCompleted(final long nanos, final boolean failed) {
+        inFlightDownloads.decrement();
+        downloadLatency.record(nanos);
+        if (failed) {
+            failedRequests.increment();
+        }
+    }
+
+    @Override
+    public long validRequests() {
+        return validRequests.sum();
+    }
+
+    @Override
+    public long invalidRequests() {
+        return invalidRequests.sum();
+    }
+
+    @Override
+    public long rejectedRequests() {
+        return rejectedRequests.sum();
+    }
+
+    @Override
+    public long failedRequests() {
+        return failedRequests.sum();
+    }
+
+    @Override
+    public long bytesSent() {
+        return bytesSent.sum();
+    }
+
+    @Override
+    public long inFlightDownloads() {
+        return inFlightDownloads.sum();
+    }
+
+    @Override
+    public long evictedConnections() {
+        return evictedConnections.sum();
+    }
+
+    @Override
+    public long droppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    @Override
+    public @NotNull LatencyHistogram downloadLatency() {
+        return downloadLatency;
+    }
+
+    @Override
+    public @NotNull LatencyHistogram timeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    @Override
+    public @NotNull String toText() {
+        final StringBuilder builder = new StringBuilder(2048);
+        builder.append("# TYPE ").append(PREFIX).append("requests_total counter\n");
+        appendSample(builder, "requests_total{outcome=\"valid\"}", validRequests());
+        appendSample(builder, "requests_total{outcome=\"invalid\"}", invalidRequests());
+        appendSample(builder, "requests_total{outcome=\"rejected\"}", rejectedRequests());
+        appendSample(builder, "requests_total{outcome=\"error\"}", failedRequests());
+
+        builder.append("# TYPE ").append(PREFIX).append("sent_bytes_total counter\n");
+        appendSample(builder, "sent_bytes_total", bytesSent());
+
+        builder.append("# TYPE ").append(PREFIX).append("in_flight_downloads gauge\n");
+        appendSample(builder, "in_flight_downloads", inFlightDownloads());
+
+        builder.append("# TYPE ").append(PREFIX).append("evicted_connections_total counter\n");
+        appendSample(builder, "evicted_connections_total", evictedConnections());
+
+        builder.append("# TYPE ").append(PREFIX).append("dropped_events_total counter\n");
+        appendSample(builder, "dropped_events_total", droppedEvents());
+
+        appendHistogram(builder, "download_duration_seconds", downloadLatency);
+        appendHistogram(builder, "time_to_first_byte_seconds", timeToFirstByte);
+        return builder.toString();
+    }
+
+    private static void appendSample(final @NotNull StringBuilder builder, final @NotNull String name, final long value) {
+        builder.append(PREFIX).append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void appendHistogram(
+            final @NotNull StringBuilder builder,
+            final @NotNull String name,
+            final @NotNull LatencyHistogram histogram
+    ) {
+        final long[] bounds = histogram.bucketBoundsMillis();
+        final long[] counts = histogram.bucketCounts();
+
+        builder.append("# TYPE ").append(PREFIX).append(name).append(" histogram\n");
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            builder.append(PREFIX).append(name).append("_bucket{le=\"")
+                    .append(i < bounds.length ? Double.toString(bounds[i] / 1000D) : "+Inf")
+                    .append("\"} ").append(cumulative).append('\n');
+        }
+        builder.append(PREFIX).append(name).append("_sum ")
+                .append(histogram.sumNanos() / (double) TimeUnit.SECONDS.toNanos(1)).append('\n');
+        appendSample(builder, name + "_count", cumulative);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.metrics;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Read-only view of the metrics of a resource-pack server.
+ *
+ * <p>Metrics are updated without locks, so they are cheap to record
+ * but reading many of them is not an atomic snapshot.</p>
+ *
+ * @see team.unnamed.creative.server.ResourcePackServer#metrics()
+ * @since 1.8.0
+ */
+@ApiStatus.NonExtendable
+public interface ResourcePackServerMetrics {
+    /**
+     * Returns the amount of handled requests made by Minecraft
+     * clients.
+     *
+     * @return The valid requests count
+     * @since 1.8.0
+     */
+    long validRequests();
+
+    /**
+     * Returns the amount of handled requests not made by Minecraft
+     * clients (without the expected headers).
+     *
+     * @return The invalid requests count
+     * @since 1.8.0
+     */
+    long invalidRequests();
+
+    /**
+     * Returns the amount of requests rejected by the server rate
+     * limits or active downloads limit, these are not counted as
+     * valid nor invalid.
+     *
+     * @return The rejected requests count
+     * @since 1.8.0
+     */
+    long rejectedRequests();
+
+    /**
+     * Returns the amount of handled requests (valid or invalid)
+     * whose response failed, because the handler threw an exception
+     * or the connection was closed before completing it.
+     *
+     * @return The failed requests count
+     * @since 1.8.0
+     */
+    long failedRequests();
+
+    /**
+     * Returns the total amount of response body bytes written to
+     * clients.
+     *
+     * @return The sent bytes
+     * @since 1.8.0
+     */
+    long bytesSent();
+
+    /**
+     * Returns the amount of requests being handled or whose response
+     * is still being written, rejected requests are not counted.
+     *
+     * @return The in-flight downloads count
+     * @since 1.8.0
+     */
+    long inFlightDownloads();
+
+    /**
+     * Returns the histogram of download durations, from the start
+     * of the handling of a request until its response is completely
+     * written.
+     *
+     * @return The download latency histogram
+     * @since 1.8.0
+     */
+    @NotNull LatencyHistogram downloadLatency();
+
+    /**
+     * Returns the histogram of times to first byte, from the start
+     * of the handling of a request until the first byte of its
+     * response body is written (or the response completes, if it
+     * has no body).
+     *
+     * @return The time to first byte histogram
+     * @since 1.8.0
+     */
+    @NotNull LatencyHistogram timeToFirstByte();
+
+    /**
+     * Returns the amount of connections closed because the client
+     * was too slow sending its request or receiving the response.
+     *
+     * @return The evicted connections count
+     * @since 1.8.0
+     */
+    long evictedConnections();
+
+    /**
+     * Returns the amount of download events dropped because the
+     * events queue was full.
+     *
+     * @return The dropped events count
+     * @see team.unnamed.creative.server.event.DownloadListener
+     * @since 1.8.0
+     */
+    long droppedEvents();
+
+    /**
+     * Formats these metrics as plain text, using the Prometheus text
+     * exposition format.
+     *
+     * @return The formatted metrics
+     * @since 1.8.0
+     */
+    @NotNull String toText();
+}
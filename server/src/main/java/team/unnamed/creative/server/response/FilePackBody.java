@@ -0,0 +1,96 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.response;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.server.transport.ChannelTransferExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.util.Objects.requireNonNull;
+
+final class FilePackBody implements PackBody {
+    private final Path file;
+    private final long length;
+
+    FilePackBody(final @NotNull Path file) throws IOException {
+        this.file = requireNonNull(file, "file");
+        this.length = Files.size(file);
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public void writeTo(final long position, final long count, final @NotNull OutputStream output) throws IOException {
+        final WritableByteChannel target = Channels.newChannel(output);
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long transferred = 0;
+            while (transferred < count) {
+                final long n = channel.transferTo(position + transferred, count - transferred, target);
+                if (n <= 0) {
+                    throw new IOException("Unexpected end of file " + file + ", was it modified?");
+                }
+                transferred += n;
+            }
+        }
+    }
+
+    @Override
+    public long transferTo(final long position, final long count, final @NotNull WritableByteChannel target) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.transferTo(position, count, target);
+        }
+    }
+
+    @Override
+    public @NotNull ChannelTransferExchange.Source source() throws IOException {
+        // keep the file open for the whole transfer, which is done in
+        // many small steps when the target channel is non-blocking
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new ChannelTransferExchange.Source() {
+            @Override
+            public long transferTo(final long position, final long count, final @NotNull WritableByteChannel target) throws IOException {
+                if (position >= length) {
+                    throw new IOException("Unexpected end of file " + file + ", was it modified?");
+                }
+                return channel.transferTo(position, count, target);
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.response;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.server.transport.ChannelTransferExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * The resource-pack zip data, as it is served to clients.
+ *
+ * <p>Implementations must support concurrent transfers.</p>
+ */
+interface PackBody {
+    static @NotNull PackBody of(final @NotNull BuiltResourcePack pack) throws IOException {
+        final Path file = pack.file();
+        if (file != null) {
+            return new FilePackBody(file);
+        } else {
+            // read only once, all the downloads share the same array
+            return new ByteArrayPackBody(pack.data().toByteArray());
+        }
+    }
+
+    long length();
+
+    void writeTo(final long position, final long count, final @NotNull OutputStream output) throws IOException;
+
+    long transferTo(final long position, final long count, final @NotNull WritableByteChannel target) throws IOException;
+
+    /**
+     * Returns a source for a single asynchronous transfer of this body,
+     * which may hold resources until closed.
+     *
+     * @return The transfer source
+     * @throws IOException If the source can't be opened
+     */
+    default @NotNull ChannelTransferExchange.Source source() throws IOException {
+        return this::transferTo;
+    }
+}
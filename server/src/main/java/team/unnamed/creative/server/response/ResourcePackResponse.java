@@ -0,0 +1,169 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.response;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.BuiltResourcePack;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Represents a {@link BuiltResourcePack} prepared to be served
+ * over HTTP.
+ *
+ * <p>The response headers (Content-Length, ETag) are computed
+ * once, when the response is created, and the pack data is
+ * transferred to every download without being copied to the
+ * Java heap again.</p>
+ *
+ * <p>Instances are immutable and thread-safe, they should be
+ * created once per pack and shared between requests.</p>
+ *
+ * @since 1.8.0
+ */
+@ApiStatus.NonExtendable
+public interface ResourcePackResponse {
+    /**
+     * Creates a new {@link ResourcePackResponse} for the given
+     * resource-pack.
+     *
+     * <p>If the pack is backed by a {@link BuiltResourcePack#file() file},
+     * its data is transferred directly from the file for every download,
+     * otherwise, the pack data is read once and kept in memory.</p>
+     *
+     * @param pack The resource-pack to serve
+     * @return The prepared response
+     * @throws IOException If reading the pack data or file size fails
+     * @since 1.8.0
+     */
+    static @NotNull ResourcePackResponse of(final @NotNull BuiltResourcePack pack) throws IOException {
+        requireNonNull(pack, "pack");
+        return new ResourcePackResponseImpl(pack, PackBody.of(pack), ResourcePackResponseImpl.REVALIDATE_CACHE_CONTROL);
+    }
+
+    /**
+     * Creates a new {@link ResourcePackResponse} for the given
+     * resource-pack, to be served from a URL that only ever serves
+     * this pack, such as one derived from its hash.
+     *
+     * <p>Unlike {@link #of(BuiltResourcePack)}, the response tells
+     * clients and caches that it never changes, so they can keep it
+     * without revalidating.</p>
+     *
+     * @param pack The resource-pack to serve
+     * @return The prepared response
+     * @throws IOException If reading the pack data or file size fails
+     * @since 1.8.0
+     */
+    static @NotNull ResourcePackResponse immutable(final @NotNull BuiltResourcePack pack) throws IOException {
+        requireNonNull(pack, "pack");
+        return new ResourcePackResponseImpl(pack, PackBody.of(pack), ResourcePackResponseImpl.IMMUTABLE_CACHE_CONTROL);
+    }
+
+    /**
+     * Returns the served resource-pack.
+     *
+     * @return The served resource-pack
+     * @since 1.8.0
+     */
+    @NotNull BuiltResourcePack pack();
+
+    /**
+     * Returns the length, in bytes, of the resource-pack
+     * zip archive.
+     *
+     * @return The content length
+     * @since 1.8.0
+     */
+    long contentLength();
+
+    /**
+     * Returns the HTTP entity tag for the resource-pack,
+     * derived from its SHA-1 hash, including quotes.
+     *
+     * @return The entity tag
+     * @since 1.8.0
+     */
+    @NotNull String etag();
+
+    /**
+     * Writes a region of the resource-pack data to the given
+     * output stream.
+     *
+     * <p>Note that this operation <strong>won't close</strong> the
+     * given {@link OutputStream}</p>
+     *
+     * @param position The position of the first byte to write
+     * @param count    The amount of bytes to write
+     * @param output   The target output stream
+     * @throws IOException If writing fails
+     * @since 1.8.0
+     */
+    void writeTo(final long position, final long count, final @NotNull OutputStream output) throws IOException;
+
+    /**
+     * Transfers a region of the resource-pack data to the given
+     * channel, file-backed packs use {@link java.nio.channels.FileChannel#transferTo}
+     * so that the data never passes through the Java heap.
+     *
+     * <p>May transfer less bytes than requested if the channel
+     * is in non-blocking mode.</p>
+     *
+     * @param position The position of the first byte to transfer
+     * @param count    The maximum amount of bytes to transfer
+     * @param target   The target channel
+     * @return The amount of transferred bytes
+     * @throws IOException If transferring fails
+     * @since 1.8.0
+     */
+    long transferTo(final long position, final long count, final @NotNull WritableByteChannel target) throws IOException;
+
+    /**
+     * Sends this response through the given HTTP exchange, setting
+     * the status code, headers and body.
+     *
+     * <p>{@code HEAD} requests are answered without a body and single
+     * {@code Range} requests (optionally conditioned by {@code If-Range})
+     * are answered with a {@code 206 Partial Content} response, sliced
+     * directly from the pack data, so that interrupted downloads can be
+     * resumed.</p>
+     *
+     * <p>Every response carries an {@code ETag} derived from the pack hash,
+     * requests with a matching {@code If-None-Match} header are answered
+     * with {@code 304 Not Modified} and no body.</p>
+     *
+     * <p>Note that this method does not close the exchange.</p>
+     *
+     * @param exchange The HTTP exchange
+     * @throws IOException If writing the response fails
+     * @since 1.8.0
+     */
+    void send(final @NotNull HttpExchange exchange) throws IOException;
+}
@@ -0,0 +1,205 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.response;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.server.transport.ChannelTransferExchange;
+import team.unnamed.creative.server.util.ByteRange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+
+import static java.util.Objects.requireNonNull;
+
+final class ResourcePackResponseImpl implements ResourcePackResponse {
+    // the same URL may serve a different pack later, so clients and
+    // caches must revalidate, which is cheap thanks to the entity tag
+    static final String REVALIDATE_CACHE_CONTROL = "no-cache";
+    // content-addressed URLs always serve the same bytes
+    static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final BuiltResourcePack pack;
+    private final PackBody body;
+    private final String etag;
+    private final String cacheControl;
+
+    ResourcePackResponseImpl(final @NotNull BuiltResourcePack pack, final @NotNull PackBody body, final @NotNull String cacheControl) {
+        this.pack = requireNonNull(pack, "pack");
+        this.body = requireNonNull(body, "body");
+        this.cacheControl = requireNonNull(cacheControl, "cacheControl");
+        this.etag = '"' + pack.hash() + '"';
+    }
+
+    @Override
+    public @NotNull BuiltResourcePack pack() {
+        return pack;
+    }
+
+    @Override
+    public long contentLength() {
+        return body.length();
+    }
+
+    @Override
+    public @NotNull String etag() {
+        return etag;
+    }
+
+    @Override
+    public void writeTo(final long position, final long count, final @NotNull OutputStream output) throws IOException {
+        requireNonNull(output, "output");
+        checkRegion(position, count);
+        body.writeTo(position, count, output);
+    }
+
+    @Override
+    public long transferTo(final long position, final long count, final @NotNull WritableByteChannel target) throws IOException {
+        requireNonNull(target, "target");
+        checkRegion(position, count);
+        return body.transferTo(position, count, target);
+    }
+
+    @Override
+    public void send(final @NotNull HttpExchange exchange) throws IOException {
+        requireNonNull(exchange, "exchange");
+        final Headers requestHeaders = exchange.getRequestHeaders();
+        final Headers responseHeaders = exchange.getResponseHeaders();
+        final long length = body.length();
+        final boolean head = "HEAD".equals(exchange.getRequestMethod());
+
+        responseHeaders.set("ETag", etag);
+        responseHeaders.set("Cache-Control", cacheControl);
+
+        final String ifNoneMatch = requestHeaders.getFirst("If-None-Match");
+        if (ifNoneMatch != null && matchesAny(ifNoneMatch)) {
+            // the client already has this exact pack
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        responseHeaders.set("Content-Type", "application/zip");
+        responseHeaders.set("Accept-Ranges", "bytes");
+
+        ByteRange range = null;
+        final String rangeHeader = requestHeaders.getFirst("Range");
+        if (rangeHeader != null && ifRangeMatches(requestHeaders.getFirst("If-Range"))) {
+            range = ByteRange.parse(rangeHeader, length);
+        }
+
+        if (range == ByteRange.UNSATISFIABLE) {
+            responseHeaders.set("Content-Range", "bytes */" + length);
+            exchange.sendResponseHeaders(416, -1);
+            return;
+        }
+
+        final int status;
+        final long position;
+        final long count;
+
+        if (range == null) {
+            status = 200;
+            position = 0;
+            count = length;
+        } else {
+            status = 206;
+            position = range.first();
+            count = range.length();
+            responseHeaders.set("Content-Range", "bytes " + range.first() + '-' + range.last() + '/' + length);
+        }
+
+        if (head || count == 0) {
+            // zero means chunked encoding for HttpExchange and -1 means no
+            // body, in which case it won't set the Content-Length, so we do
+            responseHeaders.set("Content-Length", Long.toString(count));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, count);
+        if (exchange instanceof ChannelTransferExchange) {
+            // let the transport write the body when the client can take it
+            ((ChannelTransferExchange) exchange).transferBody(body.source(), position, count);
+            return;
+        }
+        try (final OutputStream responseStream = exchange.getResponseBody()) {
+            body.writeTo(position, count, responseStream);
+        }
+    }
+
+    private boolean matchesAny(final @NotNull String ifNoneMatch) {
+        // If-None-Match uses weak comparison, see RFC 7232 section 3.2
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean ifRangeMatches(final @Nullable String ifRange) {
+        // no If-Range means the range is unconditional, we don't send
+        // Last-Modified, so only our (strong) entity tag can match
+        return ifRange == null || etag.equals(ifRange.trim());
+    }
+
+    private void checkRegion(final long position, final long count) {
+        if (position < 0 || count < 0 || position + count > body.length()) {
+            throw new IndexOutOfBoundsException("Invalid region: position=" + position
+                    + ", count=" + count + ", length=" + body.length());
+        }
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "ResourcePackResponse{" +
+                "pack=" + pack +
+                ", contentLength=" + body.length() +
+                '}';
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final ResourcePackResponseImpl that = (ResourcePackResponseImpl) o;
+        return pack.equals(that.pack);
+    }
+
+    @Override
+    public int hashCode() {
+        return pack.hashCode();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.transport;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An {@link com.sun.net.httpserver.HttpExchange} that can transfer
+ * response bodies directly to the connection channel, without them
+ * being written through the response body stream.
+ */
+@ApiStatus.Internal
+public interface ChannelTransferExchange {
+    /**
+     * Queues a region of the given source to be transferred as (part
+     * of) the response body.
+     *
+     * <p>Must be called after sending the response headers with a fixed
+     * content length, the transferred bytes count towards it. The transfer
+     * happens asynchronously, so the source must remain valid until the
+     * exchange completes.</p>
+     *
+     * @param source   The body source
+     * @param position The position of the first byte to transfer
+     * @param count    The amount of bytes to transfer
+     * @throws IOException If the exchange can't accept the body
+     */
+    void transferBody(final @NotNull Source source, final long position, final long count) throws IOException;
+
+    /**
+     * A body source that can transfer regions of its data to a channel,
+     * closed by the exchange once its transfer completes or fails.
+     */
+    @FunctionalInterface
+    interface Source extends Closeable {
+        /**
+         * Transfers up to {@code count} bytes starting at {@code position}
+         * to the given channel, may transfer less bytes (even zero) if the
+         * channel is non-blocking.
+         *
+         * @param position The position of the first byte to transfer
+         * @param count    The maximum amount of bytes to transfer
+         * @param target   The target channel
+         * @return The amount of transferred bytes
+         * @throws IOException If transferring fails
+         */
+        long transferTo(final long position, final long count, final @NotNull WritableByteChannel target) throws IOException;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Observes the exchanges of a transport context, from the moment
+ * they are handled until their response is completely written.
+ *
+ * <p>The response of an exchange may be written after its handler
+ * returns (e.g. body transfers of the NIO transport), so only the
+ * transport knows when it actually completes.</p>
+ */
+@ApiStatus.Internal
+@FunctionalInterface
+public interface ExchangeObserver {
+    /**
+     * Called right before the handler of an exchange is invoked,
+     * in the same thread.
+     *
+     * @param exchange The exchange
+     * @return The listener for the exchange events
+     */
+    @NotNull Listener onExchange(final @NotNull HttpExchange exchange);
+
+    /**
+     * Listens to the events of a single exchange, which may be
+     * called from I/O threads, so they must not block.
+     */
+    interface Listener {
+        /**
+         * A listener that ignores all the events.
+         */
+        Listener NONE = new Listener() {
+        };
+
+        /**
+         * Called when response body bytes are written to the
+         * connection.
+         *
+         * @param bytes The amount of written bytes
+         */
+        default void onBodyWritten(final long bytes) {
+        }
+
+        /**
+         * Called once, when the response is completely written,
+         * or when it fails.
+         *
+         * @param failure The failure cause, null if successful
+         */
+        default void onCompleted(final @Nullable Throwable failure) {
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.transport;
+
+import com.sun.net.httpserver.Headers;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * The parsed request line and headers of an HTTP/1.x request.
+ */
+final class HttpRequestHead {
+    private final String method;
+    private final URI uri;
+    private final String protocol;
+    private final Headers headers;
+
+    private HttpRequestHead(
+            final @NotNull String method,
+            final @NotNull URI uri,
+            final @NotNull String protocol,
+            final @NotNull Headers headers
+    ) {
+        this.method = method;
+        this.uri = uri;
+        this.protocol = protocol;
+        this.headers = headers;
+    }
+
+    @NotNull String method() {
+        return method;
+    }
+
+    @NotNull URI uri() {
+        return uri;
+    }
+
+    @NotNull String protocol() {
+        return protocol;
+    }
+
+    @NotNull Headers headers() {
+        return headers;
+    }
+
+    /**
+     * Determines whether the connection can be reused after
+     * responding to this request, as specified by its protocol
+     * version and "Connection" header.
+     *
+     * @return True to keep the connection alive
+     */
+    boolean keepAlive() {
+        final String connection = headers.getFirst("Connection");
+        if (connection != null) {
+            final String value = connection.toLowerCase(Locale.ROOT);
+            if (value.contains("close")) {
+                return false;
+            }
+            if (value.contains("keep-alive")) {
+                return true;
+            }
+        }
+        return "HTTP/1.1".equals(protocol);
+    }
+
+    /**
+     * Determines whether this request is followed by a body,
+     * which this transport doesn't read.
+     *
+     * @return True if the request has a body
+     */
+    boolean hasBody() {
+        if (headers.containsKey("Transfer-Encoding")) {
+            return true;
+        }
+        final String length = headers.getFirst("Content-Length");
+        return length != null && !"0".equals(length.trim());
+    }
+
+    /**
+     * Parses a request head from the readable bytes of the given
+     * buffer, consuming them if the head is complete.
+     *
+     * @param buffer The buffer, in read mode
+     * @return The parsed head, or null if more bytes are needed
+     * @throws HttpParseException If the request head is malformed
+     */
+    static @Nullable HttpRequestHead parse(final @NotNull ByteBuffer buffer) throws HttpParseException {
+        final int start = buffer.position();
+        final int end = findHeadEnd(buffer, start, buffer.limit());
+        if (end == -1) {
+            return null;
+        }
+
+        final String text = new String(
+                buffer.array(),
+                buffer.arrayOffset() + start,
+                end - start,
+                StandardCharsets.ISO_8859_1
+        );
+        buffer.position(end + 4);
+
+        final String[] lines = text.split("\r\n");
+        final String[] requestLine = lines[0].split(" ");
+        if (requestLine.length != 3 || requestLine[0].isEmpty() || !requestLine[2].startsWith("HTTP/1.")) {
+            throw new HttpParseException("Malformed request line");
+        }
+
+        final URI uri;
+        try {
+            uri = new URI(requestLine[1]);
+        } catch (final URISyntaxException e) {
+            throw new HttpParseException("Malformed request target");
+        }
+
+        final Headers headers = new Headers();
+        for (int i = 1; i < lines.length; i++) {
+            final String line = lines[i];
+            final int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new HttpParseException("Malformed header line");
+            }
+            headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+        }
+        return new HttpRequestHead(requestLine[0], uri, requestLine[2], headers);
+    }
+
+    private static int findHeadEnd(final @NotNull ByteBuffer buffer, final int start, final int limit) {
+        for (int i = start; i + 3 < limit; i++) {
+            if (buffer.get(i) == '\r'
+                    && buffer.get(i + 1) == '\n'
+                    && buffer.get(i + 2) == '\r'
+                    && buffer.get(i + 3) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Thrown when a request head is malformed.
+     */
+    static final class HttpParseException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        HttpParseException(final @NotNull String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.server.util.BandwidthLimiter;
+import team.unnamed.creative.server.util.SlowClientPolicy;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+final class HttpServerTransport implements ServerTransport {
+    /**
+     * The maximum amount of rejected requests waiting to be
+     * answered, the connections of the next ones are closed
+     */
+    private static final int OVERFLOW_QUEUE_CAPACITY = 64;
+
+    /**
+     * Set while an exchange rejected by the executor is run, so
+     * that it is answered with 503 instead of being handled
+     */
+    private static final ThreadLocal<Boolean> REJECTED = new ThreadLocal<>();
+
+    /**
+     * The delay given to the HTTP server when it stops accepting
+     * connections, as long as possible (the server multiplies it
+     * by 1000), since it is ended by {@link #stop} anyway
+     */
+    private static final int STOP_ACCEPTING_DELAY_SECONDS = Integer.MAX_VALUE / 1000;
+
+    private final HttpServer server;
+    private final @Nullable ExecutorService overflow;
+    private final @Nullable BandwidthLimiter bandwidthLimiter;
+    private final @Nullable SlowClientPolicy slowClientPolicy;
+    private final Set<GuardedOutputStream> guardedStreams = ConcurrentHashMap.newKeySet();
+    private @Nullable ScheduledExecutorService watchdog;
+
+    HttpServerTransport(
+            final @NotNull HttpServer server,
+            final @Nullable Executor executor,
+            final @Nullable BandwidthLimiter bandwidthLimiter,
+            final @Nullable SlowClientPolicy slowClientPolicy
+    ) {
+        this.server = requireNonNull(server, "server");
+        if (executor == null) {
+            this.overflow = null;
+            this.server.setExecutor(null);
+        } else {
+            final ExecutorService overflow = new ThreadPoolExecutor(
+                    1,
+                    1,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(OVERFLOW_QUEUE_CAPACITY),
+                    task -> {
+                        final Thread thread = new Thread(task, "creative-resource-pack-server-overflow");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+            );
+            this.overflow = overflow;
+            this.server.setExecutor(command -> {
+                try {
+                    executor.execute(command);
+                } catch (final RejectedExecutionException e) {
+                    // the dispatcher must never block, the exchange (whose request is
+                    // still unread) is answered from another thread, if it can't take
+                    // it either, the rejection closes the connection
+                    overflow.execute(() -> {
+                        REJECTED.set(Boolean.TRUE);
+                        try {
+                            command.run();
+                        } finally {
+                            REJECTED.remove();
+                        }
+                    });
+                }
+            });
+        }
+        this.bandwidthLimiter = bandwidthLimiter;
+        this.slowClientPolicy = slowClientPolicy != null && slowClientPolicy.limitsWrites() ? slowClientPolicy : null;
+    }
+
+    @Override
+    public void context(final @NotNull String path, final @NotNull HttpHandler handler, final @Nullable ExchangeObserver observer) {
+        requireNonNull(path, "path");
+        requireNonNull(handler, "handler");
+        final BandwidthLimiter bandwidthLimiter = this.bandwidthLimiter;
+        final HttpHandler shaped = bandwidthLimiter == null ? handler : exchange -> {
+            // wraps the observed stream, so only sent bytes are observed
+            exchange.setStreams(null, new ShapedOutputStream(exchange, bandwidthLimiter));
+            handler.handle(exchange);
+        };
+        final HttpHandler observed = observer == null ? shaped : exchange -> observe(exchange, shaped, observer);
+        final SlowClientPolicy slowClientPolicy = this.slowClientPolicy;
+        final HttpHandler guarded = slowClientPolicy == null ? observed : exchange -> guard(exchange, observed, slowClientPolicy);
+        server.createContext(path, exchange -> {
+            if (REJECTED.get() != null) {
+                reject(exchange);
+            } else {
+                guarded.handle(exchange);
+            }
+        });
+    }
+
+    private static void reject(final @NotNull HttpExchange exchange) throws IOException {
+        try {
+            exchange.getResponseHeaders().set("Connection", "close");
+            exchange.getResponseHeaders().set("Retry-After", Long.toString(OVERLOADED_RETRY_AFTER_SECONDS));
+            exchange.sendResponseHeaders(503, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void guard(
+            final @NotNull HttpExchange exchange,
+            final @NotNull HttpHandler handler,
+            final @NotNull SlowClientPolicy policy
+    ) throws IOException {
+        // the innermost stream, so only the actual socket writes are timed
+        final GuardedOutputStream guarded = new GuardedOutputStream(exchange.getResponseBody(), policy);
+        exchange.setStreams(null, guarded);
+        guardedStreams.add(guarded);
+        try {
+            handler.handle(exchange);
+        } finally {
+            guardedStreams.remove(guarded);
+        }
+    }
+
+    private void checkSlow() {
+        final long now = System.nanoTime();
+        for (final GuardedOutputStream guarded : guardedStreams) {
+            guarded.checkSlow(now);
+        }
+    }
+
+    private static void observe(
+            final @NotNull HttpExchange exchange,
+            final @NotNull HttpHandler handler,
+            final @NotNull ExchangeObserver observer
+    ) throws IOException {
+        final ExchangeObserver.Listener listener = observer.onExchange(exchange);
+        // writes block until the data is passed to the socket, so the
+        // response is complete once the handler returns
+        exchange.setStreams(null, new ObservedOutputStream(exchange.getResponseBody(), listener));
+        Throwable failure = null;
+        try {
+            handler.handle(exchange);
+        } catch (final IOException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            exchange.close();
+            listener.onCompleted(failure);
+        }
+    }
+
+    @Override
+    public @NotNull InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    @Override
+    public void start() {
+        final SlowClientPolicy slowClientPolicy = this.slowClientPolicy;
+        if (slowClientPolicy != null) {
+            watchdog = Executors.newSingleThreadScheduledExecutor(task -> {
+                final Thread thread = new Thread(task, "creative-resource-pack-server-watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final long interval = slowClientPolicy.checkInterval();
+            watchdog.scheduleAtFixedRate(this::checkSlow, interval, interval, TimeUnit.NANOSECONDS);
+        }
+        server.start();
+    }
+
+    @Override
+    public void stopAccepting() {
+        // the HTTP server only closes its listener when stopped, and then
+        // waits for the exchanges in progress, so it is stopped in another
+        // thread, until they finish or stop is called
+        final Thread stopper = new Thread(() -> server.stop(STOP_ACCEPTING_DELAY_SECONDS), "creative-resource-pack-server-stopper");
+        stopper.setDaemon(true);
+        stopper.start();
+    }
+
+    @Override
+    public void stop(final int delay) {
+        server.stop(delay);
+        if (overflow != null) {
+            overflow.shutdownNow();
+        }
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+    }
+
+    /**
+     * Response body stream that waits for the {@link BandwidthLimiter}
+     * before writing every chunk
+     */
+    private static final class ShapedOutputStream extends FilterOutputStream {
+        private final HttpExchange exchange;
+        private final BandwidthLimiter limiter;
+        private @Nullable Boolean priority;
+        private boolean closed;
+
+        ShapedOutputStream(final @NotNull HttpExchange exchange, final @NotNull BandwidthLimiter limiter) {
+            super(exchange.getResponseBody());
+            this.exchange = exchange;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            await(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(final byte @NotNull [] b, int off, int len) throws IOException {
+            while (len > 0) {
+                final int n = Math.min(len, BandwidthLimiter.CHUNK_SIZE);
+                await(n);
+                out.write(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        private void await(final int bytes) throws IOException {
+            if (priority == null) {
+                // headers are sent before the body, with the fixed length, if any
+                final String length = exchange.getResponseHeaders().getFirst("Content-Length");
+                priority = length != null && limiter.prioritized(parseLength(length));
+            }
+            final long wait = limiter.reserve(bytes, priority);
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+
+        private static long parseLength(final @NotNull String length) {
+            try {
+                return Long.parseLong(length.trim());
+            } catch (final NumberFormatException e) {
+                return -1L;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            super.close();
+        }
+    }
+
+    /**
+     * Response body stream that times the writes to the socket, and
+     * evicts the client if it is too slow by interrupting the writer,
+     * which closes the (interruptible) socket channel of the exchange
+     */
+    private static final class GuardedOutputStream extends FilterOutputStream {
+        /**
+         * The maximum amount of bytes written at once, so that the
+         * progress of large writes is seen
+         */
+        private static final int WRITE_CHUNK_SIZE = 8192;
+
+        private final SlowClientPolicy policy;
+        private final SlowClientPolicy.WriteTracker tracker;
+        private final Object lock = new Object();
+        // guarded by lock
+        private @Nullable Thread writer;
+        private boolean evicted;
+        private boolean closed;
+
+        GuardedOutputStream(final @NotNull OutputStream out, final @NotNull SlowClientPolicy policy) {
+            super(out);
+            this.policy = policy;
+            this.tracker = policy.writeTracker();
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            begin();
+            try {
+                out.write(b);
+            } catch (final IOException e) {
+                throw failure(e);
+            } finally {
+                end();
+            }
+            tracker.written(1, System.nanoTime());
+        }
+
+        @Override
+        public void write(final byte @NotNull [] b, int off, int len) throws IOException {
+            while (len > 0) {
+                final int n = Math.min(len, WRITE_CHUNK_SIZE);
+                begin();
+                try {
+                    out.write(b, off, n);
+                } catch (final IOException e) {
+                    throw failure(e);
+                } finally {
+                    end();
+                }
+                tracker.written(n, System.nanoTime());
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            begin();
+            try {
+                out.flush();
+            } catch (final IOException e) {
+                throw failure(e);
+            } finally {
+                end();
+            }
+        }
+
+        private void begin() throws IOException {
+            synchronized (lock) {
+                if (evicted) {
+                    throw new IOException("Evicted slow client");
+                }
+                writer = Thread.currentThread();
+            }
+        }
+
+        private void end() {
+            synchronized (lock) {
+                writer = null;
+                if (evicted) {
+                    // the interrupt was only meant for the write
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private @NotNull IOException failure(final @NotNull IOException e) {
+            synchronized (lock) {
+                return evicted ? new IOException("Evicted slow client", e) : e;
+            }
+        }
+
+        void checkSlow(final long now) {
+            synchronized (lock) {
+                if (evicted || !tracker.slow(now, writer != null)) {
+                    return;
+                }
+                evicted = true;
+                policy.evicted();
+                writer.interrupt();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            begin();
+            try {
+                out.close();
+            } catch (final IOException e) {
+                throw failure(e);
+            } finally {
+                end();
+            }
+        }
+    }
+
+    private static final class ObservedOutputStream extends FilterOutputStream {
+        private final ExchangeObserver.Listener listener;
+        private boolean closed;
+
+        ObservedOutputStream(final @NotNull OutputStream out, final @NotNull ExchangeObserver.Listener listener) {
+            super(out);
+            this.listener = listener;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            listener.onBodyWritten(1);
+        }
+
+        @Override
+        public void write(final byte @NotNull [] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            listener.onBodyWritten(len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the exchange closes it again, which would fail when
+            // flushing the already closed original stream
+            if (closed) {
+                return;
+            }
+            closed = true;
+            super.close();
+        }
+    }
+}
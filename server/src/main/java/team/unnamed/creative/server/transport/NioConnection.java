@@ -0,0 +1,535 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.transport;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.server.util.BandwidthLimiter;
+import team.unnamed.creative.server.util.SlowClientPolicy;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A client connection, owned by a single {@link NioIoLoop}.
+ *
+ * <p>Reads request heads one at a time and, while an exchange is
+ * active, writes the queued response data. Exchanges may queue data
+ * from any thread, the loop writes it in order as the socket becomes
+ * writable.</p>
+ */
+final class NioConnection implements NioIoLoop.Handler {
+    private static final int INITIAL_HEAD_BUFFER_SIZE = 4096;
+    private static final int MAX_HEAD_SIZE = 16384;
+
+    /**
+     * Maximum bytes transferred per write, so that a fast client
+     * doesn't starve the others in the same loop, and the temporary
+     * direct buffers used to write heap buffers stay small
+     */
+    private static final long TRANSFER_CHUNK_SIZE = 256 * 1024;
+
+    /**
+     * Writers block when more than {@code HIGH_WATER} bytes are
+     * queued, until the loop drains them below {@code LOW_WATER}
+     */
+    private static final long HIGH_WATER = 256 * 1024;
+    private static final long LOW_WATER = 64 * 1024;
+
+    private final NioServerTransport transport;
+    private final NioIoLoop loop;
+    private final SocketChannel channel;
+    private final InetSocketAddress remoteAddress;
+    private final InetSocketAddress localAddress;
+    private final @Nullable BandwidthLimiter bandwidthLimiter;
+    private final @Nullable SlowClientPolicy slowClientPolicy;
+    private final @Nullable SlowClientPolicy.WriteTracker writeTracker;
+
+    private final Queue<Object> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final Object writableLock = new Object();
+
+    // only accessed by the loop thread
+    private @Nullable SelectionKey key;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_HEAD_BUFFER_SIZE);
+    private @Nullable Object current;
+    private boolean exchangeActive;
+    private @Nullable NioHttpExchange exchange;
+    // body bytes reserved in the bandwidth limiter but not written yet
+    private long bandwidthCredit;
+    private boolean throttled;
+    // when the connection started waiting for the next request head
+    private long headStart;
+
+    private volatile boolean closed;
+
+    NioConnection(
+            final @NotNull NioServerTransport transport,
+            final @NotNull NioIoLoop loop,
+            final @NotNull SocketChannel channel
+    ) {
+        this.transport = transport;
+        this.loop = loop;
+        this.channel = channel;
+        this.remoteAddress = (InetSocketAddress) channel.socket().getRemoteSocketAddress();
+        this.localAddress = (InetSocketAddress) channel.socket().getLocalSocketAddress();
+        this.bandwidthLimiter = transport.bandwidthLimiter();
+        this.slowClientPolicy = transport.slowClientPolicy();
+        this.writeTracker = slowClientPolicy != null && slowClientPolicy.limitsWrites()
+                ? slowClientPolicy.writeTracker()
+                : null;
+    }
+
+    @NotNull InetSocketAddress remoteAddress() {
+        return remoteAddress;
+    }
+
+    @NotNull InetSocketAddress localAddress() {
+        return localAddress;
+    }
+
+    boolean closed() {
+        return closed;
+    }
+
+    void register() {
+        try {
+            key = channel.register(loop.selector(), SelectionKey.OP_READ, this);
+        } catch (final IOException e) {
+            close();
+            return;
+        }
+        headStart = System.nanoTime();
+        if (slowClientPolicy != null) {
+            loop.schedule(this::checkSlow, slowClientPolicy.checkInterval());
+        }
+    }
+
+    /**
+     * Evicts this connection if the client is too slow receiving the
+     * request head or the response, runs periodically until closed.
+     */
+    private void checkSlow() {
+        final SlowClientPolicy policy = this.slowClientPolicy;
+        if (closed || policy == null) {
+            return;
+        }
+        final long now = System.nanoTime();
+        final boolean slow;
+        if (!exchangeActive) {
+            slow = policy.headerReadTimeout() > 0 && now - headStart > policy.headerReadTimeout();
+        } else {
+            // only while data waits for the client, not for the
+            // handler or the bandwidth limiter
+            slow = writeTracker != null
+                    && writeTracker.slow(now, !throttled && (current != null || !outbound.isEmpty()));
+        }
+        if (slow) {
+            policy.evicted();
+            close(new IOException("Evicted slow client " + remoteAddress));
+            return;
+        }
+        loop.schedule(this::checkSlow, policy.checkInterval());
+    }
+
+    @Override
+    public void onReady(final @NotNull SelectionKey key) throws IOException {
+        if (key.isReadable()) {
+            read();
+        }
+        if (key.isValid() && key.isWritable()) {
+            flush();
+        }
+    }
+
+    @Override
+    public void onError(final @NotNull SelectionKey key) {
+        close();
+    }
+
+    private void read() throws IOException {
+        if (exchangeActive) {
+            return;
+        }
+        if (channel.read(readBuffer) == -1) {
+            close();
+            return;
+        }
+        parseNext();
+    }
+
+    private void parseNext() {
+        final HttpRequestHead head;
+        readBuffer.flip();
+        try {
+            head = HttpRequestHead.parse(readBuffer);
+        } catch (final HttpRequestHead.HttpParseException e) {
+            rejectRaw("400 Bad Request");
+            return;
+        } finally {
+            readBuffer.compact();
+        }
+
+        if (head == null) {
+            if (!readBuffer.hasRemaining()) {
+                if (readBuffer.capacity() >= MAX_HEAD_SIZE) {
+                    rejectRaw("431 Request Header Fields Too Large");
+                    return;
+                }
+                final ByteBuffer grown = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2, MAX_HEAD_SIZE));
+                readBuffer.flip();
+                grown.put(readBuffer);
+                readBuffer = grown;
+            }
+            updateInterest(false);
+            return;
+        }
+
+        // stop reading until the response is complete, next requests
+        // (if pipelined) are kept in the buffer meanwhile
+        exchangeActive = true;
+        updateInterest(current != null);
+        exchange = new NioHttpExchange(this, head, transport.findContext(head.uri().getPath()));
+        transport.dispatch(exchange);
+    }
+
+    private void rejectRaw(final @NotNull String status) {
+        exchangeActive = true;
+        enqueue(new Framing("HTTP/1.1 " + status + "\r\n"
+                + "Content-Length: 0\r\n"
+                + "Connection: close\r\n\r\n"));
+        enqueue(End.CLOSE);
+    }
+
+    /**
+     * Queues a {@link ByteBuffer} (body data), a {@link Framing}, a
+     * {@link Transfer} or an {@link End} marker to be written, can be
+     * called from any thread.
+     *
+     * @param item The item to write
+     */
+    void enqueue(final @NotNull Object item) {
+        if (item instanceof ByteBuffer) {
+            pendingBytes.addAndGet(((ByteBuffer) item).remaining());
+        } else if (item instanceof Framing) {
+            pendingBytes.addAndGet(((Framing) item).buffer.remaining());
+        }
+        outbound.add(item);
+        if (closed) {
+            // the loop may have discarded the queue already
+            discardOutbound();
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * Blocks the current thread while too many bytes are queued
+     * to be written, unless it is the loop thread.
+     *
+     * @throws IOException If the connection is closed
+     */
+    void awaitWritable() throws IOException {
+        if (pendingBytes.get() > HIGH_WATER && !loop.inLoop()) {
+            synchronized (writableLock) {
+                while (pendingBytes.get() > LOW_WATER && !closed) {
+                    try {
+                        writableLock.wait();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+            }
+        }
+        if (closed) {
+            throw new IOException("Connection closed");
+        }
+    }
+
+    private void released(final long bytes) {
+        final long after = pendingBytes.addAndGet(-bytes);
+        if (after <= LOW_WATER && after + bytes > LOW_WATER) {
+            synchronized (writableLock) {
+                writableLock.notifyAll();
+            }
+        }
+    }
+
+    private void flush() {
+        if (closed) {
+            return;
+        }
+        try {
+            while (true) {
+                if (current == null) {
+                    current = outbound.poll();
+                    if (current == null) {
+                        updateInterest(false);
+                        return;
+                    }
+                }
+
+                if (current instanceof ByteBuffer) {
+                    final ByteBuffer buffer = (ByteBuffer) current;
+                    if (buffer.hasRemaining()) {
+                        final long allowed = allowance(buffer.remaining());
+                        if (allowed == 0) {
+                            return;
+                        }
+                        final int limit = buffer.limit();
+                        final int written;
+                        buffer.limit(buffer.position() + (int) allowed);
+                        try {
+                            written = channel.write(buffer);
+                        } finally {
+                            buffer.limit(limit);
+                        }
+                        bodyWritten(written);
+                        if (written < allowed) {
+                            updateInterest(true);
+                            return;
+                        }
+                        if (buffer.hasRemaining()) {
+                            continue;
+                        }
+                    }
+                    current = null;
+                    released(buffer.limit());
+                } else if (current instanceof Framing) {
+                    final ByteBuffer buffer = ((Framing) current).buffer;
+                    progress(channel.write(buffer));
+                    if (buffer.hasRemaining()) {
+                        updateInterest(true);
+                        return;
+                    }
+                    current = null;
+                    released(buffer.limit());
+                } else if (current instanceof Transfer) {
+                    final Transfer transfer = (Transfer) current;
+                    final long allowed = allowance(transfer.count);
+                    if (allowed == 0) {
+                        return;
+                    }
+                    bodyWritten(transfer.writeTo(channel, allowed));
+                    if (transfer.count > 0) {
+                        // wait for the next selection, even if still
+                        // writable, so other connections get their turn
+                        updateInterest(true);
+                        return;
+                    }
+                    current = null;
+                    transfer.source.close();
+                } else {
+                    final End end = (End) current;
+                    current = null;
+                    exchangeActive = false;
+                    if (exchange != null) {
+                        exchange.complete(null);
+                        exchange = null;
+                    }
+                    if (end == End.CLOSE) {
+                        close();
+                        return;
+                    }
+                    headStart = System.nanoTime();
+                    parseNext();
+                    if (closed) {
+                        return;
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            close(e);
+        }
+    }
+
+    /**
+     * Returns how many body bytes may be written now, up to the given
+     * amount, or zero if the bandwidth limiter delays this connection,
+     * in which case the flush is resumed when the delay elapses.
+     */
+    private long allowance(final long wanted) {
+        final BandwidthLimiter limiter = this.bandwidthLimiter;
+        if (limiter == null) {
+            return wanted;
+        }
+        if (throttled) {
+            return 0L;
+        }
+        if (bandwidthCredit == 0) {
+            final int chunk = (int) Math.min(wanted, BandwidthLimiter.CHUNK_SIZE);
+            final boolean priority = exchange != null && limiter.prioritized(exchange.responseLength());
+            final long wait = limiter.reserve(chunk, priority);
+            bandwidthCredit = chunk;
+            if (wait > 0) {
+                throttled = true;
+                updateInterest(false);
+                loop.schedule(() -> {
+                    throttled = false;
+                    flush();
+                }, wait);
+                return 0L;
+            }
+        }
+        return Math.min(wanted, bandwidthCredit);
+    }
+
+    private void bodyWritten(final long bytes) {
+        if (bandwidthLimiter != null) {
+            bandwidthCredit -= bytes;
+        }
+        progress(bytes);
+        if (bytes > 0 && exchange != null) {
+            exchange.listener().onBodyWritten(bytes);
+        }
+    }
+
+    private void progress(final long bytes) {
+        if (writeTracker != null && bytes > 0) {
+            writeTracker.written(bytes, System.nanoTime());
+        }
+    }
+
+    private void updateInterest(final boolean write) {
+        final SelectionKey key = this.key;
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        key.interestOps((exchangeActive ? 0 : SelectionKey.OP_READ) | (write ? SelectionKey.OP_WRITE : 0));
+    }
+
+    /**
+     * Closes the connection from any thread, discarding all
+     * the queued data.
+     */
+    void abort() {
+        closed = true;
+        synchronized (writableLock) {
+            writableLock.notifyAll();
+        }
+        loop.execute(this::close);
+    }
+
+    private void close() {
+        close(null);
+    }
+
+    private void close(final @Nullable Throwable cause) {
+        closed = true;
+        if (exchange != null) {
+            exchange.complete(cause == null ? new IOException("Connection closed") : cause);
+            exchange = null;
+        }
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (final IOException ignored) {
+        }
+        if (current instanceof Transfer) {
+            closeQuietly((Transfer) current);
+        }
+        current = null;
+        discardOutbound();
+        synchronized (writableLock) {
+            writableLock.notifyAll();
+        }
+    }
+
+    private void discardOutbound() {
+        Object item;
+        while ((item = outbound.poll()) != null) {
+            if (item instanceof Transfer) {
+                closeQuietly((Transfer) item);
+            }
+        }
+    }
+
+    private static void closeQuietly(final @NotNull Transfer transfer) {
+        try {
+            transfer.source.close();
+        } catch (final IOException ignored) {
+        }
+    }
+
+    /**
+     * A region of a body source to be transferred.
+     */
+    static final class Transfer {
+        private final ChannelTransferExchange.Source source;
+        private long position;
+        private long count;
+
+        Transfer(final @NotNull ChannelTransferExchange.Source source, final long position, final long count) {
+            this.source = source;
+            this.position = position;
+            this.count = count;
+        }
+
+        private long writeTo(final @NotNull SocketChannel channel, final long max) throws IOException {
+            final long written = source.transferTo(position, Math.min(Math.min(count, max), TRANSFER_CHUNK_SIZE), channel);
+            position += written;
+            count -= written;
+            return written;
+        }
+    }
+
+    /**
+     * Response bytes that are not part of the body, like the
+     * status line, headers and chunk sizes.
+     */
+    static final class Framing {
+        private final ByteBuffer buffer;
+
+        Framing(final @NotNull String text) {
+            this.buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    /**
+     * Marks the end of a response, and whether the connection
+     * must be closed after it.
+     */
+    enum End {
+        KEEP_ALIVE,
+        CLOSE
+    }
+}
@@ -0,0 +1,482 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.transport;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link HttpExchange} of the {@link NioServerTransport}, behaves
+ * like the JDK implementation (fixed length bodies, chunked bodies
+ * when the length is zero, no body when it is -1 or the request
+ * method is HEAD) but only queues the response data in its connection.
+ */
+final class NioHttpExchange extends HttpExchange implements ChannelTransferExchange {
+    private static final int BODY_BUFFER_SIZE = 16 * 1024;
+
+    private final NioConnection connection;
+    private final HttpRequestHead request;
+    private final @Nullable NioHttpContext context;
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final ResponseBody body = new ResponseBody();
+
+    private InputStream requestBodyStream = new ByteArrayInputStream(new byte[0]);
+    private OutputStream responseBodyStream = body;
+    private boolean keepAlive;
+    private int responseCode = -1;
+    // published to the loop thread by queuing the response head
+    private long responseLength = -1;
+    private boolean closed;
+
+    private volatile ExchangeObserver.Listener listener = ExchangeObserver.Listener.NONE;
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    NioHttpExchange(
+            final @NotNull NioConnection connection,
+            final @NotNull HttpRequestHead request,
+            final @Nullable NioHttpContext context
+    ) {
+        this.connection = connection;
+        this.request = request;
+        this.context = context;
+        // request bodies aren't read, so the connection can't be reused
+        this.keepAlive = request.keepAlive() && !request.hasBody();
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return request.headers();
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return request.uri();
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return request.method();
+    }
+
+    /**
+     * Returns the context of this exchange, may be null only
+     * before it is handled, if no context matches the request.
+     *
+     * @return The exchange context
+     */
+    @Override
+    public NioHttpContext getHttpContext() {
+        return context;
+    }
+
+    /**
+     * Returns the fixed length of the response body.
+     *
+     * @return The response body length, -1 if it's not fixed
+     * or the headers weren't sent yet
+     */
+    long responseLength() {
+        return responseLength;
+    }
+
+    @NotNull ExchangeObserver.Listener listener() {
+        return listener;
+    }
+
+    void listener(final @NotNull ExchangeObserver.Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Notifies the listener that the exchange completed, only
+     * the first call has effect.
+     *
+     * @param failure The failure cause, null if successful
+     */
+    void complete(final @Nullable Throwable failure) {
+        if (completed.compareAndSet(false, true)) {
+            listener.onCompleted(failure);
+        }
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBodyStream;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBodyStream;
+    }
+
+    @Override
+    public void sendResponseHeaders(final int rCode, final long responseLength) throws IOException {
+        if (body.state != BodyState.NEW) {
+            throw new IOException("headers already sent");
+        }
+        connection.awaitWritable();
+        responseCode = rCode;
+
+        final boolean http10 = "HTTP/1.0".equals(request.protocol());
+        final boolean informational = rCode >= 100 && rCode < 200;
+        final boolean contentLengthAllowed = !informational && rCode != 204;
+        long contentLength = responseLength;
+        if (informational || rCode == 204 || rCode == 304) {
+            contentLength = -1;
+        }
+
+        if ("HEAD".equals(request.method()) || rCode == 304) {
+            // HEAD and 304 responses never have a body, but handlers can
+            // still set the Content-Length header themselves
+            body.state = BodyState.EMPTY;
+        } else if (contentLength == 0) {
+            if (http10) {
+                // no chunked encoding, the end of the body is
+                // marked by closing the connection
+                body.state = BodyState.UNDEFINED;
+                keepAlive = false;
+            } else {
+                responseHeaders.set("Transfer-Encoding", "chunked");
+                body.state = BodyState.CHUNKED;
+            }
+        } else {
+            if (contentLength == -1) {
+                body.state = BodyState.EMPTY;
+                contentLength = 0;
+            } else {
+                body.state = BodyState.FIXED;
+                body.remaining = contentLength;
+                this.responseLength = contentLength;
+            }
+            if (contentLengthAllowed) {
+                responseHeaders.set("Content-Length", Long.toString(contentLength));
+            }
+        }
+
+        if ("close".equalsIgnoreCase(responseHeaders.getFirst("Connection"))) {
+            keepAlive = false;
+        } else if (!keepAlive) {
+            responseHeaders.set("Connection", "close");
+        }
+        responseHeaders.set("Date", DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+
+        final StringBuilder head = new StringBuilder(256)
+                .append("HTTP/1.1 ").append(rCode).append(' ').append(reasonPhrase(rCode)).append("\r\n");
+        for (final Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            for (final String value : header.getValue()) {
+                head.append(header.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        head.append("\r\n");
+        connection.enqueue(new NioConnection.Framing(head.toString()));
+
+        if (body.state == BodyState.EMPTY) {
+            body.close();
+        }
+    }
+
+    @Override
+    public void transferBody(final @NotNull Source source, final long position, final long count) throws IOException {
+        requireNonNull(source, "source");
+        try {
+            if (body.state != BodyState.FIXED) {
+                throw new IOException("Body transfers need a fixed content length");
+            }
+            if (count > body.remaining) {
+                throw new IOException("too many bytes to write to stream");
+            }
+            body.flush();
+            if (connection.closed()) {
+                throw new IOException("Connection closed");
+            }
+        } catch (final IOException e) {
+            source.close();
+            throw e;
+        }
+
+        if (count == 0) {
+            source.close();
+            return;
+        }
+        body.remaining -= count;
+        connection.enqueue(new NioConnection.Transfer(source, position, count));
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return connection.remoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return connection.localAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+        return request.protocol();
+    }
+
+    @Override
+    public Object getAttribute(final String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(final String name, final Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void setStreams(final @Nullable InputStream i, final @Nullable OutputStream o) {
+        if (i != null) {
+            requestBodyStream = i;
+        }
+        if (o != null) {
+            responseBodyStream = o;
+        }
+    }
+
+    @Override
+    public @Nullable HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            body.close();
+        } catch (final IOException ignored) {
+            // the connection was already aborted
+        }
+    }
+
+    /**
+     * Responds with the given status code and no body, if the
+     * response headers weren't sent yet.
+     *
+     * @param rCode The response status code
+     */
+    void reject(final int rCode) {
+        if (body.state != BodyState.NEW) {
+            return;
+        }
+        keepAlive = false;
+        try {
+            sendResponseHeaders(rCode, -1);
+        } catch (final IOException ignored) {
+        }
+        close();
+    }
+
+    /**
+     * Aborts the exchange, closing the connection.
+     *
+     * @param cause The abort cause
+     */
+    void abort(final @NotNull Throwable cause) {
+        body.state = BodyState.FINISHED;
+        complete(cause);
+        connection.abort();
+    }
+
+    private static @NotNull String reasonPhrase(final int rCode) {
+        switch (rCode) {
+            case 200: return "OK";
+            case 204: return "No Content";
+            case 206: return "Partial Content";
+            case 304: return "Not Modified";
+            case 400: return "Bad Request";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 416: return "Range Not Satisfiable";
+            case 429: return "Too Many Requests";
+            case 500: return "Internal Server Error";
+            case 503: return "Service Unavailable";
+            default: return "";
+        }
+    }
+
+    private enum BodyState {
+        /** Headers not sent yet */
+        NEW,
+        /** No body to send */
+        EMPTY,
+        /** Body with a fixed length, sent as-is */
+        FIXED,
+        /** Body sent in chunks */
+        CHUNKED,
+        /** Body sent as-is until the connection is closed */
+        UNDEFINED,
+        /** Body completely sent (or aborted) */
+        FINISHED
+    }
+
+    /**
+     * The response body stream, buffers writes and queues
+     * them in the connection when the buffer is full or when
+     * flushed.
+     */
+    private final class ResponseBody extends OutputStream {
+        private BodyState state = BodyState.NEW;
+        private long remaining;
+        private @Nullable ByteBuffer buffer;
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte @NotNull [] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            switch (state) {
+                case NEW:
+                    throw new IOException("response headers not sent yet");
+                case FINISHED:
+                    throw new IOException("stream is closed");
+                case EMPTY:
+                    if (len > 0) {
+                        throw new IOException("too many bytes to write to stream");
+                    }
+                    return;
+                case FIXED:
+                    if (len > remaining) {
+                        throw new IOException("too many bytes to write to stream");
+                    }
+                    remaining -= len;
+                    break;
+                default:
+                    break;
+            }
+
+            while (len > 0) {
+                if (buffer == null) {
+                    buffer = ByteBuffer.allocate(BODY_BUFFER_SIZE);
+                }
+                final int n = Math.min(len, buffer.remaining());
+                buffer.put(b, off, n);
+                off += n;
+                len -= n;
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            final ByteBuffer buffer = this.buffer;
+            if (buffer == null || buffer.position() == 0) {
+                return;
+            }
+            connection.awaitWritable();
+            this.buffer = null;
+            buffer.flip();
+            if (state == BodyState.CHUNKED) {
+                connection.enqueue(new NioConnection.Framing(Integer.toHexString(buffer.remaining()) + "\r\n"));
+                connection.enqueue(buffer);
+                connection.enqueue(new NioConnection.Framing("\r\n"));
+            } else {
+                connection.enqueue(buffer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            switch (state) {
+                case FINISHED:
+                    return;
+                case NEW:
+                    // closed without a response, like the JDK does
+                    abort(new IOException("Exchange closed without a response"));
+                    return;
+                case FIXED:
+                    if (remaining > 0) {
+                        final IOException e = new IOException("insufficient bytes written to stream");
+                        abort(e);
+                        throw e;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            try {
+                flush();
+            } finally {
+                final BodyState previous = state;
+                state = BodyState.FINISHED;
+                if (previous == BodyState.CHUNKED) {
+                    connection.enqueue(new NioConnection.Framing("0\r\n\r\n"));
+                }
+                connection.enqueue(keepAlive && previous != BodyState.UNDEFINED
+                        ? NioConnection.End.KEEP_ALIVE
+                        : NioConnection.End.CLOSE);
+            }
+        }
+    }
+}
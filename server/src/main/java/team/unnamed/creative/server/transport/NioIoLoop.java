@@ -0,0 +1,225 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.transport;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A selector and the thread that runs it, also executes the
+ * tasks submitted by other threads, so that all the state
+ * of its channels is only touched by this thread.
+ */
+final class NioIoLoop implements Runnable {
+    private static final long SELECT_TIMEOUT = 1000L;
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    // only accessed by the loop thread
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+    private volatile boolean running = true;
+
+    NioIoLoop(final @NotNull String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    @NotNull Selector selector() {
+        return selector;
+    }
+
+    boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Executes the given task in this loop thread, after the
+     * tasks that are already queued.
+     *
+     * @param task The task
+     */
+    void execute(final @NotNull Runnable task) {
+        tasks.add(task);
+        if (!inLoop()) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Executes the given task in this loop thread once the given
+     * delay elapses, must be called from the loop thread.
+     *
+     * @param task  The task
+     * @param delay The delay, in nanoseconds
+     */
+    void schedule(final @NotNull Runnable task, final long delay) {
+        timers.add(new Timer(System.nanoTime() + delay, task));
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+        if (!inLoop()) {
+            try {
+                thread.join(1000L);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                final long timeout = selectTimeout();
+                if (timeout > 0) {
+                    selector.select(timeout);
+                } else {
+                    selector.selectNow();
+                }
+
+                final Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    final SelectionKey key = iterator.next();
+                    iterator.remove();
+                    final Handler handler = (Handler) key.attachment();
+                    try {
+                        handler.onReady(key);
+                    } catch (final CancelledKeyException | IOException e) {
+                        handler.onError(key);
+                    } catch (final RuntimeException e) {
+                        // the channel state is unknown, but the other channels are fine
+                        log("Exception caught when handling a channel", e);
+                        handler.onError(key);
+                    }
+                }
+
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (final RuntimeException e) {
+                        log("Exception caught when running a task", e);
+                    }
+                }
+
+                final long now = System.nanoTime();
+                Timer timer;
+                while ((timer = timers.peek()) != null && timer.deadline - now <= 0) {
+                    timers.poll();
+                    try {
+                        timer.task.run();
+                    } catch (final RuntimeException e) {
+                        log("Exception caught when running a timer", e);
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            log("Exception caught in resource-pack server I/O loop", e);
+        } finally {
+            for (final SelectionKey key : selector.keys()) {
+                ((Handler) key.attachment()).onError(key);
+            }
+            try {
+                selector.close();
+            } catch (final IOException ignored) {
+            }
+        }
+    }
+
+    private static void log(final @NotNull String message, final @NotNull Throwable e) {
+        System.err.println(message);
+        e.printStackTrace();
+    }
+
+    /**
+     * Returns the maximum time to wait for the selector, in
+     * milliseconds, zero to not wait.
+     */
+    private long selectTimeout() {
+        if (!tasks.isEmpty()) {
+            return 0L;
+        }
+        final Timer timer = timers.peek();
+        if (timer == null) {
+            return SELECT_TIMEOUT;
+        }
+        final long remaining = timer.deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return 0L;
+        }
+        // round up, selecting with a zero timeout would block forever
+        return Math.min(SELECT_TIMEOUT, Math.max(1L, TimeUnit.NANOSECONDS.toMillis(remaining + 999_999L)));
+    }
+
+    /**
+     * A task scheduled to run at a given time.
+     */
+    private static final class Timer implements Comparable<Timer> {
+        private final long deadline;
+        private final Runnable task;
+
+        private Timer(final long deadline, final @NotNull Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(final @NotNull Timer other) {
+            return Long.compare(deadline - other.deadline, 0L);
+        }
+    }
+
+    /**
+     * Handles the readiness of a channel registered in a loop.
+     */
+    @FunctionalInterface
+    interface Handler {
+        void onReady(final @NotNull SelectionKey key) throws IOException;
+
+        default void onError(final @NotNull SelectionKey key) {
+            key.cancel();
+            try {
+                key.channel().close();
+            } catch (final IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.transport;
+
+import com.sun.net.httpserver.HttpHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.server.util.BandwidthLimiter;
+import team.unnamed.creative.server.util.SlowClientPolicy;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Non-blocking HTTP/1.1 transport, one of the I/O loops accepts
+ * connections and distributes them between all the loops, which
+ * read request heads and write responses without blocking.
+ *
+ * <p>Handlers are run by the configured executor (or directly by
+ * the I/O loop if none) and only queue the response data, which
+ * the I/O loops write as the clients are able to receive it.</p>
+ */
+final class NioServerTransport implements ServerTransport {
+    private static final long ACCEPT_RETRY_DELAY_MILLIS = 100L;
+
+    private final ServerSocketChannel serverChannel;
+    private final InetSocketAddress address;
+    private final @Nullable Executor executor;
+    private final NioIoLoop[] loops;
+    private final List<NioHttpContext> contexts = new CopyOnWriteArrayList<>();
+    private final @Nullable BandwidthLimiter bandwidthLimiter;
+    private final @Nullable SlowClientPolicy slowClientPolicy;
+
+    private final AtomicInteger activeExchanges = new AtomicInteger();
+    private int nextLoop;
+
+    NioServerTransport(
+            final @NotNull InetSocketAddress address,
+            final int backlog,
+            final @Nullable Executor executor,
+            final int ioThreads,
+            final @Nullable BandwidthLimiter bandwidthLimiter,
+            final @Nullable SlowClientPolicy slowClientPolicy
+    ) throws IOException {
+        requireNonNull(address, "address");
+        if (ioThreads <= 0) {
+            throw new IllegalArgumentException("I/O thread count must be positive, got " + ioThreads);
+        }
+        this.executor = executor;
+        this.bandwidthLimiter = bandwidthLimiter;
+        this.slowClientPolicy = slowClientPolicy;
+
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            this.serverChannel.bind(address, backlog);
+            this.serverChannel.configureBlocking(false);
+            this.address = (InetSocketAddress) serverChannel.getLocalAddress();
+            this.loops = new NioIoLoop[ioThreads];
+            for (int i = 0; i < ioThreads; i++) {
+                loops[i] = new NioIoLoop("creative-resource-pack-server-io-" + i);
+            }
+        } catch (final IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public @NotNull InetSocketAddress address() {
+        return address;
+    }
+
+    @Nullable BandwidthLimiter bandwidthLimiter() {
+        return bandwidthLimiter;
+    }
+
+    @Nullable SlowClientPolicy slowClientPolicy() {
+        return slowClientPolicy;
+    }
+
+    @Override
+    public void context(final @NotNull String path, final @NotNull HttpHandler handler, final @Nullable ExchangeObserver observer) {
+        requireNonNull(path, "path");
+        requireNonNull(handler, "handler");
+        contexts.add(new NioHttpContext(path, handler, observer));
+    }
+
+    /**
+     * Finds the context for the given request path, the one with
+     * the longest matching path.
+     *
+     * @param requestPath The request path
+     * @return The found context, null if none matches
+     */
+    @Nullable NioHttpContext findContext(final @Nullable String requestPath) {
+        if (requestPath == null) {
+            return null;
+        }
+        NioHttpContext found = null;
+        for (final NioHttpContext context : contexts) {
+            if (requestPath.startsWith(context.getPath())
+                    && (found == null || context.getPath().length() > found.getPath().length())) {
+                found = context;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void start() {
+        final NioIoLoop acceptor = loops[0];
+        acceptor.execute(() -> {
+            try {
+                serverChannel.register(acceptor.selector(), SelectionKey.OP_ACCEPT, new NioIoLoop.Handler() {
+                    @Override
+                    public void onReady(final @NotNull SelectionKey key) throws IOException {
+                        accept();
+                    }
+
+                    @Override
+                    public void onError(final @NotNull SelectionKey key) {
+                        acceptFailed(acceptor, key);
+                    }
+                });
+            } catch (final IOException e) {
+                throw new IllegalStateException("Failed to register server channel", e);
+            }
+        });
+        for (final NioIoLoop loop : loops) {
+            loop.start();
+        }
+    }
+
+    /**
+     * Pauses accepting after a failed accept, e.g. when there are no
+     * file descriptors left, instead of closing the server channel,
+     * pending connections wait in the socket backlog meanwhile
+     */
+    private void acceptFailed(final @NotNull NioIoLoop acceptor, final @NotNull SelectionKey key) {
+        if (!key.isValid() || !serverChannel.isOpen()) {
+            // stopped accepting
+            key.cancel();
+            return;
+        }
+        System.err.println("Failed to accept a connection, retrying in " + ACCEPT_RETRY_DELAY_MILLIS + "ms");
+        key.interestOps(0);
+        acceptor.schedule(() -> {
+            if (key.isValid()) {
+                key.interestOps(SelectionKey.OP_ACCEPT);
+            }
+        }, TimeUnit.MILLISECONDS.toNanos(ACCEPT_RETRY_DELAY_MILLIS));
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            final NioIoLoop loop = loops[nextLoop];
+            nextLoop = (nextLoop + 1) % loops.length;
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+            } catch (final IOException e) {
+                channel.close();
+                continue;
+            }
+            final NioConnection connection = new NioConnection(this, loop, channel);
+            loop.execute(connection::register);
+        }
+    }
+
+    /**
+     * Passes a parsed exchange to the handler, on the executor
+     * if set, or on the current (I/O) thread otherwise.
+     *
+     * @param exchange The exchange
+     */
+    void dispatch(final @NotNull NioHttpExchange exchange) {
+        activeExchanges.incrementAndGet();
+        final Runnable task = () -> handle(exchange);
+        if (executor == null) {
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", Long.toString(OVERLOADED_RETRY_AFTER_SECONDS));
+            exchange.reject(503);
+            activeExchanges.decrementAndGet();
+        }
+    }
+
+    private void handle(final @NotNull NioHttpExchange exchange) {
+        try {
+            final NioHttpContext context = exchange.getHttpContext();
+            if (context == null) {
+                exchange.reject(404);
+                return;
+            }
+            final ExchangeObserver observer = context.observer();
+            if (observer != null) {
+                exchange.listener(observer.onExchange(exchange));
+            }
+            context.getHandler().handle(exchange);
+        } catch (final Throwable e) {
+            System.err.println("Exception caught when handling an exchange");
+            e.printStackTrace();
+            // the response state is unknown, so don't reuse the connection
+            exchange.abort(e);
+        } finally {
+            exchange.close();
+            activeExchanges.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void stopAccepting() {
+        try {
+            serverChannel.close();
+        } catch (final IOException ignored) {
+        }
+        // the socket is only released once its key is deregistered,
+        // by the next selection of the acceptor
+        loops[0].selector().wakeup();
+    }
+
+    @Override
+    public void stop(final int delay) {
+        stopAccepting();
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(delay, 0));
+        while (activeExchanges.get() > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10L);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        for (final NioIoLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+}
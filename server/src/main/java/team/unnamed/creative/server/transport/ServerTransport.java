@@ -0,0 +1,144 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.transport;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.server.util.BandwidthLimiter;
+import team.unnamed.creative.server.util.SlowClientPolicy;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+
+/**
+ * The network layer of a resource-pack server, accepts connections,
+ * parses HTTP requests and passes them as {@link com.sun.net.httpserver.HttpExchange}
+ * instances to the {@link HttpHandler} of the context matching
+ * their path.
+ */
+@ApiStatus.Internal
+public interface ServerTransport {
+    /**
+     * The seconds that clients are told to wait before retrying
+     * (in the {@code Retry-After} header) when the server is overloaded
+     */
+    long OVERLOADED_RETRY_AFTER_SECONDS = 5L;
+
+    /**
+     * Creates a transport backed by the JDK {@link HttpServer}, which
+     * handles every exchange in a blocking way.
+     *
+     * <p>The {@link SlowClientPolicy#headerReadTimeout() header read timeout}
+     * is not supported, since the HTTP server reads request heads by
+     * itself, see its {@code sun.net.httpserver.maxReqTime} property.</p>
+     *
+     * @param server           The (not started) HTTP server
+     * @param executor         The executor for handlers, null to use the dispatcher thread
+     * @param bandwidthLimiter The limiter for response bodies, null to not limit them
+     * @param slowClientPolicy The policy to evict slow clients, null to never evict them
+     * @return The created transport
+     */
+    static @NotNull ServerTransport httpServer(
+            final @NotNull HttpServer server,
+            final @Nullable Executor executor,
+            final @Nullable BandwidthLimiter bandwidthLimiter,
+            final @Nullable SlowClientPolicy slowClientPolicy
+    ) {
+        return new HttpServerTransport(server, executor, bandwidthLimiter, slowClientPolicy);
+    }
+
+    /**
+     * Creates and binds a non-blocking transport built on NIO selectors,
+     * which serves many concurrent (and slow) connections from a few
+     * threads and transfers resource-pack bodies with
+     * {@link java.nio.channels.FileChannel#transferTo} when possible.
+     *
+     * @param address          The address to bind
+     * @param backlog          The socket backlog, zero or less for a system default
+     * @param executor         The executor for handlers, null to use the I/O threads
+     * @param ioThreads        The amount of selector threads
+     * @param bandwidthLimiter The limiter for response bodies, null to not limit them
+     * @param slowClientPolicy The policy to evict slow clients, null to never evict them
+     * @return The created transport
+     * @throws IOException If bind fails
+     */
+    static @NotNull ServerTransport nio(
+            final @NotNull InetSocketAddress address,
+            final int backlog,
+            final @Nullable Executor executor,
+            final int ioThreads,
+            final @Nullable BandwidthLimiter bandwidthLimiter,
+            final @Nullable SlowClientPolicy slowClientPolicy
+    ) throws IOException {
+        return new NioServerTransport(address, backlog, executor, ioThreads, bandwidthLimiter, slowClientPolicy);
+    }
+
+    /**
+     * Adds a context, must be called before starting the transport.
+     *
+     * <p>Requests are handled by the context with the longest
+     * path that is a prefix of their path.</p>
+     *
+     * @param path     The context path
+     * @param handler  The exchange handler
+     * @param observer The exchange observer, null to not observe exchanges
+     */
+    void context(final @NotNull String path, final @NotNull HttpHandler handler, final @Nullable ExchangeObserver observer);
+
+    /**
+     * Returns the bound address.
+     *
+     * @return The bound address
+     */
+    @NotNull InetSocketAddress address();
+
+    /**
+     * Starts accepting connections in background threads.
+     */
+    void start();
+
+    /**
+     * Stops accepting new connections, exchanges in progress
+     * are not affected.
+     *
+     * <p>The JDK {@link HttpServer} can't stop accepting connections
+     * without stopping, so its transport starts stopping it in
+     * another thread, which waits for the exchanges in progress
+     * until they finish or the transport is {@link #stop stopped}.</p>
+     */
+    void stopAccepting();
+
+    /**
+     * Stops accepting connections, waits up to the given delay (in
+     * seconds) for active exchanges to finish and releases all the
+     * resources.
+     *
+     * @param delay The maximum time to wait, in seconds
+     */
+    void stop(final int delay);
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global egress bandwidth limiter, shared by all the downloads.
+ *
+ * <p>Writers reserve send time for every chunk before writing it,
+ * reservations are laid out one after the other on a shared schedule
+ * advanced with a compare-and-set, so there are no locks. Since each
+ * download reserves one chunk at a time and waits for it, concurrent
+ * downloads are interleaved chunk by chunk and get a fair share of
+ * the bandwidth.</p>
+ *
+ * <p>Responses of at most {@code prioritySize} bytes may be sent
+ * up to one second ahead of the shared schedule, so small packs
+ * skip the queue of large downloads, the (long term) rate is still
+ * respected, since their reservations delay the later ones.</p>
+ */
+@ApiStatus.Internal
+public final class BandwidthLimiter {
+    /**
+     * The maximum amount of bytes reserved at once, which is the
+     * granularity of the fair sharing
+     */
+    public static final int CHUNK_SIZE = 16 * 1024;
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long PRIORITY_ALLOWANCE_NANOS = NANOS_PER_SECOND;
+
+    private final long bytesPerSecond;
+    private final long prioritySize;
+    // the time at which the bandwidth is free again
+    private final AtomicLong schedule = new AtomicLong(System.nanoTime());
+
+    public BandwidthLimiter(final long bytesPerSecond, final long prioritySize) {
+        if (bytesPerSecond <= 0) {
+            throw new IllegalArgumentException("Bytes per second must be positive, got " + bytesPerSecond);
+        }
+        if (prioritySize < 0) {
+            throw new IllegalArgumentException("Priority size can't be negative, got " + prioritySize);
+        }
+        this.bytesPerSecond = bytesPerSecond;
+        this.prioritySize = prioritySize;
+    }
+
+    /**
+     * Determines whether a response with the given body length
+     * is sent with priority.
+     *
+     * @param length The response body length, -1 if unknown
+     * @return True if the response has priority
+     */
+    public boolean prioritized(final long length) {
+        return length >= 0 && length <= prioritySize;
+    }
+
+    /**
+     * Reserves the bandwidth to send the given amount of bytes, which
+     * must not be greater than {@link #CHUNK_SIZE}.
+     *
+     * @param bytes    The amount of bytes
+     * @param priority Whether the bytes have priority
+     * @return The amount of nanoseconds to wait before sending
+     * the bytes, zero to send them now
+     */
+    public long reserve(final int bytes, final boolean priority) {
+        return reserve(bytes, priority, System.nanoTime());
+    }
+
+    long reserve(final int bytes, final boolean priority, final long now) {
+        if (bytes < 0 || bytes > CHUNK_SIZE) {
+            throw new IllegalArgumentException("Invalid reservation size: " + bytes);
+        }
+        final long cost = bytes * NANOS_PER_SECOND / bytesPerSecond;
+        long start;
+        while (true) {
+            final long current = schedule.get();
+            // unused bandwidth is not accumulated
+            start = current - now < 0 ? now : current;
+            if (schedule.compareAndSet(current, start + cost)) {
+                break;
+            }
+        }
+        final long wait = start - now - (priority ? PRIORITY_ALLOWANCE_NANOS : 0L);
+        return Math.max(0L, wait);
+    }
+}
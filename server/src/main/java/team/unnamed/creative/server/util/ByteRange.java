@@ -0,0 +1,149 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents a single, satisfiable byte range of an HTTP
+ * {@code Range} request header, see RFC 7233.
+ */
+@ApiStatus.Internal
+public final class ByteRange {
+    /**
+     * Sentinel returned by {@link #parse} when the requested
+     * range can't be satisfied for the given content length.
+     */
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long first;
+    private final long last;
+
+    private ByteRange(final long first, final long last) {
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * Parses the given {@code Range} header value for a representation
+     * of the given length.
+     *
+     * <p>Returns null if the header is malformed, uses an unknown unit
+     * or requests multiple ranges, in which case, the header should be
+     * ignored and the full representation sent.</p>
+     *
+     * @param header The Range header value
+     * @param length The full content length
+     * @return The parsed range, {@link #UNSATISFIABLE} or null
+     */
+    public static @Nullable ByteRange parse(final @NotNull String header, final long length) {
+        if (!header.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+
+        final String spec = header.substring(BYTES_UNIT.length()).trim();
+        if (spec.indexOf(',') != -1) {
+            // multiple ranges, not supported, serve everything
+            return null;
+        }
+
+        final int dash = spec.indexOf('-');
+        if (dash == -1) {
+            return null;
+        }
+
+        try {
+            if (dash == 0) {
+                // suffix range: "-N", the last N bytes
+                final long suffixLength = parseLength(spec.substring(1));
+                if (suffixLength == 0 || length == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, length - suffixLength), length - 1);
+            }
+
+            final long first = parseLength(spec.substring(0, dash));
+            final String rawLast = spec.substring(dash + 1);
+            final long last = rawLast.isEmpty() ? Long.MAX_VALUE : parseLength(rawLast);
+
+            if (last < first) {
+                // syntactically invalid
+                return null;
+            }
+            if (first >= length) {
+                return UNSATISFIABLE;
+            }
+            return new ByteRange(first, Math.min(last, length - 1));
+        } catch (final NumberFormatException ignored) {
+            return null;
+        }
+    }
+
+    private static long parseLength(final @NotNull String value) {
+        // Long.parseLong accepts signs, ranges must be plain digits
+        if (value.isEmpty() || value.charAt(0) == '+' || value.charAt(0) == '-') {
+            throw new NumberFormatException("Invalid range value: " + value);
+        }
+        return Long.parseLong(value);
+    }
+
+    /**
+     * Returns the position of the first byte in the range.
+     *
+     * @return The first byte position
+     */
+    public long first() {
+        return first;
+    }
+
+    /**
+     * Returns the position of the last byte in the range, inclusive.
+     *
+     * @return The last byte position
+     */
+    public long last() {
+        return last;
+    }
+
+    /**
+     * Returns the amount of bytes in the range.
+     *
+     * @return The range length
+     */
+    public long length() {
+        return last - first + 1;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "ByteRange{" +
+                "first=" + first +
+                ", last=" + last +
+                '}';
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs events in a single background thread, in order, through
+ * a bounded queue, dispatching never blocks, events that don't
+ * fit in the queue are dropped instead.
+ */
+@ApiStatus.Internal
+public final class EventDispatcher implements Runnable {
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    private final BlockingQueue<Runnable> queue;
+    private final Thread thread;
+    private volatile boolean stopping;
+
+    public EventDispatcher(final @NotNull String name, final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues the given event, without blocking.
+     *
+     * @param event The event
+     * @return False if the queue is full and the event was dropped
+     */
+    public boolean dispatch(final @NotNull Runnable event) {
+        return queue.offer(event);
+    }
+
+    /**
+     * Stops the dispatcher thread once the queued events are run,
+     * events dispatched after this may never run.
+     */
+    public void shutdown() {
+        stopping = true;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            final Runnable event;
+            try {
+                event = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                return;
+            }
+            if (event == null) {
+                if (stopping) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                event.run();
+            } catch (final Throwable e) {
+                System.err.println("Exception caught when running a resource-pack server event");
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Limits on how slow clients may be before their connections are
+ * evicted, so that a few stalled clients can't hold every worker.
+ *
+ * <p>Every limit is disabled when zero. Transports check them
+ * periodically, every {@link #checkInterval()}, time spent throttled
+ * by a {@link BandwidthLimiter} or waiting for the handler to produce
+ * data doesn't count against the client.</p>
+ */
+@ApiStatus.Internal
+public final class SlowClientPolicy {
+    private static final long MIN_CHECK_INTERVAL = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_CHECK_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long headerReadTimeout;
+    private final long writeIdleTimeout;
+    private final long minBytesPerSecond;
+    private final long throughputWindow;
+    private final long checkInterval;
+    private final Runnable evictionListener;
+
+    /**
+     * Creates a new policy.
+     *
+     * @param headerReadTimeout The maximum time to receive a request head, in nanoseconds
+     * @param writeIdleTimeout  The maximum time without writing any response byte while
+     *                          the client is not receiving them, in nanoseconds
+     * @param minBytesPerSecond The minimum response throughput
+     * @param throughputWindow  The time over which the throughput is measured, in nanoseconds
+     * @param evictionListener  Called every time a connection is evicted
+     */
+    public SlowClientPolicy(
+            final long headerReadTimeout,
+            final long writeIdleTimeout,
+            final long minBytesPerSecond,
+            final long throughputWindow,
+            final @NotNull Runnable evictionListener
+    ) {
+        if (headerReadTimeout < 0) {
+            throw new IllegalArgumentException("Header read timeout can't be negative, got " + headerReadTimeout);
+        }
+        if (writeIdleTimeout < 0) {
+            throw new IllegalArgumentException("Write idle timeout can't be negative, got " + writeIdleTimeout);
+        }
+        if (minBytesPerSecond < 0) {
+            throw new IllegalArgumentException("Minimum bytes per second can't be negative, got " + minBytesPerSecond);
+        }
+        if (minBytesPerSecond > 0 && throughputWindow <= 0) {
+            throw new IllegalArgumentException("Throughput window must be positive, got " + throughputWindow);
+        }
+        this.headerReadTimeout = headerReadTimeout;
+        this.writeIdleTimeout = writeIdleTimeout;
+        this.minBytesPerSecond = minBytesPerSecond;
+        this.throughputWindow = throughputWindow;
+        this.evictionListener = requireNonNull(evictionListener, "evictionListener");
+
+        long shortest = MAX_CHECK_INTERVAL * 4;
+        for (final long limit : new long[] { headerReadTimeout, writeIdleTimeout, minBytesPerSecond > 0 ? throughputWindow : 0 }) {
+            if (limit > 0) {
+                shortest = Math.min(shortest, limit);
+            }
+        }
+        this.checkInterval = Math.max(MIN_CHECK_INTERVAL, Math.min(MAX_CHECK_INTERVAL, shortest / 4));
+    }
+
+    /**
+     * Returns the maximum time to receive a request head, zero
+     * if unlimited.
+     *
+     * @return The header read timeout, in nanoseconds
+     */
+    public long headerReadTimeout() {
+        return headerReadTimeout;
+    }
+
+    /**
+     * Determines whether response writes are limited at all.
+     *
+     * @return True if a write idle timeout or a minimum throughput is set
+     */
+    public boolean limitsWrites() {
+        return writeIdleTimeout > 0 || minBytesPerSecond > 0;
+    }
+
+    /**
+     * Returns how often connections should be checked.
+     *
+     * @return The check interval, in nanoseconds
+     */
+    public long checkInterval() {
+        return checkInterval;
+    }
+
+    /**
+     * Records the eviction of a connection.
+     */
+    public void evicted() {
+        evictionListener.run();
+    }
+
+    /**
+     * Creates a tracker for the writes of a single connection.
+     *
+     * @return The created tracker
+     */
+    public @NotNull WriteTracker writeTracker() {
+        return writeTracker(System.nanoTime());
+    }
+
+    @NotNull WriteTracker writeTracker(final long now) {
+        return new WriteTracker(now);
+    }
+
+    /**
+     * Tracks the progress of the response writes of a connection,
+     * its methods may be called from different threads.
+     */
+    public final class WriteTracker {
+        private long lastProgress;
+        private long lastCheck;
+        private long windowBytes;
+        private long windowNanos;
+
+        private WriteTracker(final long now) {
+            this.lastProgress = now;
+            this.lastCheck = now;
+        }
+
+        /**
+         * Records written response bytes.
+         *
+         * @param bytes The amount of written bytes
+         * @param now   The current {@link System#nanoTime()}
+         */
+        public synchronized void written(final long bytes, final long now) {
+            if (bytes > 0) {
+                windowBytes += bytes;
+                lastProgress = now;
+            }
+        }
+
+        /**
+         * Checks whether the client is too slow, called periodically.
+         *
+         * @param now     The current {@link System#nanoTime()}
+         * @param pending Whether data is waiting for the client to
+         *                receive it, false while throttled or idle
+         * @return True if the connection must be evicted
+         */
+        public synchronized boolean slow(final long now, final boolean pending) {
+            final long elapsed = now - lastCheck;
+            lastCheck = now;
+            if (!pending) {
+                // waiting on the server, not on the client, the bytes written
+                // meanwhile are not measured, or they would hide a slow client
+                // in the next window
+                lastProgress = now;
+                windowBytes = 0;
+                windowNanos = 0;
+                return false;
+            }
+            if (writeIdleTimeout > 0 && now - lastProgress > writeIdleTimeout) {
+                return true;
+            }
+            if (minBytesPerSecond > 0) {
+                windowNanos += elapsed;
+                if (windowNanos >= throughputWindow) {
+                    // bytes / seconds < minimum, without dividing
+                    final boolean slow = windowBytes * (double) NANOS_PER_SECOND < minBytesPerSecond * (double) windowNanos;
+                    windowBytes = 0;
+                    windowNanos = 0;
+                    return slow;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter with a token bucket per key, each bucket holds up to
+ * {@code burst} tokens and is refilled at a constant rate, acquiring
+ * takes one token.
+ *
+ * <p>Buckets are split in lock stripes by key hash, so concurrent
+ * requests for different keys rarely contend. Full buckets are
+ * indistinguishable from new ones, so they are discarded when a
+ * stripe grows, keeping memory proportional to the active keys.</p>
+ *
+ * @param <K> The key type
+ */
+@ApiStatus.Internal
+public final class TokenBucketLimiter<K> {
+    private static final int STRIPES = 64;
+    private static final int MIN_CLEANUP_SIZE = 256;
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final Stripe<K>[] stripes;
+
+    public TokenBucketLimiter(final double permitsPerSecond, final int burst) {
+        if (!(permitsPerSecond > 0) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("Permits per second must be positive and finite, got " + permitsPerSecond);
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("Burst must be positive, got " + burst);
+        }
+        this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.stripes = newStripes();
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * Tries to take a token from the bucket of the given key.
+     *
+     * @param key The key
+     * @return Zero if a token was taken, otherwise, the amount of
+     * nanoseconds until the next token is available
+     */
+    public long tryAcquire(final @NotNull K key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(final @NotNull K key, final long now) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        final Stripe<K> stripe = stripes[hash & (STRIPES - 1)];
+
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                if (stripe.buckets.size() >= stripe.cleanupSize) {
+                    removeFull(stripe, now);
+                }
+                bucket = new Bucket(burst, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                refill(bucket, now);
+            }
+
+            if (bucket.tokens >= 1D) {
+                bucket.tokens -= 1D;
+                return 0L;
+            }
+            return Math.max(1L, (long) Math.ceil((1D - bucket.tokens) / tokensPerNano));
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (final Stripe<K> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private void refill(final @NotNull Bucket bucket, final long now) {
+        final long elapsed = now - bucket.lastRefill;
+        if (elapsed > 0) {
+            bucket.tokens = Math.min(burst, bucket.tokens + elapsed * tokensPerNano);
+            bucket.lastRefill = now;
+        }
+    }
+
+    private void removeFull(final @NotNull Stripe<K> stripe, final long now) {
+        final Iterator<Bucket> iterator = stripe.buckets.values().iterator();
+        while (iterator.hasNext()) {
+            final Bucket bucket = iterator.next();
+            refill(bucket, now);
+            if (bucket.tokens >= burst) {
+                iterator.remove();
+            }
+        }
+        // amortize cleanups if most buckets are still in use
+        stripe.cleanupSize = Math.max(MIN_CLEANUP_SIZE, stripe.buckets.size() * 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Stripe<K> @NotNull [] newStripes() {
+        return (Stripe<K>[]) new Stripe<?>[STRIPES];
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(final double tokens, final long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+        }
+    }
+
+    private static final class Stripe<K> {
+        private final Map<K, Bucket> buckets = new HashMap<>();
+        private int cleanupSize = MIN_CLEANUP_SIZE;
+    }
+}
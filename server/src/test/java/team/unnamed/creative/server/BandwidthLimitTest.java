@@ -0,0 +1,110 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class BandwidthLimitTest {
+
+    private static final int PORT = 7279;
+    private static final int PACK_SIZE = 128 * 1024;
+    private static final long BYTES_PER_SECOND = 256 * 1024;
+
+    @Test
+    @DisplayName("Test that concurrent downloads share the bandwidth limit")
+    void test_limit() throws Exception {
+        testLimit(false);
+    }
+
+    @Test
+    @DisplayName("Test that concurrent NIO downloads share the bandwidth limit")
+    void test_nio_limit() throws Exception {
+        testLimit(true);
+    }
+
+    private void testLimit(boolean nio) throws Exception {
+        BuiltResourcePack pack = BuiltResourcePack.of(Writable.bytes(new byte[PACK_SIZE]), "0123456789abcdef0123456789abcdef01234567");
+        ResourcePackServer.Builder builder = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(pack)
+                .boundedExecutor(4, 4)
+                .bandwidthLimit(BYTES_PER_SECOND);
+        if (nio) {
+            builder.nioTransport(1);
+        }
+        ResourcePackServer server = builder.build();
+        server.start();
+
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            long start = System.nanoTime();
+            CompletableFuture<?>[] downloads = new CompletableFuture<?>[4];
+            for (int i = 0; i < downloads.length; i++) {
+                downloads[i] = CompletableFuture.runAsync(BandwidthLimitTest::download, clients);
+            }
+            CompletableFuture.allOf(downloads).get(30, TimeUnit.SECONDS);
+            long elapsed = System.nanoTime() - start;
+
+            // 512 KiB at 256 KiB/s, minus the first chunk, which is sent right away
+            long expected = TimeUnit.SECONDS.toNanos(2) * 9 / 10;
+            Assertions.assertTrue(elapsed >= expected, "Downloads took " + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms");
+        } finally {
+            clients.shutdown();
+            server.stop(0);
+        }
+    }
+
+    private static void download() {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + PORT + "/").openConnection();
+            Assertions.assertEquals(200, connection.getResponseCode());
+            long read = 0;
+            try (InputStream input = connection.getInputStream()) {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = input.read(buffer)) != -1) {
+                    read += n;
+                }
+            }
+            Assertions.assertEquals(PACK_SIZE, read);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
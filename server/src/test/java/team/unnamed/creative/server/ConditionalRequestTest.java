@@ -0,0 +1,72 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+class ConditionalRequestTest extends LocalHttpTestBase {
+
+    @Test
+    @DisplayName("Test that the entity tag is derived from the pack hash")
+    void test_etag() throws IOException {
+        HttpURLConnection connection = open("/");
+        connection.setRequestMethod("HEAD");
+        setMinecraftHeaders(connection);
+
+        Assertions.assertEquals(200, connection.getResponseCode());
+        Assertions.assertEquals('"' + resourcePack.hash() + '"', connection.getHeaderField("ETag"));
+        Assertions.assertNotNull(connection.getHeaderField("Cache-Control"));
+    }
+
+    @Test
+    @DisplayName("Test that a matching If-None-Match header is answered with 304")
+    void test_not_modified() throws IOException {
+        HttpURLConnection connection = open("/");
+        connection.setRequestMethod("GET");
+        setMinecraftHeaders(connection);
+        connection.setRequestProperty("If-None-Match", "\"other\", W/\"" + resourcePack.hash() + '"');
+
+        Assertions.assertEquals(304, connection.getResponseCode());
+        Assertions.assertEquals('"' + resourcePack.hash() + '"', connection.getHeaderField("ETag"));
+    }
+
+    @Test
+    @DisplayName("Test that a different If-None-Match header is answered with the pack")
+    void test_modified() throws IOException {
+        HttpURLConnection connection = open("/");
+        connection.setRequestMethod("GET");
+        setMinecraftHeaders(connection);
+        connection.setRequestProperty("If-None-Match", "\"outdated\"");
+
+        Assertions.assertEquals(200, connection.getResponseCode());
+        Assertions.assertEquals(resourcePack.data().toByteArray().length, connection.getContentLengthLong());
+        connection.getInputStream().close();
+    }
+
+}
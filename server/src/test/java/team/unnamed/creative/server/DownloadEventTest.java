@@ -0,0 +1,162 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.server.event.Download;
+import team.unnamed.creative.server.event.DownloadListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class DownloadEventTest {
+
+    private static final int PORT = 7282;
+    private static final int PACK_SIZE = 64 * 1024;
+
+    @Test
+    @DisplayName("Test that download lifecycle events are delivered")
+    void test_events() throws Exception {
+        testEvents(false);
+    }
+
+    @Test
+    @DisplayName("Test that NIO download lifecycle events are delivered")
+    void test_nio_events() throws Exception {
+        testEvents(true);
+    }
+
+    @Test
+    @DisplayName("Test that slow listeners don't delay downloads")
+    void test_slow_listener() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ResourcePackServer server = server(false)
+                .downloadListener(new DownloadListener() {
+                    @Override
+                    public void onStarted(@NotNull Download download) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                })
+                .eventQueueCapacity(1)
+                .build();
+        server.start();
+        try {
+            for (int i = 0; i < 4; i++) {
+                Assertions.assertEquals(PACK_SIZE, download(false));
+            }
+            Assertions.assertTrue(server.metrics().droppedEvents() > 0);
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+    }
+
+    private void testEvents(boolean nio) throws Exception {
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        ResourcePackServer server = server(nio)
+                .downloadListener(new DownloadListener() {
+                    @Override
+                    public void onStarted(@NotNull Download download) {
+                        events.add("started " + download.path() + " " + username(download));
+                    }
+
+                    @Override
+                    public void onCompleted(@NotNull Download download, long bytes, long durationNanos) {
+                        Assertions.assertTrue(durationNanos > 0);
+                        events.add("completed " + bytes);
+                    }
+
+                    @Override
+                    public void onAborted(@NotNull Download download, long bytes, @NotNull Throwable cause) {
+                        events.add("aborted");
+                    }
+                })
+                .build();
+        server.start();
+        try {
+            Assertions.assertEquals(PACK_SIZE, download(true));
+            Assertions.assertEquals("started / Yusshu", events.poll(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("completed " + PACK_SIZE, events.poll(5, TimeUnit.SECONDS));
+
+            Assertions.assertEquals(PACK_SIZE, download(false));
+            Assertions.assertEquals("started / null", events.poll(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("completed " + PACK_SIZE, events.poll(5, TimeUnit.SECONDS));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static String username(Download download) {
+        return download.request() == null ? "null" : download.request().username();
+    }
+
+    private static ResourcePackServer.Builder server(boolean nio) {
+        BuiltResourcePack pack = BuiltResourcePack.of(Writable.bytes(new byte[PACK_SIZE]), "0123456789abcdef0123456789abcdef01234567");
+        ResourcePackServer.Builder builder = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(pack);
+        if (nio) {
+            builder.nioTransport(1);
+        }
+        return builder;
+    }
+
+    private static long download(boolean minecraft) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + PORT + "/").openConnection();
+        if (minecraft) {
+            connection.setRequestProperty("X-Minecraft-UUID", "30b9e3deb4b64d37943af5747f710ca6");
+            connection.setRequestProperty("X-Minecraft-Username", "Yusshu");
+            connection.setRequestProperty("X-Minecraft-Pack-Format", "8");
+            connection.setRequestProperty("X-Minecraft-Version", "1.18.2");
+            connection.setRequestProperty("X-Minecraft-Version-ID", "1.18.2");
+        }
+        Assertions.assertEquals(200, connection.getResponseCode());
+        try (InputStream input = connection.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            long read = 0;
+            int n;
+            while ((n = input.read(buffer)) != -1) {
+                read += n;
+            }
+            return read;
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class DrainTest {
+
+    private static final int PORT = 7281;
+    // big enough to not fit in the socket buffers
+    private static final int PACK_SIZE = 32 * 1024 * 1024;
+
+    @Test
+    @DisplayName("Test that downloads in progress are drained on stop")
+    void test_drain() throws Exception {
+        testDrain(false);
+    }
+
+    @Test
+    @DisplayName("Test that NIO downloads in progress are drained on stop")
+    void test_nio_drain() throws Exception {
+        testDrain(true);
+    }
+
+    @Test
+    @DisplayName("Test that downloads still in progress at the deadline are aborted")
+    void test_abort() throws Exception {
+        testAbort(false);
+    }
+
+    @Test
+    @DisplayName("Test that NIO downloads still in progress at the deadline are aborted")
+    void test_nio_abort() throws Exception {
+        testAbort(true);
+    }
+
+    @Test
+    @DisplayName("Test that new connections are refused while draining")
+    void test_stop_accepting() throws Exception {
+        testStopAccepting(false);
+    }
+
+    @Test
+    @DisplayName("Test that new NIO connections are refused while draining")
+    void test_nio_stop_accepting() throws Exception {
+        testStopAccepting(true);
+    }
+
+    private void testStopAccepting(boolean nio) throws Exception {
+        ResourcePackServer server = start(nio);
+        InputStream input = startDownload();
+
+        CompletableFuture<DrainResult> drain = CompletableFuture.supplyAsync(() -> server.drain(30, TimeUnit.SECONDS));
+        Thread.sleep(100L);
+        Assertions.assertThrows(ConnectException.class, () -> new Socket("localhost", PORT).close());
+
+        // the download in progress is still drained
+        Assertions.assertEquals(PACK_SIZE - 1024, drain(input));
+        Assertions.assertEquals(new DrainResult(1, 0), drain.get(30, TimeUnit.SECONDS));
+    }
+
+    private void testDrain(boolean nio) throws Exception {
+        ResourcePackServer server = start(nio);
+        InputStream input = startDownload();
+
+        CompletableFuture<DrainResult> drain = CompletableFuture.supplyAsync(() -> server.drain(30, TimeUnit.SECONDS));
+        // the download finishes after the drain started
+        Thread.sleep(100L);
+        Assertions.assertEquals(PACK_SIZE - 1024, drain(input));
+
+        Assertions.assertEquals(new DrainResult(1, 0), drain.get(30, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, server.activeDownloads());
+    }
+
+    private void testAbort(boolean nio) throws Exception {
+        ResourcePackServer server = start(nio);
+        InputStream input = startDownload();
+
+        long start = System.nanoTime();
+        DrainResult result = server.drain(300, TimeUnit.MILLISECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        Assertions.assertEquals(new DrainResult(0, 1), result);
+        Assertions.assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(300), "Drain took " + elapsed + "ns");
+        try {
+            Assertions.assertTrue(drain(input) < PACK_SIZE - 1024);
+        } catch (IOException ignored) {
+            // cut off
+        }
+    }
+
+    private static ResourcePackServer start(boolean nio) throws IOException {
+        BuiltResourcePack pack = BuiltResourcePack.of(Writable.bytes(new byte[PACK_SIZE]), "0123456789abcdef0123456789abcdef01234567");
+        ResourcePackServer.Builder builder = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(pack)
+                .boundedExecutor(2, 4);
+        if (nio) {
+            builder.nioTransport(1);
+        }
+        ResourcePackServer server = builder.build();
+        server.start();
+        return server;
+    }
+
+    private static InputStream startDownload() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + PORT + "/").openConnection();
+        Assertions.assertEquals(200, connection.getResponseCode());
+        InputStream input = connection.getInputStream();
+        byte[] head = new byte[1024];
+        int read = 0;
+        while (read < head.length) {
+            read += input.read(head, read, head.length - read);
+        }
+        return input;
+    }
+
+    private static long drain(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            byte[] buffer = new byte[8192];
+            long read = 0;
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                read += n;
+            }
+            return read;
+        }
+    }
+
+}
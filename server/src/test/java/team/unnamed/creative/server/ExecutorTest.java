@@ -0,0 +1,183 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+class ExecutorTest {
+
+    private static final int PORT = 7272;
+    private static final int CLIENTS = 16;
+
+    @Test
+    @DisplayName("Test downloads using a bounded executor")
+    void test_bounded_executor() throws Exception {
+        test(builder -> builder.boundedExecutor(2, CLIENTS));
+    }
+
+    @Test
+    @DisplayName("Test full bounded executors reject requests with 503")
+    void test_full_bounded_executor() throws Exception {
+        testFull(UnaryOperator.identity());
+    }
+
+    @Test
+    @DisplayName("Test full bounded executors reject requests with 503 using the NIO transport")
+    void test_full_bounded_executor_nio() throws Exception {
+        testFull(builder -> builder.nioTransport(1));
+    }
+
+    @Test
+    @DisplayName("Test downloads using a virtual thread executor")
+    void test_virtual_thread_executor() throws Exception {
+        test(ResourcePackServer.Builder::virtualThreadExecutor);
+    }
+
+    private void testFull(UnaryOperator<ResourcePackServer.Builder> configurator) throws Exception {
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ResourcePackServer server = configurator.apply(ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .boundedExecutor(1, 1)
+                .handler((request, exchange) -> {
+                    handling.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    exchange.sendResponseHeaders(200, -1);
+                    exchange.close();
+                })).build();
+        server.start();
+
+        try {
+            // the first request takes the only thread, the second one the only queue slot
+            CompletableFuture<Integer> handled = CompletableFuture.supplyAsync(ExecutorTest::request);
+            Assertions.assertTrue(handling.await(5, TimeUnit.SECONDS), "first request not handled");
+            CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(ExecutorTest::request);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (server.queuedRequests() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertEquals(1, server.queuedRequests(), "queued requests");
+
+            // answered right away, even though the handler is still busy
+            HttpURLConnection rejected = connect();
+            try {
+                Assertions.assertEquals(503, rejected.getResponseCode());
+                Assertions.assertEquals("5", rejected.getHeaderField("Retry-After"));
+            } finally {
+                rejected.disconnect();
+            }
+
+            release.countDown();
+            Assertions.assertEquals(200, handled.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(200, queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+    }
+
+    private static int request() {
+        try {
+            HttpURLConnection connection = connect();
+            try {
+                return connection.getResponseCode();
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static HttpURLConnection connect() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + PORT + "/").openConnection();
+        connection.setReadTimeout(5000);
+        return connection;
+    }
+
+    private void test(UnaryOperator<ResourcePackServer.Builder> configurator) throws Exception {
+        BuiltResourcePack pack = MinecraftResourcePackWriter.minecraft().build(resourcePack ->
+                resourcePack.packMeta(8, "Resource pack!"));
+        ResourcePackServer server = configurator.apply(ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(pack)).build();
+        server.start();
+
+        try {
+            List<CompletableFuture<Integer>> downloads = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                downloads.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + PORT + "/").openConnection();
+                        int length = 0;
+                        try (InputStream input = connection.getInputStream()) {
+                            while (input.read() != -1) {
+                                length++;
+                            }
+                        }
+                        return length;
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
+            }
+
+            int expectedLength = pack.data().toByteArray().length;
+            for (CompletableFuture<Integer> download : downloads) {
+                Assertions.assertEquals(expectedLength, download.get());
+            }
+
+            // clients may finish reading before the handler returns
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((server.activeDownloads() != 0 || server.queuedRequests() != 0) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertEquals(0, server.activeDownloads(), "active downloads");
+            Assertions.assertEquals(0, server.queuedRequests(), "queued requests");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class FileDownloadTest {
+
+    private static final int PORT = 7271;
+
+    @Test
+    @DisplayName("Test that a file-backed resource-pack is downloaded correctly")
+    void test_file_download(@TempDir Path directory) throws IOException {
+        BuiltResourcePack built = MinecraftResourcePackWriter.minecraft().build(resourcePack ->
+                resourcePack.packMeta(8, "File resource pack!"));
+        byte[] data = built.data().toByteArray();
+        Path file = directory.resolve("pack.zip");
+        Files.write(file, data);
+
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(BuiltResourcePack.of(file, built.hash()))
+                .build();
+        server.start();
+
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + PORT + "/").openConnection();
+            connection.setRequestMethod("GET");
+
+            Assertions.assertEquals(200, connection.getResponseCode());
+            Assertions.assertEquals(data.length, connection.getContentLengthLong());
+            Assertions.assertEquals('"' + built.hash() + '"', connection.getHeaderField("ETag"));
+
+            try (InputStream input = connection.getInputStream()) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                byte[] buf = new byte[1024];
+                int read;
+                while ((read = input.read(buf)) != -1) {
+                    output.write(buf, 0, read);
+                }
+                Assertions.assertArrayEquals(data, output.toByteArray());
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+}
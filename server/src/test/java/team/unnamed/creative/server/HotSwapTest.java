@@ -0,0 +1,123 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Random;
+
+class HotSwapTest {
+
+    private static final int PORT = 7276;
+
+    @Test
+    @DisplayName("Test that swapping the pack doesn't affect downloads in progress")
+    void test_swap() throws Exception {
+        testSwap(false);
+    }
+
+    @Test
+    @DisplayName("Test that swapping the pack doesn't affect NIO downloads in progress")
+    void test_nio_swap() throws Exception {
+        testSwap(true);
+    }
+
+    private void testSwap(boolean nio) throws Exception {
+        // big enough to not fit in the socket buffers
+        byte[] oldData = randomBytes(1, 32 * 1024 * 1024);
+        byte[] newData = randomBytes(2, 1024);
+        BuiltResourcePack oldPack = BuiltResourcePack.of(Writable.bytes(oldData), "1111111111111111111111111111111111111111");
+        BuiltResourcePack newPack = BuiltResourcePack.of(Writable.bytes(newData), "2222222222222222222222222222222222222222");
+
+        ResourcePackServer.Builder builder = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(oldPack);
+        if (nio) {
+            builder.nioTransport(1);
+        } else {
+            // the dispatcher thread would be busy writing the old pack
+            builder.boundedExecutor(2, 4);
+        }
+        ResourcePackServer server = builder.build();
+        server.start();
+
+        try {
+            HttpURLConnection inProgress = open();
+            Assertions.assertEquals(200, inProgress.getResponseCode());
+            InputStream oldInput = inProgress.getInputStream();
+            byte[] head = new byte[1024];
+            int read = 0;
+            while (read < head.length) {
+                read += oldInput.read(head, read, head.length - read);
+            }
+
+            server.pack(newPack);
+
+            HttpURLConnection swapped = open();
+            Assertions.assertEquals(200, swapped.getResponseCode());
+            Assertions.assertEquals("\"" + newPack.hash() + "\"", swapped.getHeaderField("ETag"));
+            Assertions.assertArrayEquals(newData, read(swapped.getInputStream()));
+
+            ByteArrayOutputStream rest = new ByteArrayOutputStream();
+            rest.write(head);
+            rest.write(read(oldInput));
+            Assertions.assertArrayEquals(oldData, rest.toByteArray());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static byte[] randomBytes(long seed, int length) {
+        byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private static byte[] read(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                output.write(buffer, 0, n);
+            }
+            return output.toByteArray();
+        }
+    }
+
+    private static HttpURLConnection open() throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + PORT + "/").openConnection();
+    }
+
+}
@@ -64,6 +64,14 @@ class LocalHttpTestBase {
                 .openConnection();
     }
 
+    void setMinecraftHeaders(HttpURLConnection connection) {
+        connection.setRequestProperty("X-Minecraft-UUID", "30b9e3deb4b64d37943af5747f710ca6");
+        connection.setRequestProperty("X-Minecraft-Username", "Yusshu");
+        connection.setRequestProperty("X-Minecraft-Pack-Format", "8");
+        connection.setRequestProperty("X-Minecraft-Version", "1.18.2");
+        connection.setRequestProperty("X-Minecraft-Version-ID", "1.18.2");
+    }
+
     void stream(InputStream input, OutputStream output) throws IOException {
         byte[] buf = new byte[1024];
         int read;
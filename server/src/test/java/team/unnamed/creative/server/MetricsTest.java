@@ -0,0 +1,138 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.server.metrics.ResourcePackServerMetrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+class MetricsTest {
+
+    private static final int PORT = 7274;
+
+    @Test
+    @DisplayName("Test that requests are measured and the metrics are served as plain text")
+    void test_metrics() throws Exception {
+        testMetrics(false);
+    }
+
+    @Test
+    @DisplayName("Test that requests served by the NIO transport are measured")
+    void test_nio_metrics() throws Exception {
+        testMetrics(true);
+    }
+
+    private void testMetrics(boolean nio) throws Exception {
+        BuiltResourcePack pack = MinecraftResourcePackWriter.minecraft().build(resourcePack ->
+                resourcePack.packMeta(8, "Measured resource pack!"));
+        int length = pack.data().toByteArray().length;
+
+        ResourcePackServer.Builder builder = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(pack, true)
+                .metricsPath("/metrics");
+        if (nio) {
+            builder.nioTransport(1);
+        }
+        ResourcePackServer server = builder.build();
+        server.start();
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                HttpURLConnection connection = open("/");
+                setMinecraftHeaders(connection);
+                Assertions.assertEquals(200, connection.getResponseCode());
+                Assertions.assertEquals(length, read(connection.getInputStream()).length);
+            }
+            HttpURLConnection invalid = open("/");
+            Assertions.assertEquals(400, invalid.getResponseCode());
+            int invalidLength = read(invalid.getErrorStream()).length;
+
+            // rejected requests are not downloads
+            HttpURLConnection post = open("/");
+            post.setRequestMethod("POST");
+            Assertions.assertEquals(405, post.getResponseCode());
+
+            ResourcePackServerMetrics metrics = server.metrics();
+            long deadline = System.currentTimeMillis() + 5000L;
+            while (metrics.inFlightDownloads() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+
+            Assertions.assertEquals(2, metrics.validRequests());
+            Assertions.assertEquals(1, metrics.invalidRequests());
+            Assertions.assertEquals(0, metrics.failedRequests());
+            Assertions.assertEquals(0, metrics.inFlightDownloads());
+            Assertions.assertEquals(2L * length + invalidLength, metrics.bytesSent());
+            Assertions.assertEquals(3, metrics.downloadLatency().count());
+            Assertions.assertEquals(3, metrics.timeToFirstByte().count());
+
+            HttpURLConnection text = open("/metrics");
+            Assertions.assertEquals(200, text.getResponseCode());
+            String body = new String(read(text.getInputStream()), StandardCharsets.UTF_8);
+            Assertions.assertTrue(body.contains("creative_resource_pack_server_requests_total{outcome=\"valid\"} 2\n"), body);
+            Assertions.assertTrue(body.contains("creative_resource_pack_server_download_duration_seconds_bucket{le=\"+Inf\"} 3\n"), body);
+            // metrics requests are not downloads
+            Assertions.assertEquals(3, metrics.downloadLatency().count());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + PORT + path).openConnection();
+    }
+
+    private static void setMinecraftHeaders(HttpURLConnection connection) {
+        connection.setRequestProperty("X-Minecraft-UUID", "30b9e3deb4b64d37943af5747f710ca6");
+        connection.setRequestProperty("X-Minecraft-Username", "Yusshu");
+        connection.setRequestProperty("X-Minecraft-Pack-Format", "8");
+        connection.setRequestProperty("X-Minecraft-Version", "1.18.2");
+        connection.setRequestProperty("X-Minecraft-Version-ID", "1.18.2");
+    }
+
+    private static byte[] read(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buf = new byte[1024];
+            int read;
+            while ((read = in.read(buf)) != -1) {
+                output.write(buf, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+}
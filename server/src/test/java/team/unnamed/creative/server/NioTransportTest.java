@@ -0,0 +1,194 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class NioTransportTest {
+
+    private static final int PORT = 7273;
+
+    // bigger than the transport buffers, so that bodies are
+    // written in many steps
+    private static final int DATA_LENGTH = 3 * 1024 * 1024 + 17;
+
+    @Test
+    @DisplayName("Test that the NIO transport serves a file-backed pack to concurrent clients")
+    void test_concurrent_file_downloads(@TempDir Path directory) throws Exception {
+        byte[] data = randomData();
+        Path file = directory.resolve("pack.zip");
+        Files.write(file, data);
+
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(BuiltResourcePack.of(file, "0123456789abcdef0123456789abcdef01234567"))
+                .nioTransport(1)
+                .build();
+        server.start();
+
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<byte[]>> downloads = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                downloads.add(clients.submit(() -> {
+                    HttpURLConnection connection = open("/");
+                    Assertions.assertEquals(200, connection.getResponseCode());
+                    Assertions.assertEquals(DATA_LENGTH, connection.getContentLengthLong());
+                    return readAll(connection.getInputStream());
+                }));
+            }
+            for (Future<byte[]> download : downloads) {
+                Assertions.assertArrayEquals(data, download.get());
+            }
+        } finally {
+            clients.shutdownNow();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the NIO transport handles ranges, HEAD and invalid requests")
+    void test_requests() throws Exception {
+        byte[] data = randomData();
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(BuiltResourcePack.of(Writable.bytes(data), "0123456789abcdef0123456789abcdef01234567"), true)
+                .nioTransport(2)
+                .build();
+        server.start();
+
+        try {
+            HttpURLConnection invalid = open("/");
+            Assertions.assertEquals(400, invalid.getResponseCode());
+
+            HttpURLConnection partial = open("/");
+            setMinecraftHeaders(partial);
+            partial.setRequestProperty("Range", "bytes=100-199");
+            Assertions.assertEquals(206, partial.getResponseCode());
+            byte[] expected = new byte[100];
+            System.arraycopy(data, 100, expected, 0, 100);
+            Assertions.assertArrayEquals(expected, readAll(partial.getInputStream()));
+
+            HttpURLConnection head = open("/");
+            setMinecraftHeaders(head);
+            head.setRequestMethod("HEAD");
+            Assertions.assertEquals(200, head.getResponseCode());
+            Assertions.assertEquals(DATA_LENGTH, head.getContentLengthLong());
+
+            HttpURLConnection full = open("/");
+            setMinecraftHeaders(full);
+            Assertions.assertEquals(200, full.getResponseCode());
+            Assertions.assertArrayEquals(data, readAll(full.getInputStream()));
+
+            HttpURLConnection post = open("/");
+            post.setRequestMethod("POST");
+            Assertions.assertEquals(405, post.getResponseCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the NIO transport answers pipelined requests in order")
+    void test_pipelined_requests() throws Exception {
+        byte[] data = "pipelined".getBytes(StandardCharsets.US_ASCII);
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(BuiltResourcePack.of(Writable.bytes(data), "0123456789abcdef0123456789abcdef01234567"))
+                .nioTransport(1)
+                .build();
+        server.start();
+
+        try (Socket socket = new Socket("localhost", PORT)) {
+            OutputStream output = socket.getOutputStream();
+            output.write(("GET / HTTP/1.1\r\nHost: localhost\r\nRange: bytes=0-3\r\n\r\n"
+                    + "GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+
+            String response = new String(readAll(socket.getInputStream()), StandardCharsets.US_ASCII);
+            int first = response.indexOf("HTTP/1.1 206");
+            int second = response.indexOf("HTTP/1.1 200");
+            Assertions.assertTrue(first == 0 && second > first, response);
+            Assertions.assertTrue(response.substring(first, second).endsWith("\r\n\r\npipe"), response);
+            Assertions.assertTrue(response.endsWith("\r\n\r\npipelined"), response);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static byte[] randomData() {
+        byte[] data = new byte[DATA_LENGTH];
+        new Random(7273).nextBytes(data);
+        return data;
+    }
+
+    private static HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + PORT + path).openConnection();
+    }
+
+    private static void setMinecraftHeaders(HttpURLConnection connection) {
+        connection.setRequestProperty("X-Minecraft-UUID", "30b9e3deb4b64d37943af5747f710ca6");
+        connection.setRequestProperty("X-Minecraft-Username", "Yusshu");
+        connection.setRequestProperty("X-Minecraft-Pack-Format", "8");
+        connection.setRequestProperty("X-Minecraft-Version", "1.18.2");
+        connection.setRequestProperty("X-Minecraft-Version-ID", "1.18.2");
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int read;
+            while ((read = in.read(buf)) != -1) {
+                output.write(buf, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+}
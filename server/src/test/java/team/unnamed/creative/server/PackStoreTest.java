@@ -0,0 +1,126 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.server.handler.PackStoreRequestHandler;
+import team.unnamed.creative.server.handler.ResourcePackRequestHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+class PackStoreTest {
+
+    private static final int PORT = 7277;
+
+    @Test
+    @DisplayName("Test that registered packs are served from their hash")
+    void test_store() throws Exception {
+        BuiltResourcePack event = BuiltResourcePack.of(Writable.stringUtf8("event"), "1111111111111111111111111111111111111111");
+        BuiltResourcePack staged = BuiltResourcePack.of(Writable.stringUtf8("staged"), "2222222222222222222222222222222222222222");
+
+        PackStoreRequestHandler store = ResourcePackRequestHandler.store();
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .path("/packs/")
+                .handler(store)
+                .build();
+        server.start();
+
+        try {
+            String eventName = store.register(event);
+            store.register(staged);
+
+            HttpURLConnection connection = open("/packs/" + eventName);
+            Assertions.assertEquals(200, connection.getResponseCode());
+            Assertions.assertEquals("public, max-age=31536000, immutable", connection.getHeaderField("Cache-Control"));
+            Assertions.assertEquals("\"" + event.hash() + "\"", connection.getHeaderField("ETag"));
+            Assertions.assertEquals("event", read(connection.getInputStream()));
+
+            connection = open("/packs/" + staged.hash() + ".zip");
+            Assertions.assertEquals(200, connection.getResponseCode());
+            Assertions.assertEquals("staged", read(connection.getInputStream()));
+
+            Assertions.assertEquals(404, open("/packs/3333333333333333333333333333333333333333.zip").getResponseCode());
+            Assertions.assertEquals(404, open("/packs/" + event.hash()).getResponseCode());
+            Assertions.assertEquals(404, open("/packs/").getResponseCode());
+
+            Assertions.assertTrue(store.release(event));
+            Assertions.assertEquals(404, open("/packs/" + eventName).getResponseCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that pack names must be a path segment of their own")
+    void test_context_path_boundary() throws Exception {
+        BuiltResourcePack pack = BuiltResourcePack.of(Writable.stringUtf8("pack"), "1111111111111111111111111111111111111111");
+
+        PackStoreRequestHandler store = ResourcePackRequestHandler.store();
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .path("/packs")
+                .handler(store)
+                .build();
+        server.start();
+
+        try {
+            String name = store.register(pack);
+            HttpURLConnection connection = open("/packs/" + name);
+            Assertions.assertEquals(200, connection.getResponseCode());
+            Assertions.assertEquals("pack", read(connection.getInputStream()));
+
+            Assertions.assertEquals(404, open("/packs" + name).getResponseCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static String read(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                output.write(buffer, 0, n);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + PORT + path).openConnection();
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.Arrays;
+
+class PartialDownloadTest extends LocalHttpTestBase {
+
+    @Test
+    @DisplayName("Test that a download can be resumed using a Range header")
+    void test_range() throws IOException {
+        byte[] data = resourcePack.data().toByteArray();
+        int offset = data.length / 2;
+
+        HttpURLConnection connection = open("/");
+        connection.setRequestMethod("GET");
+        setMinecraftHeaders(connection);
+        connection.setRequestProperty("Range", "bytes=" + offset + "-");
+        connection.setRequestProperty("If-Range", '"' + resourcePack.hash() + '"');
+
+        Assertions.assertEquals(206, connection.getResponseCode());
+        Assertions.assertEquals(
+                "bytes " + offset + "-" + (data.length - 1) + "/" + data.length,
+                connection.getHeaderField("Content-Range")
+        );
+
+        try (InputStream input = connection.getInputStream()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            stream(input, output);
+            Assertions.assertArrayEquals(Arrays.copyOfRange(data, offset, data.length), output.toByteArray());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that a Range header is ignored if If-Range does not match")
+    void test_if_range_mismatch() throws IOException {
+        HttpURLConnection connection = open("/");
+        connection.setRequestMethod("GET");
+        setMinecraftHeaders(connection);
+        connection.setRequestProperty("Range", "bytes=0-9");
+        connection.setRequestProperty("If-Range", "\"outdated\"");
+
+        Assertions.assertEquals(200, connection.getResponseCode());
+        Assertions.assertEquals(resourcePack.data().toByteArray().length, connection.getContentLengthLong());
+        connection.getInputStream().close();
+    }
+
+    @Test
+    @DisplayName("Test that an unsatisfiable Range header is answered with 416")
+    void test_unsatisfiable_range() throws IOException {
+        int length = resourcePack.data().toByteArray().length;
+
+        HttpURLConnection connection = open("/");
+        connection.setRequestMethod("GET");
+        setMinecraftHeaders(connection);
+        connection.setRequestProperty("Range", "bytes=" + length + "-");
+
+        Assertions.assertEquals(416, connection.getResponseCode());
+        Assertions.assertEquals("bytes */" + length, connection.getHeaderField("Content-Range"));
+    }
+
+    @Test
+    @DisplayName("Test that HEAD requests are answered without a body")
+    void test_head() throws IOException {
+        HttpURLConnection connection = open("/");
+        connection.setRequestMethod("HEAD");
+        setMinecraftHeaders(connection);
+
+        Assertions.assertEquals(200, connection.getResponseCode());
+        Assertions.assertEquals(resourcePack.data().toByteArray().length, connection.getContentLengthLong());
+        Assertions.assertEquals("bytes", connection.getHeaderField("Accept-Ranges"));
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class RateLimitTest {
+
+    private static final int PORT = 7275;
+    private static final BuiltResourcePack PACK = BuiltResourcePack.of(
+            Writable.stringUtf8("pack"),
+            "0123456789abcdef0123456789abcdef01234567"
+    );
+
+    @Test
+    @DisplayName("Test that requests exceeding the address rate limit are rejected")
+    void test_address_limit() throws Exception {
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(PACK)
+                .addressRateLimit(0.01, 2)
+                .build();
+        server.start();
+
+        try {
+            Assertions.assertEquals(200, request(null));
+            Assertions.assertEquals(200, request(null));
+
+            HttpURLConnection connection = open();
+            Assertions.assertEquals(429, connection.getResponseCode());
+            long retryAfter = Long.parseLong(connection.getHeaderField("Retry-After"));
+            Assertions.assertTrue(retryAfter > 0 && retryAfter <= 100, "Retry-After " + retryAfter);
+            Assertions.assertEquals(1, server.metrics().rejectedRequests());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that requests exceeding the player rate limit are rejected")
+    void test_uuid_limit() throws Exception {
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(PACK)
+                .uuidRateLimit(0.01, 1)
+                .build();
+        server.start();
+
+        try {
+            Assertions.assertEquals(200, request("30b9e3deb4b64d37943af5747f710ca6"));
+            Assertions.assertEquals(429, request("30b9e3deb4b64d37943af5747f710ca6"));
+            Assertions.assertEquals(200, request("a1b2c3d4e5f60718293a4b5c6d7e8f90"));
+            // not a Minecraft client, not limited by UUID
+            Assertions.assertEquals(200, request(null));
+            Assertions.assertEquals(200, request(null));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that downloads exceeding the active downloads limit are rejected")
+    void test_active_downloads_limit() throws Exception {
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .boundedExecutor(2, 2)
+                .handler((request, exchange) -> {
+                    handling.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    exchange.sendResponseHeaders(200, -1);
+                    exchange.close();
+                })
+                .maxActiveDownloads(1)
+                .build();
+        server.start();
+
+        try {
+            CompletableFuture<Integer> active = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return request(null);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            Assertions.assertTrue(handling.await(5, TimeUnit.SECONDS), "first download not handled");
+            Assertions.assertEquals(503, request(null));
+            Assertions.assertEquals(1, server.activeDownloads());
+
+            release.countDown();
+            Assertions.assertEquals(200, active.get(5, TimeUnit.SECONDS));
+            long deadline = System.currentTimeMillis() + 5000L;
+            while (server.activeDownloads() != 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            // the rejected request was never counted
+            Assertions.assertEquals(0, server.activeDownloads());
+            Assertions.assertEquals(200, request(null));
+            Assertions.assertEquals(1, server.metrics().rejectedRequests());
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+    }
+
+    private static int request(String uuid) throws IOException {
+        HttpURLConnection connection = open();
+        if (uuid != null) {
+            connection.setRequestProperty("X-Minecraft-UUID", uuid);
+            connection.setRequestProperty("X-Minecraft-Username", "Yusshu");
+            connection.setRequestProperty("X-Minecraft-Pack-Format", "8");
+            connection.setRequestProperty("X-Minecraft-Version", "1.18.2");
+            connection.setRequestProperty("X-Minecraft-Version-ID", "1.18.2");
+        }
+        int status = connection.getResponseCode();
+        InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (input != null) {
+            try (InputStream in = input) {
+                while (in.read() != -1) {
+                    // drain, so the connection is reused
+                }
+            }
+        }
+        return status;
+    }
+
+    private static HttpURLConnection open() throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + PORT + "/").openConnection();
+    }
+
+}
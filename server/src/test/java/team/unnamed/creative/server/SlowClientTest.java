@@ -0,0 +1,185 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+class SlowClientTest {
+
+    private static final int PORT = 7283;
+    // big enough to not fit in the socket buffers
+    private static final int PACK_SIZE = 32 * 1024 * 1024;
+    private static final String REQUEST = "GET / HTTP/1.1\r\nHost: localhost\r\n\r\n";
+
+    @Test
+    @DisplayName("Test that clients not sending a request head are evicted")
+    void test_header_read_timeout() throws Exception {
+        ResourcePackServer server = server(true)
+                .headerReadTimeout(200, TimeUnit.MILLISECONDS)
+                .build();
+        server.start();
+        try (Socket socket = new Socket("localhost", PORT)) {
+            socket.setSoTimeout(5000);
+            OutputStream output = socket.getOutputStream();
+            output.write("GET / HTTP/1.1\r\n".getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+            Assertions.assertEquals(-1, socket.getInputStream().read());
+            Assertions.assertEquals(1, server.metrics().evictedConnections());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that stalled clients are evicted")
+    void test_write_idle_timeout() throws Exception {
+        testStalled(false);
+    }
+
+    @Test
+    @DisplayName("Test that stalled NIO clients are evicted")
+    void test_nio_write_idle_timeout() throws Exception {
+        testStalled(true);
+    }
+
+    @Test
+    @DisplayName("Test that clients below the minimum throughput are evicted")
+    void test_min_throughput() throws Exception {
+        testCrawling(false);
+    }
+
+    @Test
+    @DisplayName("Test that NIO clients below the minimum throughput are evicted")
+    void test_nio_min_throughput() throws Exception {
+        testCrawling(true);
+    }
+
+    private void testStalled(boolean nio) throws Exception {
+        ResourcePackServer server = server(nio)
+                .boundedExecutor(1, 1)
+                .writeIdleTimeout(300, TimeUnit.MILLISECONDS)
+                .build();
+        server.start();
+        try (Socket stalled = request()) {
+            // never reads more than the first bytes
+            Assertions.assertTrue(stalled.getInputStream().read(new byte[1024]) > 0);
+            awaitEviction(server);
+
+            // the only worker is free again
+            try (Socket socket = request()) {
+                Assertions.assertEquals(PACK_SIZE, drainBody(socket.getInputStream()));
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private void testCrawling(boolean nio) throws Exception {
+        ResourcePackServer server = server(nio)
+                .minThroughput(1024 * 1024, 500, TimeUnit.MILLISECONDS)
+                .build();
+        server.start();
+        try (Socket socket = request()) {
+            InputStream input = socket.getInputStream();
+            byte[] buffer = new byte[1024];
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            try {
+                // around 20 KiB/s, once the socket buffers are full
+                while (input.read(buffer) != -1 && server.metrics().evictedConnections() == 0) {
+                    Assertions.assertTrue(System.nanoTime() < deadline, "Client was not evicted");
+                    Thread.sleep(50L);
+                }
+            } catch (IOException ignored) {
+                // connection reset
+            }
+            awaitEviction(server);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void awaitEviction(ResourcePackServer server) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (server.metrics().evictedConnections() == 0) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Client was not evicted");
+            Thread.sleep(10L);
+        }
+        Assertions.assertEquals(1, server.metrics().evictedConnections());
+    }
+
+    private static ResourcePackServer.Builder server(boolean nio) {
+        BuiltResourcePack pack = BuiltResourcePack.of(Writable.bytes(new byte[PACK_SIZE]), "0123456789abcdef0123456789abcdef01234567");
+        ResourcePackServer.Builder builder = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .pack(pack);
+        if (nio) {
+            builder.nioTransport(1);
+        }
+        return builder;
+    }
+
+    private static Socket request() throws IOException {
+        Socket socket = new Socket();
+        // before connecting, so the receive window is small from the start
+        socket.setReceiveBufferSize(16 * 1024);
+        socket.setSoTimeout(10000);
+        socket.connect(new InetSocketAddress("localhost", PORT));
+        OutputStream output = socket.getOutputStream();
+        output.write(REQUEST.getBytes(StandardCharsets.US_ASCII));
+        output.flush();
+        return socket;
+    }
+
+    private static long drainBody(InputStream input) throws IOException {
+        // skips the response head
+        int matched = 0;
+        while (matched < 4) {
+            int b = input.read();
+            if (b == -1) {
+                throw new IOException("Unexpected end of response head");
+            }
+            matched = (b == (matched % 2 == 0 ? '\r' : '\n')) ? matched + 1 : (b == '\r' ? 1 : 0);
+        }
+        byte[] buffer = new byte[8192];
+        long read = 0;
+        int n;
+        while (read < PACK_SIZE && (n = input.read(buffer)) != -1) {
+            read += n;
+        }
+        return read;
+    }
+
+}
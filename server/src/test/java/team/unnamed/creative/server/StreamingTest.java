@@ -0,0 +1,121 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.server.handler.ResourcePackRequestHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Random;
+
+class StreamingTest {
+
+    private static final int PORT = 7284;
+    private static final int PACK_SIZE = 4 * 1024 * 1024;
+
+    @Test
+    @DisplayName("Test that generated packs are streamed to the response")
+    void test_streaming() throws Exception {
+        testStreaming(false);
+    }
+
+    @Test
+    @DisplayName("Test that generated packs are streamed to the NIO response")
+    void test_nio_streaming() throws Exception {
+        testStreaming(true);
+    }
+
+    private void testStreaming(boolean nio) throws Exception {
+        ResourcePackServer.Builder builder = ResourcePackServer.server()
+                .address(new InetSocketAddress(PORT))
+                .handler(ResourcePackRequestHandler.streaming(request -> request == null ? null : generate(request.packFormat())));
+        if (nio) {
+            builder.nioTransport(1);
+        }
+        ResourcePackServer server = builder.build();
+        server.start();
+
+        try {
+            HttpURLConnection connection = open("GET", true);
+            Assertions.assertEquals(200, connection.getResponseCode());
+            Assertions.assertEquals("application/zip", connection.getHeaderField("Content-Type"));
+            Assertions.assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+            Assertions.assertArrayEquals(generate(8).toByteArray(), readAll(connection.getInputStream()));
+
+            HttpURLConnection head = open("HEAD", true);
+            Assertions.assertEquals(200, head.getResponseCode());
+            Assertions.assertEquals(0, readAll(head.getInputStream()).length);
+
+            // the generator has no pack for non-Minecraft clients
+            Assertions.assertEquals(404, open("GET", false).getResponseCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static Writable generate(int seed) {
+        return output -> {
+            Random random = new Random(seed);
+            byte[] buffer = new byte[100];
+            for (int written = 0; written < PACK_SIZE; written += buffer.length) {
+                random.nextBytes(buffer);
+                output.write(buffer, 0, Math.min(buffer.length, PACK_SIZE - written));
+            }
+        };
+    }
+
+    private static HttpURLConnection open(String method, boolean minecraft) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + PORT + "/").openConnection();
+        connection.setRequestMethod(method);
+        if (minecraft) {
+            connection.setRequestProperty("X-Minecraft-UUID", "30b9e3deb4b64d37943af5747f710ca6");
+            connection.setRequestProperty("X-Minecraft-Username", "Yusshu");
+            connection.setRequestProperty("X-Minecraft-Pack-Format", "8");
+            connection.setRequestProperty("X-Minecraft-Version", "1.18.2");
+            connection.setRequestProperty("X-Minecraft-Version-ID", "1.18.2");
+        }
+        return connection;
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                output.write(buffer, 0, n);
+            }
+            return output.toByteArray();
+        }
+    }
+
+}
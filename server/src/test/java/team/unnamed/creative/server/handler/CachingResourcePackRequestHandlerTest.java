@@ -0,0 +1,181 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingResourcePackRequestHandlerTest {
+    @Test
+    @DisplayName("Test that concurrent requests for the same key generate the pack once")
+    void test_single_flight() throws Exception {
+        AtomicInteger generations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CachingResourcePackRequestHandler<String> handler = ResourcePackRequestHandler.caching(
+                request -> "flags",
+                key -> {
+                    generations.incrementAndGet();
+                    try {
+                        Thread.sleep(100L);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return pack(1024);
+                }
+        ).build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<BuiltResourcePack>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return handler.get("flags");
+                }));
+            }
+            start.countDown();
+
+            BuiltResourcePack first = results.get(0).get();
+            for (Future<BuiltResourcePack> result : results) {
+                assertSame(first, result.get());
+            }
+            assertEquals(1, generations.get());
+            assertEquals(1, handler.cachedPacks());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the least recently used packs are evicted when the cache is full")
+    void test_lru_eviction() {
+        AtomicInteger generations = new AtomicInteger();
+        CachingResourcePackRequestHandler<Integer> handler = ResourcePackRequestHandler.<Integer>caching(
+                request -> 0,
+                size -> {
+                    generations.incrementAndGet();
+                    return pack(size);
+                }
+        ).maxCacheBytes(1000).build();
+
+        BuiltResourcePack a = handler.get(400);
+        handler.get(500);
+        assertSame(a, handler.get(400)); // now most recently used
+        assertEquals(900, handler.cachedBytes());
+
+        handler.get(300); // evicts the 500 bytes pack
+        assertEquals(2, handler.cachedPacks());
+        assertEquals(700, handler.cachedBytes());
+        assertSame(a, handler.get(400));
+        assertEquals(3, generations.get());
+
+        handler.get(500);
+        assertEquals(4, generations.get());
+
+        handler.get(2000); // bigger than the cache, never cached
+        handler.get(2000);
+        assertEquals(6, generations.get());
+        assertTrue(handler.cachedBytes() <= 1000);
+
+        handler.invalidateAll();
+        assertEquals(0, handler.cachedPacks());
+        assertEquals(0, handler.cachedBytes());
+    }
+
+    @Test
+    @DisplayName("Test that failed generations are not cached")
+    void test_failure() {
+        AtomicInteger generations = new AtomicInteger();
+        CachingResourcePackRequestHandler<String> handler = ResourcePackRequestHandler.caching(
+                request -> "flags",
+                key -> {
+                    if (generations.incrementAndGet() == 1) {
+                        throw new IllegalStateException("Failed");
+                    }
+                    return pack(10);
+                }
+        ).build();
+
+        assertThrows(IllegalStateException.class, () -> handler.get("flags"));
+        assertNotNull(handler.get("flags"));
+        assertEquals(2, generations.get());
+    }
+
+    @Test
+    @DisplayName("Test that generations invalidated while in progress are not cached")
+    void test_invalidate_while_generating() throws Exception {
+        AtomicInteger generations = new AtomicInteger();
+        CountDownLatch generating = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        CachingResourcePackRequestHandler<String> handler = ResourcePackRequestHandler.caching(
+                request -> "flags",
+                key -> {
+                    if (generations.incrementAndGet() == 1) {
+                        generating.countDown();
+                        try {
+                            invalidated.await();
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                    return pack(10);
+                }
+        ).build();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<BuiltResourcePack> stale = executor.submit(() -> handler.get("flags"));
+            generating.await();
+            handler.invalidate("flags");
+            invalidated.countDown();
+
+            // the request that started before the invalidation still gets its pack
+            BuiltResourcePack first = stale.get();
+            assertEquals(0, handler.cachedPacks());
+
+            BuiltResourcePack second = handler.get("flags");
+            assertNotSame(first, second);
+            assertEquals(2, generations.get());
+            assertSame(second, handler.get("flags"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static BuiltResourcePack pack(int size) {
+        return BuiltResourcePack.of(Writable.bytes(new byte[size]), "0123456789abcdef0123456789abcdef01234567");
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackStoreRequestHandlerTest {
+    private static final BuiltResourcePack EVENT = pack("event", "1111111111111111111111111111111111111111");
+    private static final BuiltResourcePack STAGED = pack("staged", "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA");
+
+    @Test
+    @DisplayName("Test that packs are registered by hash")
+    void test_register() {
+        PackStoreRequestHandler store = ResourcePackRequestHandler.store();
+
+        assertEquals("1111111111111111111111111111111111111111.zip", store.register(EVENT));
+        assertEquals("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa.zip", store.register(STAGED));
+        assertSame(EVENT, store.pack(EVENT.hash()));
+        assertSame(STAGED, store.pack("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa"));
+        assertNull(store.pack("2222222222222222222222222222222222222222"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("Test that packs are removed when their last reference is released")
+    void test_release() {
+        PackStoreRequestHandler store = ResourcePackRequestHandler.store();
+
+        store.register(EVENT);
+        store.register(EVENT);
+        assertEquals(2, store.references(EVENT.hash()));
+
+        assertFalse(store.release(EVENT));
+        assertSame(EVENT, store.pack(EVENT.hash()));
+        assertEquals(1, store.references(EVENT.hash()));
+
+        assertTrue(store.release(EVENT));
+        assertNull(store.pack(EVENT.hash()));
+        assertEquals(0, store.references(EVENT.hash()));
+        assertEquals(0, store.size());
+
+        assertThrows(IllegalArgumentException.class, () -> store.release(EVENT));
+    }
+
+    private static BuiltResourcePack pack(String content, String hash) {
+        return BuiltResourcePack.of(Writable.stringUtf8(content), hash);
+    }
+}
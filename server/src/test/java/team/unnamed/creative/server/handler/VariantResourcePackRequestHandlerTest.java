@@ -0,0 +1,87 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariantResourcePackRequestHandlerTest {
+    private static final BuiltResourcePack OLD = pack("old", "1111111111111111111111111111111111111111");
+    private static final BuiltResourcePack MIDDLE = pack("middle", "2222222222222222222222222222222222222222");
+    private static final BuiltResourcePack NEW = pack("new", "3333333333333333333333333333333333333333");
+    private static final BuiltResourcePack FALLBACK = pack("fallback", "4444444444444444444444444444444444444444");
+
+    @Test
+    @DisplayName("Test that variants are resolved by pack format range")
+    void test_lookup() {
+        VariantResourcePackRequestHandler handler = ResourcePackRequestHandler.variants()
+                // not added in order
+                .variant(22, 32, NEW)
+                .variant(1, 8, OLD)
+                .variant(9, 18, MIDDLE)
+                .build();
+
+        assertSame(OLD, handler.variant(1));
+        assertSame(OLD, handler.variant(8));
+        assertSame(MIDDLE, handler.variant(9));
+        assertSame(MIDDLE, handler.variant(18));
+        assertSame(NEW, handler.variant(22));
+        assertSame(NEW, handler.variant(32));
+        assertNull(handler.variant(0));
+        assertNull(handler.variant(20));
+        assertNull(handler.variant(33));
+        assertNull(handler.fallback());
+    }
+
+    @Test
+    @DisplayName("Test that the fallback is used for unmatched pack formats")
+    void test_fallback() {
+        VariantResourcePackRequestHandler handler = ResourcePackRequestHandler.variants()
+                .variant(9, 18, MIDDLE)
+                .fallback(FALLBACK)
+                .build();
+
+        assertSame(MIDDLE, handler.variant(15));
+        assertSame(FALLBACK, handler.variant(8));
+        assertSame(FALLBACK, handler.variant(19));
+        assertSame(FALLBACK, handler.fallback());
+    }
+
+    @Test
+    @DisplayName("Test that overlapping pack format ranges are rejected")
+    void test_overlap() {
+        VariantResourcePackRequestHandler.Builder builder = ResourcePackRequestHandler.variants()
+                .variant(1, 8, OLD)
+                .variant(8, 18, MIDDLE);
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    private static BuiltResourcePack pack(String content, String hash) {
+        return BuiltResourcePack.of(Writable.stringUtf8(content), hash);
+    }
+}
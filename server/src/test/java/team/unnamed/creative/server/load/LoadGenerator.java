@@ -0,0 +1,531 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.load;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.server.ResourcePackServer;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for {@link ResourcePackServer}, simulates many Minecraft
+ * clients downloading a resource-pack over loopback.
+ *
+ * <p>Run it with {@code ./gradlew :creative-server:loadTest --args="..."},
+ * arguments have the {@code --name=value} form, see {@link Options}.</p>
+ */
+public final class LoadGenerator {
+    private static final int BUFFER_SIZE = 8192;
+    // small enough for slow readers to push back on the server
+    private static final int SLOW_RECEIVE_BUFFER_SIZE = 16 * 1024;
+
+    private final Options options;
+
+    public LoadGenerator(final @NotNull Options options) {
+        this.options = options;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Options options = Options.parse(args);
+        System.out.println("Running " + options);
+        System.out.println(new LoadGenerator(options).run());
+    }
+
+    public @NotNull Report run() throws Exception {
+        final byte[] data = new byte[options.packSize];
+        new Random(options.packSize).nextBytes(data);
+        final String hash = sha1(data);
+
+        Path file = null;
+        final BuiltResourcePack pack;
+        if (options.file) {
+            file = Files.createTempFile("creative-load-test", ".zip");
+            Files.write(file, data);
+            pack = BuiltResourcePack.of(file, hash);
+        } else {
+            pack = BuiltResourcePack.of(Writable.bytes(data), hash);
+        }
+
+        final ResourcePackServer.Builder builder = ResourcePackServer.server()
+                .address(new InetSocketAddress("127.0.0.1", options.port))
+                .backlog(options.clients)
+                .pack(pack, true);
+        switch (options.executor) {
+            case "none":
+                break;
+            case "virtual":
+                builder.virtualThreadExecutor();
+                break;
+            case "bounded":
+                builder.boundedExecutor(options.threads, options.clients);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown executor " + options.executor);
+        }
+        if (options.ioThreads > 0) {
+            builder.nioTransport(options.ioThreads);
+        }
+
+        final ResourcePackServer server = builder.build();
+        server.start();
+        try {
+            return run(server);
+        } finally {
+            server.stop(0);
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private @NotNull Report run(final @NotNull ResourcePackServer server) throws InterruptedException {
+        final CountDownLatch ready = new CountDownLatch(options.clients);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(options.clients);
+        final CountDownLatch exit = new CountDownLatch(1);
+
+        final long connectInterval = options.connectRate > 0 ? TimeUnit.SECONDS.toNanos(1) / options.connectRate : 0;
+        final AtomicLong nextConnect = new AtomicLong();
+        final Client[] clients = new Client[options.clients];
+        final Set<Long> clientThreads = new HashSet<>();
+
+        for (int i = 0; i < clients.length; i++) {
+            final Client client = new Client(i, server.address().getPort(), connectInterval, nextConnect);
+            clients[i] = client;
+            final Thread thread = new Thread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                    client.run();
+                    done.countDown();
+                    // stay alive so that the allocation snapshot can tell client threads apart
+                    exit.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "creative-load-client-" + i);
+            thread.setDaemon(true);
+            clientThreads.add(thread.getId());
+            thread.start();
+        }
+        clientThreads.add(Thread.currentThread().getId());
+
+        ready.await();
+        final Map<Long, Long> allocatedBefore = allocatedBytes(clientThreads);
+        final long startNanos = System.nanoTime();
+        nextConnect.set(startNanos);
+        start.countDown();
+        done.await();
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        final Map<Long, Long> allocatedAfter = allocatedBytes(clientThreads);
+        exit.countDown();
+
+        int downloads = 0;
+        int failures = 0;
+        long bytes = 0;
+        final long[] latencies = new long[options.clients * options.downloads];
+        final long[] firstByteLatencies = new long[latencies.length];
+        for (final Client client : clients) {
+            System.arraycopy(client.latencies, 0, latencies, downloads, client.downloads);
+            System.arraycopy(client.firstByteLatencies, 0, firstByteLatencies, downloads, client.downloads);
+            downloads += client.downloads;
+            failures += client.failures;
+            bytes += client.bytes;
+        }
+
+        long allocated = -1;
+        if (allocatedAfter != null) {
+            allocated = 0;
+            for (final Map.Entry<Long, Long> entry : allocatedAfter.entrySet()) {
+                // threads created during the run have no previous value
+                allocated += entry.getValue() - allocatedBefore.getOrDefault(entry.getKey(), 0L);
+            }
+        }
+
+        return new Report(
+                downloads,
+                failures,
+                bytes,
+                elapsedNanos,
+                Arrays.copyOf(latencies, downloads),
+                Arrays.copyOf(firstByteLatencies, downloads),
+                allocated
+        );
+    }
+
+    /**
+     * Returns the bytes allocated by every live thread, except the given
+     * ones, or null if the JVM can't measure it.
+     *
+     * <p>Threads that finish during the run and virtual threads are not
+     * counted, so this is only an approximation of the server allocation.</p>
+     */
+    private static Map<Long, Long> allocatedBytes(final @NotNull Set<Long> excluded) {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        final com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+        if (!allocation.isThreadAllocatedMemorySupported() || !allocation.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+        final long[] ids = threads.getAllThreadIds();
+        final long[] bytes = allocation.getThreadAllocatedBytes(ids);
+        final Map<Long, Long> result = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] != -1 && !excluded.contains(ids[i])) {
+                result.put(ids[i], bytes[i]);
+            }
+        }
+        return result;
+    }
+
+    private static @NotNull String sha1(final byte @NotNull [] data) {
+        try {
+            final StringBuilder hash = new StringBuilder();
+            for (final byte b : MessageDigest.getInstance("SHA-1").digest(data)) {
+                hash.append(String.format("%02x", b & 0xFF));
+            }
+            return hash.toString();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    /**
+     * A simulated Minecraft client, downloads the pack sequentially,
+     * over a new connection each time, like the vanilla client does
+     */
+    private final class Client {
+        private final int port;
+        private final long connectInterval;
+        private final AtomicLong nextConnect;
+        private final byte[] request;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private final long[] latencies = new long[options.downloads];
+        private final long[] firstByteLatencies = new long[options.downloads];
+        private int downloads;
+        private int failures;
+        private long bytes;
+
+        private Client(final int index, final int port, final long connectInterval, final @NotNull AtomicLong nextConnect) {
+            this.port = port;
+            this.connectInterval = connectInterval;
+            this.nextConnect = nextConnect;
+            final UUID uuid = new UUID(index, ~index);
+            this.request = ("GET / HTTP/1.1\r\n"
+                    + "Host: 127.0.0.1:" + port + "\r\n"
+                    + "User-Agent: Minecraft Java/" + options.version + "\r\n"
+                    + "X-Minecraft-UUID: " + uuid.toString().replace("-", "") + "\r\n"
+                    + "X-Minecraft-Username: LoadTest" + index + "\r\n"
+                    + "X-Minecraft-Pack-Format: " + options.packFormat + "\r\n"
+                    + "X-Minecraft-Version: " + options.version + "\r\n"
+                    + "X-Minecraft-Version-ID: " + options.version + "\r\n"
+                    + "Connection: close\r\n"
+                    + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        }
+
+        private void run() {
+            for (int i = 0; i < options.downloads; i++) {
+                if (connectInterval > 0) {
+                    final long wait = nextConnect.getAndAdd(connectInterval) - System.nanoTime();
+                    if (wait > 0) {
+                        sleep(wait);
+                    }
+                }
+                try {
+                    download();
+                } catch (final IOException e) {
+                    failures++;
+                }
+            }
+        }
+
+        private void download() throws IOException {
+            final long start = System.nanoTime();
+            try (final Socket socket = new Socket()) {
+                if (options.readRate > 0) {
+                    socket.setReceiveBufferSize(SLOW_RECEIVE_BUFFER_SIZE);
+                }
+                socket.connect(new InetSocketAddress("127.0.0.1", port));
+                final OutputStream output = socket.getOutputStream();
+                output.write(request);
+                output.flush();
+
+                final InputStream input = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+                final long length = readHead(input);
+                final long firstByte = System.nanoTime() - start;
+
+                final long bodyStart = System.nanoTime();
+                long read = 0;
+                while (read < length) {
+                    final int n = input.read(buffer, 0, (int) Math.min(buffer.length, length - read));
+                    if (n == -1) {
+                        throw new IOException("Connection closed after " + read + " of " + length + " bytes");
+                    }
+                    read += n;
+                    if (options.readRate > 0) {
+                        // sleep until the read bytes match the emulated speed
+                        final long ahead = read * TimeUnit.SECONDS.toNanos(1) / options.readRate - (System.nanoTime() - bodyStart);
+                        if (ahead > 0) {
+                            sleep(ahead);
+                        }
+                    }
+                }
+
+                latencies[downloads] = System.nanoTime() - start;
+                firstByteLatencies[downloads] = firstByte;
+                downloads++;
+                bytes += read;
+            }
+        }
+
+        /**
+         * Reads the response status line and headers, returns the
+         * content length of a successful response
+         */
+        private long readHead(final @NotNull InputStream input) throws IOException {
+            final StringBuilder head = new StringBuilder();
+            int c;
+            while ((c = input.read()) != -1) {
+                head.append((char) c);
+                final int length = head.length();
+                if (length >= 4 && head.charAt(length - 1) == '\n' && head.charAt(length - 3) == '\n') {
+                    break;
+                }
+            }
+            final String[] lines = head.toString().split("\r\n");
+            if (!lines[0].startsWith("HTTP/1.1 200 ")) {
+                throw new IOException("Unexpected response: " + lines[0]);
+            }
+            for (final String line : lines) {
+                final int colon = line.indexOf(':');
+                if (colon != -1 && line.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                    return Long.parseLong(line.substring(colon + 1).trim());
+                }
+            }
+            throw new IOException("Response without Content-Length");
+        }
+
+        private void sleep(final long nanos) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * The load test options, parsed from {@code --name=value} arguments
+     */
+    public static final class Options {
+        /** The server port, {@code --port} */
+        public int port = 7280;
+        /** The amount of concurrent clients, {@code --clients} */
+        public int clients = 64;
+        /** The amount of downloads per client, {@code --downloads} */
+        public int downloads = 4;
+        /** The pack size in bytes, {@code --pack-size} */
+        public int packSize = 4 * 1024 * 1024;
+        /** Whether the pack is backed by a file, {@code --file} */
+        public boolean file;
+        /** New connections per second, across all clients, zero for no limit, {@code --connect-rate} */
+        public long connectRate;
+        /** Bytes per second read by each client, zero for no limit, {@code --read-rate} */
+        public long readRate;
+        /** The server executor, one of none, bounded or virtual, {@code --executor} */
+        public String executor = "bounded";
+        /** The bounded executor threads, {@code --threads} */
+        public int threads = 16;
+        /** The NIO transport I/O threads, zero to use the JDK HttpServer, {@code --io-threads} */
+        public int ioThreads;
+        /** The client pack format, {@code --pack-format} */
+        public int packFormat = 22;
+        /** The client version, {@code --version} */
+        public String version = "1.20.4";
+
+        public static @NotNull Options parse(final String @NotNull [] args) {
+            final Options options = new Options();
+            for (final String arg : args) {
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + arg);
+                }
+                final int equals = arg.indexOf('=');
+                final String name = equals == -1 ? arg.substring(2) : arg.substring(2, equals);
+                final String value = equals == -1 ? "true" : arg.substring(equals + 1);
+                switch (name) {
+                    case "port": options.port = Integer.parseInt(value); break;
+                    case "clients": options.clients = Integer.parseInt(value); break;
+                    case "downloads": options.downloads = Integer.parseInt(value); break;
+                    case "pack-size": options.packSize = Integer.parseInt(value); break;
+                    case "file": options.file = Boolean.parseBoolean(value); break;
+                    case "connect-rate": options.connectRate = Long.parseLong(value); break;
+                    case "read-rate": options.readRate = Long.parseLong(value); break;
+                    case "executor": options.executor = value; break;
+                    case "threads": options.threads = Integer.parseInt(value); break;
+                    case "io-threads": options.ioThreads = Integer.parseInt(value); break;
+                    case "pack-format": options.packFormat = Integer.parseInt(value); break;
+                    case "version": options.version = value; break;
+                    default: throw new IllegalArgumentException("Unknown option --" + name);
+                }
+            }
+            return options;
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return "Options{" +
+                    "clients=" + clients +
+                    ", downloads=" + downloads +
+                    ", packSize=" + packSize +
+                    ", file=" + file +
+                    ", connectRate=" + connectRate +
+                    ", readRate=" + readRate +
+                    ", executor=" + executor +
+                    ", threads=" + threads +
+                    ", ioThreads=" + ioThreads +
+                    '}';
+        }
+    }
+
+    /**
+     * The result of a load test run
+     */
+    public static final class Report {
+        private final int downloads;
+        private final int failures;
+        private final long bytes;
+        private final long elapsedNanos;
+        private final long[] latencies;
+        private final long[] firstByteLatencies;
+        private final long allocatedBytes;
+
+        private Report(
+                final int downloads,
+                final int failures,
+                final long bytes,
+                final long elapsedNanos,
+                final long @NotNull [] latencies,
+                final long @NotNull [] firstByteLatencies,
+                final long allocatedBytes
+        ) {
+            this.downloads = downloads;
+            this.failures = failures;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            this.firstByteLatencies = firstByteLatencies;
+            this.allocatedBytes = allocatedBytes;
+            Arrays.sort(this.latencies);
+            Arrays.sort(this.firstByteLatencies);
+        }
+
+        public int downloads() {
+            return downloads;
+        }
+
+        public int failures() {
+            return failures;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+
+        /** Downloaded mebibytes per second */
+        public double throughput() {
+            return bytes / (1024.0 * 1024.0) / (elapsedNanos / 1e9);
+        }
+
+        /** Completed downloads per second */
+        public double downloadRate() {
+            return downloads / (elapsedNanos / 1e9);
+        }
+
+        /** The download latency at the given percentile, in nanoseconds */
+        public long latency(final double percentile) {
+            return percentile(latencies, percentile);
+        }
+
+        /** The time to first byte at the given percentile, in nanoseconds */
+        public long firstByteLatency(final double percentile) {
+            return percentile(firstByteLatencies, percentile);
+        }
+
+        /** The approximate server heap allocation per download, in bytes, or -1 if unknown */
+        public long allocatedBytesPerDownload() {
+            return allocatedBytes < 0 || downloads == 0 ? -1 : allocatedBytes / downloads;
+        }
+
+        private static long percentile(final long @NotNull [] sorted, final double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            final int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return String.format(Locale.ROOT,
+                    "downloads: %d (%d failed) in %.2f s%n"
+                            + "throughput: %.2f MiB/s, %.1f downloads/s%n"
+                            + "latency: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n"
+                            + "first byte: p50 %.2f ms, p99 %.2f ms%n"
+                            + "server allocation: %s per download",
+                    downloads, failures, elapsedNanos / 1e9,
+                    throughput(), downloadRate(),
+                    latency(50) / 1e6, latency(99) / 1e6, latency(100) / 1e6,
+                    firstByteLatency(50) / 1e6, firstByteLatency(99) / 1e6,
+                    allocatedBytes < 0 ? "unknown" : allocatedBytesPerDownload() + " bytes");
+        }
+    }
+}
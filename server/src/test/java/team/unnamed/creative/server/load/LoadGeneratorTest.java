@@ -0,0 +1,70 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    @Test
+    @DisplayName("Test that the load generator completes a small run")
+    void test_small_run() throws Exception {
+        LoadGenerator.Options options = LoadGenerator.Options.parse(new String[] {
+                "--port=7278",
+                "--clients=8",
+                "--downloads=2",
+                "--pack-size=65536",
+                "--threads=4"
+        });
+        LoadGenerator.Report report = new LoadGenerator(options).run();
+
+        assertEquals(0, report.failures());
+        assertEquals(16, report.downloads());
+        assertEquals(16L * 65536, report.bytes());
+        assertTrue(report.latency(50) <= report.latency(99));
+    }
+
+    @Test
+    @DisplayName("Test that slow readers are emulated")
+    void test_slow_readers() throws Exception {
+        LoadGenerator.Options options = LoadGenerator.Options.parse(new String[] {
+                "--port=7278",
+                "--clients=2",
+                "--downloads=1",
+                "--pack-size=65536",
+                "--read-rate=262144",
+                "--io-threads=1"
+        });
+        LoadGenerator.Report report = new LoadGenerator(options).run();
+
+        assertEquals(0, report.failures());
+        assertEquals(2, report.downloads());
+        // 64 KiB at 256 KiB/s take at least a quarter of a second
+        assertTrue(report.latency(50) >= 200_000_000L);
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.transport;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioIoLoopTest {
+
+    @Test
+    @DisplayName("Test that failing tasks and timers don't stop the loop")
+    void test_failing_tasks() throws Exception {
+        NioIoLoop loop = new NioIoLoop("test-io-loop");
+        loop.start();
+        try {
+            CountDownLatch ran = new CountDownLatch(2);
+            loop.execute(() -> {
+                throw new IllegalStateException("Expected task failure");
+            });
+            loop.execute(() -> {
+                loop.schedule(() -> {
+                    throw new IllegalStateException("Expected timer failure");
+                }, 0L);
+                loop.schedule(ran::countDown, TimeUnit.MILLISECONDS.toNanos(10L));
+            });
+            loop.execute(ran::countDown);
+            assertTrue(ran.await(5, TimeUnit.SECONDS), "loop stopped running tasks");
+        } finally {
+            loop.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test that a failing channel handler only closes its channel")
+    void test_failing_handler() throws Exception {
+        NioIoLoop loop = new NioIoLoop("test-io-loop");
+        Pipe failing = Pipe.open();
+        Pipe healthy = Pipe.open();
+        failing.source().configureBlocking(false);
+        healthy.source().configureBlocking(false);
+        CountDownLatch read = new CountDownLatch(1);
+        loop.execute(() -> {
+            try {
+                failing.source().register(loop.selector(), SelectionKey.OP_READ, (NioIoLoop.Handler) key -> {
+                    throw new IllegalStateException("Expected handler failure");
+                });
+                healthy.source().register(loop.selector(), SelectionKey.OP_READ, (NioIoLoop.Handler) key -> {
+                    healthy.source().read(ByteBuffer.allocate(16));
+                    read.countDown();
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        loop.start();
+        try {
+            failing.sink().write(ByteBuffer.wrap(new byte[] { 1 }));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (failing.source().isOpen() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(failing.source().isOpen(), "failing channel was not closed");
+
+            healthy.sink().write(ByteBuffer.wrap(new byte[] { 1 }));
+            assertTrue(read.await(5, TimeUnit.SECONDS), "loop stopped handling channels");
+            assertTrue(healthy.source().isOpen(), "healthy channel was closed");
+        } finally {
+            loop.shutdown();
+            failing.sink().close();
+            healthy.sink().close();
+        }
+    }
+
+}
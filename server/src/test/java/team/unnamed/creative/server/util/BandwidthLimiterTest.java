@@ -0,0 +1,80 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BandwidthLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int CHUNK = BandwidthLimiter.CHUNK_SIZE;
+
+    @Test
+    @DisplayName("Test that reservations are laid out at the configured rate")
+    void test_schedule() {
+        // a chunk per second
+        BandwidthLimiter limiter = new BandwidthLimiter(CHUNK, 0);
+        long now = System.nanoTime();
+
+        assertEquals(0, limiter.reserve(CHUNK, false, now));
+        assertEquals(SECOND, limiter.reserve(CHUNK, false, now));
+        assertEquals(2 * SECOND, limiter.reserve(CHUNK, false, now));
+        assertEquals(3 * SECOND - SECOND / 2, limiter.reserve(CHUNK / 2, false, now + SECOND / 2));
+
+        // unused bandwidth is not accumulated
+        now += 60 * SECOND;
+        assertEquals(0, limiter.reserve(CHUNK, false, now));
+        assertEquals(SECOND, limiter.reserve(CHUNK, false, now));
+    }
+
+    @Test
+    @DisplayName("Test that prioritized reservations skip part of the queue")
+    void test_priority() {
+        BandwidthLimiter limiter = new BandwidthLimiter(CHUNK, 1024);
+        long now = System.nanoTime();
+
+        assertTrue(limiter.prioritized(1024));
+        assertFalse(limiter.prioritized(1025));
+        assertFalse(limiter.prioritized(-1));
+
+        for (int i = 0; i < 3; i++) {
+            limiter.reserve(CHUNK, false, now);
+        }
+        assertEquals(2 * SECOND, limiter.reserve(CHUNK, true, now));
+        // but still delays the next ones
+        assertEquals(4 * SECOND, limiter.reserve(CHUNK, false, now));
+    }
+
+    @Test
+    @DisplayName("Test that invalid limits are rejected")
+    void test_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new BandwidthLimiter(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BandwidthLimiter(1, -1));
+        assertThrows(IllegalArgumentException.class, () -> new BandwidthLimiter(1, 0).reserve(CHUNK + 1, false));
+    }
+}
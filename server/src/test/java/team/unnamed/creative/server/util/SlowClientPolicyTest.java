@@ -0,0 +1,115 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowClientPolicyTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Test that clients without progress are slow after the idle timeout")
+    void test_write_idle_timeout() {
+        SlowClientPolicy policy = new SlowClientPolicy(0, SECOND, 0, 0, () -> {});
+        long now = System.nanoTime();
+        SlowClientPolicy.WriteTracker tracker = policy.writeTracker(now);
+
+        assertFalse(tracker.slow(now + SECOND / 2, true));
+        tracker.written(1, now + SECOND / 2);
+        assertFalse(tracker.slow(now + SECOND, true));
+        assertTrue(tracker.slow(now + 2 * SECOND, true));
+    }
+
+    @Test
+    @DisplayName("Test that time waiting on the server is not counted")
+    void test_not_pending() {
+        SlowClientPolicy policy = new SlowClientPolicy(0, SECOND, 1024, SECOND, () -> {});
+        long now = System.nanoTime();
+        SlowClientPolicy.WriteTracker tracker = policy.writeTracker(now);
+
+        for (int i = 1; i <= 10; i++) {
+            assertFalse(tracker.slow(now + i * SECOND, false));
+        }
+        assertFalse(tracker.slow(now + 10 * SECOND + SECOND / 2, true));
+    }
+
+    @Test
+    @DisplayName("Test that clients below the minimum throughput are slow")
+    void test_min_throughput() {
+        SlowClientPolicy policy = new SlowClientPolicy(0, 0, 1024, 2 * SECOND, () -> {});
+        long now = System.nanoTime();
+        SlowClientPolicy.WriteTracker tracker = policy.writeTracker(now);
+
+        // 1024 bytes per second
+        tracker.written(1024, now + SECOND / 2);
+        assertFalse(tracker.slow(now + SECOND, true));
+        tracker.written(1024, now + SECOND + SECOND / 2);
+        assertFalse(tracker.slow(now + 2 * SECOND, true));
+
+        // 512 bytes per second
+        tracker.written(512, now + 2 * SECOND + SECOND / 2);
+        assertFalse(tracker.slow(now + 3 * SECOND, true));
+        tracker.written(512, now + 3 * SECOND + SECOND / 2);
+        assertTrue(tracker.slow(now + 4 * SECOND, true));
+    }
+
+    @Test
+    @DisplayName("Test that bytes written while not pending don't count towards the throughput")
+    void test_min_throughput_not_pending() {
+        SlowClientPolicy policy = new SlowClientPolicy(0, 0, 1024, 2 * SECOND, () -> {});
+        long now = System.nanoTime();
+        SlowClientPolicy.WriteTracker tracker = policy.writeTracker(now);
+
+        // a burst while throttled, not measured
+        tracker.written(64 * 1024, now + SECOND / 2);
+        assertFalse(tracker.slow(now + SECOND, false));
+
+        // 512 bytes per second
+        tracker.written(512, now + SECOND + SECOND / 2);
+        assertFalse(tracker.slow(now + 2 * SECOND, true));
+        tracker.written(512, now + 2 * SECOND + SECOND / 2);
+        assertTrue(tracker.slow(now + 3 * SECOND, true));
+    }
+
+    @Test
+    @DisplayName("Test the check interval and eviction listener")
+    void test_policy() {
+        AtomicInteger evictions = new AtomicInteger();
+        SlowClientPolicy policy = new SlowClientPolicy(2 * SECOND, 0, 0, 0, evictions::incrementAndGet);
+
+        assertEquals(SECOND / 2, policy.checkInterval());
+        assertFalse(policy.limitsWrites());
+        policy.evicted();
+        assertEquals(1, evictions.get());
+
+        assertThrows(IllegalArgumentException.class, () -> new SlowClientPolicy(-1, 0, 0, 0, () -> {}));
+        assertThrows(IllegalArgumentException.class, () -> new SlowClientPolicy(0, 0, 1024, 0, () -> {}));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Test that buckets allow bursts and refill at the configured rate")
+    void test_refill() {
+        TokenBucketLimiter<String> limiter = new TokenBucketLimiter<>(2, 3);
+        long now = 1000L;
+
+        assertEquals(0, limiter.tryAcquire("a", now));
+        assertEquals(0, limiter.tryAcquire("a", now));
+        assertEquals(0, limiter.tryAcquire("a", now));
+        // empty, a token every half second
+        assertEquals(SECOND / 2, limiter.tryAcquire("a", now));
+
+        // other keys have their own bucket
+        assertEquals(0, limiter.tryAcquire("b", now));
+
+        now += SECOND / 4;
+        assertEquals(SECOND / 4, limiter.tryAcquire("a", now));
+        now += SECOND / 4;
+        assertEquals(0, limiter.tryAcquire("a", now));
+
+        // never refilled over the burst
+        now += 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a", now));
+        }
+        assertTrue(limiter.tryAcquire("a", now) > 0);
+    }
+
+    @Test
+    @DisplayName("Test that full buckets are discarded")
+    void test_cleanup() {
+        TokenBucketLimiter<Integer> limiter = new TokenBucketLimiter<>(1000, 1);
+        long now = 0L;
+        for (int i = 0; i < 100_000; i++) {
+            now += 10_000L;
+            assertEquals(0, limiter.tryAcquire(i, now));
+        }
+        assertTrue(limiter.size() < 100_000 / 4, "size " + limiter.size());
+    }
+
+    @Test
+    @DisplayName("Test that invalid limits are rejected")
+    void test_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter<>(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter<>(Double.NaN, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter<>(1, 0));
+    }
+}